@@ -1,7 +1,9 @@
 package gofish.pt.boundary;
 
+import gofish.pt.dto.BulkModerationRequestDTO;
+import gofish.pt.dto.BulkModerationResultDTO;
 import gofish.pt.dto.DeactivateItemDTO;
-import gofish.pt.entity.Item;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.service.AdminService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,7 +24,7 @@ public class AdminItemController {
      * GET /api/admin/items - List all items including inactive
      */
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
+    public ResponseEntity<List<ItemSummaryDTO>> getAllItems() {
         return ResponseEntity.ok(adminService.getAllItems());
     }
 
@@ -48,6 +50,25 @@ public class AdminItemController {
         return ResponseEntity.ok("Item reactivated successfully");
     }
 
+    /**
+     * POST /api/admin/items/bulk/deactivate - Deactivate several items; a reason is required
+     */
+    @PostMapping("/bulk/deactivate")
+    public ResponseEntity<BulkModerationResultDTO> deactivateItems(
+            @Valid @RequestBody BulkModerationRequestDTO dto,
+            Authentication authentication) {
+        Long adminId = parseAdminId(authentication);
+        return ResponseEntity.ok(adminService.deactivateItems(dto.getIds(), dto.getReason(), adminId));
+    }
+
+    @PostMapping("/bulk/reactivate")
+    public ResponseEntity<BulkModerationResultDTO> reactivateItems(
+            @Valid @RequestBody BulkModerationRequestDTO dto,
+            Authentication authentication) {
+        Long adminId = parseAdminId(authentication);
+        return ResponseEntity.ok(adminService.reactivateItems(dto.getIds(), adminId));
+    }
+
     private Long parseAdminId(Authentication authentication) {
         Object principal = authentication.getPrincipal();
         if (principal instanceof Long) {
@@ -1,13 +1,18 @@
 package gofish.pt.boundary;
 
 import gofish.pt.dto.AdminUserDTO;
+import gofish.pt.dto.BulkModerationRequestDTO;
+import gofish.pt.dto.BulkModerationResultDTO;
 import gofish.pt.service.AdminService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,11 +23,15 @@ public class AdminUserController {
     private final AdminService adminService;
 
     /**
-     * GET /api/admin/users - List all users
+     * GET /api/admin/users?role=&status=&page=&size=&sort= - List users a page at a time,
+     * optionally filtered by role (USER, ADMIN) and status (ACTIVE, SUSPENDED, DELETED)
      */
     @GetMapping
-    public ResponseEntity<List<AdminUserDTO>> getAllUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    public ResponseEntity<Page<AdminUserDTO>> getUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String status,
+            @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(adminService.getUsers(role, status, pageable));
     }
 
     /**
@@ -59,6 +68,35 @@ public class AdminUserController {
         return ResponseEntity.ok("User deleted successfully");
     }
 
+    /**
+     * POST /api/admin/users/bulk/suspend - Suspend several users; admins are reported as FORBIDDEN
+     */
+    @PostMapping("/bulk/suspend")
+    public ResponseEntity<BulkModerationResultDTO> suspendUsers(
+            @Valid @RequestBody BulkModerationRequestDTO dto,
+            Authentication authentication) {
+        Long adminId = parseAdminId(authentication);
+        String reason = dto.getReason() != null ? dto.getReason() : "Suspended by admin";
+        return ResponseEntity.ok(adminService.suspendUsers(dto.getIds(), adminId, reason));
+    }
+
+    @PostMapping("/bulk/reactivate")
+    public ResponseEntity<BulkModerationResultDTO> reactivateUsers(
+            @Valid @RequestBody BulkModerationRequestDTO dto,
+            Authentication authentication) {
+        Long adminId = parseAdminId(authentication);
+        return ResponseEntity.ok(adminService.reactivateUsers(dto.getIds(), adminId));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkModerationResultDTO> deleteUsers(
+            @Valid @RequestBody BulkModerationRequestDTO dto,
+            Authentication authentication) {
+        Long adminId = parseAdminId(authentication);
+        String reason = dto.getReason() != null ? dto.getReason() : "Deleted by admin";
+        return ResponseEntity.ok(adminService.softDeleteUsers(dto.getIds(), adminId, reason));
+    }
+
     private Long parseAdminId(Authentication authentication) {
         Object principal = authentication.getPrincipal();
         if (principal instanceof Long) {
@@ -1,11 +1,19 @@
 package gofish.pt.boundary;
 
+import gofish.pt.dto.AvailabilityCalendarDTO;
 import gofish.pt.dto.BookingRequestDTO;
 import gofish.pt.dto.BookingResponseDTO;
 import gofish.pt.dto.BookingStatusDTO;
+import gofish.pt.dto.CartBookingRequestDTO;
+import gofish.pt.dto.CartBookingResponseDTO;
+import gofish.pt.dto.CursorPageDTO;
 import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingCart;
+import gofish.pt.entity.BookingStatus;
 import gofish.pt.mapper.BookingMapper;
+import gofish.pt.repository.BookingRepository.OwnerBookingRow;
 import gofish.pt.security.SecurityUtils;
+import gofish.pt.service.AvailabilityVersions;
 import gofish.pt.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -13,9 +21,11 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -25,6 +35,7 @@ public class BookingController {
 
     private final BookingService bookingService;
     private final BookingMapper bookingMapper;
+    private final AvailabilityVersions availabilityVersions;
 
     @PostMapping
     public ResponseEntity<BookingResponseDTO> createBooking(@Valid @RequestBody BookingRequestDTO request) {
@@ -45,6 +56,40 @@ public class BookingController {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            // Datas já ocupadas (também quando outro pedido ganhou a corrida)
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    // Vários itens para as mesmas datas: ou ficam todos reservados ou nenhum
+    @PostMapping("/cart")
+    public ResponseEntity<CartBookingResponseDTO> createCartBooking(@Valid @RequestBody CartBookingRequestDTO request) {
+
+        try {
+            Long authenticatedUserId = SecurityUtils.getAuthenticatedUserId();
+
+            List<Booking> bookings = bookingService.createCartBooking(
+                    authenticatedUserId,
+                    request.getItemIds(),
+                    request.getStartDate(),
+                    request.getEndDate());
+
+            BookingCart cart = bookings.get(0).getCart();
+            CartBookingResponseDTO response = new CartBookingResponseDTO(
+                    cart.getId(),
+                    cart.getStartDate(),
+                    cart.getEndDate(),
+                    cart.getTotalCents() / 100.0,
+                    bookings.get(0).getHoldExpiresAt(),
+                    bookings.stream().map(bookingMapper::toDTO).toList());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            // Algum dos itens já está ocupado nessas datas
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
     }
 
@@ -63,35 +108,53 @@ public class BookingController {
         // Get authenticated user ID (must be the item owner)
         Long authenticatedUserId = SecurityUtils.getAuthenticatedUserId();
 
-        Booking booking = bookingService.updateBookingStatus(
-                id,
-                statusDto.getStatus(),
-                authenticatedUserId);
-
-        return ResponseEntity.ok(bookingMapper.toDTO(booking));
+        try {
+            Booking booking = bookingService.updateBookingStatus(
+                    id,
+                    statusDto.getStatus(),
+                    authenticatedUserId);
+
+            return ResponseEntity.ok(bookingMapper.toDTO(booking));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
     }
 
     @GetMapping("/item/{itemId}/month")
     public ResponseEntity<List<BookingResponseDTO>> getBookingsByMonth(
             @PathVariable Long itemId,
             @RequestParam int year,
-            @RequestParam int month) {
-        List<Booking> bookings = bookingService.getBookingsByItemAndMonth(itemId, year, month);
-        List<BookingResponseDTO> response = bookings.stream()
-                .map(bookingMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(response);
+            @RequestParam int month,
+            WebRequest request) {
+        // ETag = versão da disponibilidade do item; se o cliente já a tem, 304 sem ir à base de dados
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(itemId),
+                () -> bookingService.getBookingsByItemAndMonth(itemId, year, month).stream()
+                        .map(bookingMapper::toDTO)
+                        .toList());
+    }
+
+    // Versão compacta para o calendário público (?format=runs): só os dias indisponíveis
+    // do mês, codificados por sequências, sem dados das reservas
+    @GetMapping(value = "/item/{itemId}/month", params = "format=runs")
+    public ResponseEntity<AvailabilityCalendarDTO> getMonthCalendar(
+            @PathVariable Long itemId,
+            @RequestParam int year,
+            @RequestParam int month,
+            WebRequest request) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(itemId),
+                () -> bookingService.getUnavailabilityCalendar(itemId, yearMonth.atDay(1), yearMonth.atEndOfMonth()));
     }
 
     @GetMapping("/item/{itemId}/week")
     public ResponseEntity<List<BookingResponseDTO>> getBookingsByWeek(
             @PathVariable Long itemId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start) {
-        List<Booking> bookings = bookingService.getBookingsByItemAndWeek(itemId, start);
-        List<BookingResponseDTO> response = bookings.stream()
-                .map(bookingMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(response);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(itemId),
+                () -> bookingService.getBookingsByItemAndWeek(itemId, start).stream()
+                        .map(bookingMapper::toDTO)
+                        .toList());
     }
 
     // Get all bookings on items owned by the current user
@@ -105,6 +168,20 @@ public class BookingController {
         return ResponseEntity.ok(response);
     }
 
+    // Caixa de entrada do dono, paginada: ?status=PENDING&size=20&cursor=<nextCursor da página anterior>
+    @GetMapping("/my-items/page")
+    public CursorPageDTO<BookingResponseDTO> getBookingsOnMyItemsPage(
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        Long authenticatedUserId = SecurityUtils.getAuthenticatedUserId();
+        CursorPageDTO<OwnerBookingRow> page = bookingService.getOwnerInbox(authenticatedUserId, status, size, cursor);
+        return new CursorPageDTO<>(
+                page.getItems().stream().map(bookingMapper::toInboxDTO).toList(),
+                page.getNextCursor(),
+                page.isHasNext());
+    }
+
     // Get all bookings made by the current user
     @GetMapping("/my")
     public ResponseEntity<List<BookingResponseDTO>> getMyBookings() {
@@ -0,0 +1,29 @@
+package gofish.pt.boundary;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for cheap version tags: the tag is compared with If-None-Match first,
+ * and the body is only computed when it does not match.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ConditionalGet {
+
+    /**
+     * @param etag Strong, quoted tag; it must be read before the data it describes
+     * @return 304 with the tag when the client's copy is current, otherwise 200 with the tag and the body
+     */
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String etag, Supplier<T> body) {
+        // checkNotModified writes the ETag header itself, for both outcomes
+        if (request.checkNotModified(etag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+
+        return ResponseEntity.ok(body.get());
+    }
+}
@@ -1,11 +1,17 @@
 package gofish.pt.boundary;
 
+import gofish.pt.dto.AvailabilityCalendarDTO;
 import gofish.pt.dto.BlockDateRequestDTO;
+import gofish.pt.dto.BlockedDateRuleRequestDTO;
+import gofish.pt.dto.DateRange;
 import gofish.pt.dto.ItemDTO;
 import gofish.pt.dto.ItemFilter;
+import gofish.pt.dto.ItemPageDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.dto.ItemUpdateDTO;
 import gofish.pt.entity.*;
 import gofish.pt.repository.UserRepository; // Importar Repositório
+import gofish.pt.service.AvailabilityVersions;
 import gofish.pt.service.BookingService;
 import gofish.pt.service.ItemService;
 import jakarta.validation.Valid;
@@ -16,10 +22,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication; // Importar
 import org.springframework.security.core.context.SecurityContextHolder; // Importar
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException; // Importar
 
 import java.net.URI;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -30,19 +38,35 @@ public class ItemController {
     private final ItemService itemService;
     private final BookingService bookingService;
     private final UserRepository userRepository; // Adicionar Repositório
+    private final AvailabilityVersions availabilityVersions;
 
     @Autowired
     public ItemController(ItemService itemService,
             BookingService bookingService,
-            UserRepository userRepository) { // Injetar Repositório
+            UserRepository userRepository, // Injetar Repositório
+            AvailabilityVersions availabilityVersions) {
         this.itemService = itemService;
         this.bookingService = bookingService;
         this.userRepository = userRepository;
+        this.availabilityVersions = availabilityVersions;
     }
 
     @PostMapping("/filter")
-    public List<Item> getItems(@Valid @RequestBody(required = false) ItemFilter filter) {
-        return itemService.findAll(filter);
+    public List<ItemSummaryDTO> getItems(@Valid @RequestBody(required = false) ItemFilter filter) {
+        return itemService.findSummaries(filter);
+    }
+
+    /**
+     * Cursor-paginated version of /filter. Pass the returned nextCursor back to get the following page.
+     * With facets=true the response also carries category/material/price counts for the whole query.
+     */
+    @PostMapping("/filter/page")
+    public ItemPageDTO getItemPage(
+            @Valid @RequestBody(required = false) ItemFilter filter,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean facets) {
+        return itemService.findPage(filter, size, cursor, facets);
     }
 
     @GetMapping("/{id}")
@@ -84,31 +108,64 @@ public class ItemController {
 
     // Get all items owned by the current user
     @GetMapping("/my")
-    public ResponseEntity<List<Item>> getMyItems() {
+    public ResponseEntity<List<ItemSummaryDTO>> getMyItems() {
         Long ownerId = getCurrentUserId();
-        List<Item> items = itemService.findByOwnerId(ownerId);
+        List<ItemSummaryDTO> items = itemService.findSummariesByOwner(ownerId);
         return ResponseEntity.ok(items);
     }
 
+    /**
+     * Unavailable days of the item in [from, to]. Tagged with the item's availability
+     * version: a matching If-None-Match gets 304 without computing anything.
+     */
     @GetMapping("/{id}/unavailability")
     public ResponseEntity<List<LocalDate>> checkAvailability(
             @PathVariable Long id,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
 
-        List<LocalDate> blockedDates = bookingService.getUnavailableDates(id, from, to);
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(id),
+                () -> bookingService.getUnavailableDates(id, from, to));
+    }
 
-        return ResponseEntity.ok(blockedDates);
+    /**
+     * Compact form of the above ({@code ?format=runs}): start date plus run-length encoded
+     * unavailable days, a few numbers instead of one ISO date per unavailable day.
+     */
+    @GetMapping(value = "/{id}/unavailability", params = "format=runs")
+    public ResponseEntity<AvailabilityCalendarDTO> checkAvailabilityRuns(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(id),
+                () -> bookingService.getUnavailabilityCalendar(id, from, to));
+    }
+
+    /**
+     * Unavailable days of several items over the same range (e.g. a fleet calendar),
+     * as merged {start, end} ranges per item id.
+     */
+    @GetMapping("/unavailability")
+    public ResponseEntity<Map<Long, List<DateRange>>> checkAvailabilityBatch(
+            @RequestParam List<Long> ids,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(bookingService.getUnavailableRanges(new LinkedHashSet<>(ids), from, to));
     }
 
     @GetMapping("/{itemId}/blocked-dates")
     public ResponseEntity<List<BlockedDate>> getBlockedDates(
             @PathVariable Long itemId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
 
-        List<BlockedDate> blockedDates = itemService.getBlockedDates(itemId, from, to);
-        return ResponseEntity.ok(blockedDates);
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(itemId),
+                () -> itemService.getBlockedDates(itemId, from, to));
     }
 
     @PostMapping("/{itemId}/blocked-dates")
@@ -121,6 +178,17 @@ public class ItemController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedBlockedDate);
     }
 
+    // Free the days [startDate, endDate], trimming or splitting the periods that cover them
+    @DeleteMapping("/{itemId}/blocked-dates")
+    public ResponseEntity<Void> unblockDates(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Long ownerId = getCurrentUserId();
+        itemService.unblockDates(itemId, startDate, endDate, ownerId);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/blocked-dates/{blockedDateId}")
     public ResponseEntity<Void> unblockDate(@PathVariable Long blockedDateId) {
         Long ownerId = getCurrentUserId();
@@ -128,6 +196,30 @@ public class ItemController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/{itemId}/blocked-date-rules")
+    public ResponseEntity<List<BlockedDateRule>> getBlockedDateRules(@PathVariable Long itemId, WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, availabilityVersions.etag(itemId),
+                () -> itemService.getBlockedDateRules(itemId));
+    }
+
+    // Recurring block, e.g. every weekday, or every day from November to February
+    @PostMapping("/{itemId}/blocked-date-rules")
+    public ResponseEntity<BlockedDateRule> addBlockedDateRule(
+            @PathVariable Long itemId,
+            @Valid @RequestBody BlockedDateRuleRequestDTO request) {
+
+        Long ownerId = getCurrentUserId();
+        BlockedDateRule saved = itemService.addBlockedDateRule(itemId, request, ownerId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+
+    @DeleteMapping("/blocked-date-rules/{ruleId}")
+    public ResponseEntity<Void> removeBlockedDateRule(@PathVariable Long ruleId) {
+        Long ownerId = getCurrentUserId();
+        itemService.removeBlockedDateRule(ruleId, ownerId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Recupera o ID do utilizador autenticado através do Spring Security Context.
      */
@@ -1,6 +1,7 @@
 package gofish.pt.boundary;
 
 import gofish.pt.dto.ConfirmPaymentDTO;
+import gofish.pt.dto.CreateCartPaymentIntentDTO;
 import gofish.pt.dto.CreatePaymentIntentDTO;
 import gofish.pt.dto.PaymentIntentResponseDTO;
 import gofish.pt.service.PaymentService;
@@ -27,6 +28,17 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Create one Stripe PaymentIntent for all bookings of a cart
+     */
+    @PostMapping("/create-cart-intent")
+    public ResponseEntity<PaymentIntentResponseDTO> createCartPaymentIntent(
+            @Valid @RequestBody CreateCartPaymentIntentDTO request) {
+
+        PaymentIntentResponseDTO response = paymentService.createCartPaymentIntent(request);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Confirm a payment after frontend processing
      */
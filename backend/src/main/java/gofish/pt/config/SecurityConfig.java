@@ -40,7 +40,7 @@ public class SecurityConfig {
                         .requestMatchers("/v3/api-docs/*", "/swagger-ui/*", "/swagger-ui.html").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/items/my").authenticated()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/items/**").permitAll()
-                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/items/filter").permitAll() // Filter/search
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/items/filter", "/api/items/filter/page").permitAll() // Filter/search
                                                                                                                     // is
                                                                                                                     // public
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/reviews/**").permitAll()
@@ -0,0 +1,12 @@
+package gofish.pt.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Run-length encoded availability calendar, for clients that only need to shade days.
+ * Starting at {@code start}, {@code runs} alternates free and unavailable day counts,
+ * always beginning with a free run (possibly 0) and adding up to {@code days}.
+ * E.g. start 2025-07-01, days 10, runs [2, 3, 5]: the 3rd to the 5th are unavailable.
+ */
+public record AvailabilityCalendarDTO(LocalDate start, int days, int[] runs) {
+}
@@ -0,0 +1,25 @@
+package gofish.pt.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.MonthDay;
+import java.util.Set;
+
+/**
+ * A recurring block: the given days of the week, all year or only from seasonStart to
+ * seasonEnd ("--11-01" to "--02-28" wraps over the new year).
+ */
+@Data
+public class BlockedDateRuleRequestDTO {
+
+    @NotEmpty(message = "At least one day of the week is required")
+    private Set<DayOfWeek> daysOfWeek;
+
+    private MonthDay seasonStart;
+
+    private MonthDay seasonEnd;
+
+    private String reason;
+}
@@ -0,0 +1,38 @@
+package gofish.pt.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a booking listing ordered by (startDate, id): the key of the last
+ * row of a page, encoded as an opaque URL-safe string.
+ */
+public record BookingCursor(LocalDate startDate, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = startDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws ResponseStatusException 400 if the cursor is malformed
+     */
+    public static BookingCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            if (parts.length != 2)
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            return new BookingCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -4,6 +4,7 @@ import gofish.pt.entity.BookingStatus;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 public class BookingResponseDTO {
@@ -13,6 +14,8 @@ public class BookingResponseDTO {
     private LocalDate endDate;
     private BookingStatus status;
     private Double price; // Vamos calcular isto na hora de converter!
+    private LocalDateTime holdExpiresAt; // Até quando uma reserva pendente segura as datas
+    private Long cartId; // Só para reservas feitas num carrinho
 
     // Nã mandes o Item todo, manda só o essencial para mostrar no ecrã
     private Long itemId;
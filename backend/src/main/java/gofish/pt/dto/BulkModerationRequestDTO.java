@@ -0,0 +1,23 @@
+package gofish.pt.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationRequestDTO {
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 500, message = "At most 500 ids per request")
+    private List<@NotNull Long> ids;
+
+    private String reason; // Required to deactivate items; optional otherwise
+}
@@ -0,0 +1,30 @@
+package gofish.pt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Result of a bulk admin action: one outcome per distinct id, in request order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationResultDTO {
+    private int updated;
+    private List<Entry> results;
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED, // Already in the requested state
+        NOT_FOUND,
+        FORBIDDEN  // Admin accounts cannot be suspended or deleted
+    }
+
+    public record Entry(Long id, Outcome outcome) {
+    }
+}
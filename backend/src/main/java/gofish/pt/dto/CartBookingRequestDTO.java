@@ -0,0 +1,24 @@
+package gofish.pt.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class CartBookingRequestDTO {
+
+    @NotEmpty(message = "O carrinho está vazio!")
+    private List<@NotNull Long> itemIds;
+
+    @NotNull
+    @Future(message = "A data de início tem de ser no futuro!")
+    private LocalDate startDate;
+
+    @NotNull
+    @Future(message = "A data de fim tem de ser no futuro!")
+    private LocalDate endDate;
+}
@@ -0,0 +1,22 @@
+package gofish.pt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBookingResponseDTO {
+
+    private Long cartId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Double totalPrice; // Soma das reservas; é isto que se paga de uma vez
+    private LocalDateTime holdExpiresAt;
+    private List<BookingResponseDTO> bookings; // Uma por item, por ordem de id
+}
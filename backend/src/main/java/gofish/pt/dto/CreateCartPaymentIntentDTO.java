@@ -0,0 +1,17 @@
+package gofish.pt.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCartPaymentIntentDTO {
+
+    @NotNull(message = "Cart ID is required")
+    private Long cartId;
+
+    private String currency = "eur"; // The amount is the cart total, computed server-side
+}
@@ -0,0 +1,9 @@
+package gofish.pt.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Inclusive range of days, e.g. a booking or a blocked period.
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+}
@@ -0,0 +1,97 @@
+package gofish.pt.dto;
+
+import gofish.pt.entity.Category;
+import gofish.pt.entity.Item;
+import gofish.pt.entity.Material;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Keyset position in the item catalog: the sort key and id of the last row of a page.
+ * Encoded as an opaque URL-safe string so clients can only hand it back unchanged.
+ */
+public record ItemCursor(String sortBy, Sort.Direction direction, Comparable<?> value, Long id) {
+
+    public static final Set<String> SORTABLE_FIELDS = Set.of(
+            "id", "name", "description", "price", "category", "material", "available");
+
+    private static final String SEPARATOR = ":";
+
+    public static ItemCursor after(Item last, String sortBy, Sort.Direction direction) {
+        return new ItemCursor(sortBy, direction, sortValue(last, sortBy), last.getId());
+    }
+
+    public static ItemCursor after(ItemSummaryDTO last, String sortBy, Sort.Direction direction) {
+        return new ItemCursor(sortBy, direction, sortValue(last, sortBy), last.id());
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + valueToString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor and checks it was issued for the same ordering as the current request.
+     *
+     * @throws ResponseStatusException 400 if the cursor is malformed or belongs to another ordering
+     */
+    public static ItemCursor decode(String encoded, String sortBy, Sort.Direction direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4 || !parts[0].equals(sortBy) || Sort.Direction.fromString(parts[1]) != direction) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            return new ItemCursor(sortBy, direction, parseValue(sortBy, parts[3]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private String valueToString() {
+        return value instanceof Enum<?> e ? e.name() : String.valueOf(value);
+    }
+
+    private static Comparable<?> sortValue(Item item, String sortBy) {
+        return switch (sortBy) {
+            case "id" -> item.getId();
+            case "name" -> item.getName();
+            case "description" -> item.getDescription();
+            case "price" -> item.getPrice();
+            case "category" -> item.getCategory();
+            case "material" -> item.getMaterial();
+            case "available" -> item.getAvailable();
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot paginate by " + sortBy);
+        };
+    }
+
+    private static Comparable<?> sortValue(ItemSummaryDTO item, String sortBy) {
+        return switch (sortBy) {
+            case "id" -> item.id();
+            case "name" -> item.name();
+            case "description" -> item.description();
+            case "price" -> item.price();
+            case "category" -> item.category();
+            case "material" -> item.material();
+            case "available" -> item.available();
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot paginate by " + sortBy);
+        };
+    }
+
+    private static Comparable<?> parseValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "id" -> Long.parseLong(value);
+            case "name", "description" -> value;
+            case "price" -> Double.parseDouble(value);
+            case "category" -> Category.valueOf(value);
+            case "material" -> Material.valueOf(value);
+            case "available" -> Boolean.parseBoolean(value);
+            default -> throw new IllegalArgumentException("Unsupported sort field " + sortBy);
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package gofish.pt.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Booking or blocked period of one item, projected without loading the entity.
+ */
+public record ItemDateRange(Long itemId, LocalDate start, LocalDate end) {
+
+    public DateRange range() {
+        return new DateRange(start, end);
+    }
+}
@@ -0,0 +1,57 @@
+package gofish.pt.dto;
+
+import gofish.pt.entity.Category;
+import gofish.pt.entity.Material;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-category, per-material and per-price-range counts for the items matching a filter.
+ * Filled incrementally with {@link #add}, one call per aggregated row or item.
+ */
+@Getter
+public class ItemFacetsDTO {
+
+    /**
+     * Upper bounds (exclusive) of the price ranges; the last range is open-ended.
+     */
+    public static final List<Double> PRICE_BOUNDS = List.of(10.0, 25.0, 50.0, 100.0);
+    private static final String[] PRICE_LABELS = { "0-10", "10-25", "25-50", "50-100", "100+" };
+
+    private long total;
+    private final Map<Category, Long> categories = new EnumMap<>(Category.class);
+    private final Map<Material, Long> materials = new EnumMap<>(Material.class);
+    private final Map<String, Long> priceRanges = new LinkedHashMap<>();
+
+    public ItemFacetsDTO() {
+        for (String label : PRICE_LABELS)
+            priceRanges.put(label, 0L);
+    }
+
+    public void add(Category category, Material material, double price, long count) {
+        addToRange(category, material, priceRange(price), count);
+    }
+
+    /**
+     * Same as {@link #add}, for counts already grouped by price range.
+     *
+     * @param priceRange Index of the range: the number of {@link #PRICE_BOUNDS} at or below the price
+     */
+    public void addToRange(Category category, Material material, int priceRange, long count) {
+        total += count;
+        categories.merge(category, count, Long::sum);
+        materials.merge(material, count, Long::sum);
+        priceRanges.merge(PRICE_LABELS[priceRange], count, Long::sum);
+    }
+
+    private static int priceRange(double price) {
+        int range = 0;
+        while (range < PRICE_BOUNDS.size() && price >= PRICE_BOUNDS.get(range))
+            range++;
+        return range;
+    }
+}
@@ -6,6 +6,8 @@ import gofish.pt.entity.Category;
 import gofish.pt.entity.Material;
 import org.springframework.data.domain.Sort;
 
+import java.time.LocalDate;
+
 public record ItemFilter(
                 String name,
 
@@ -14,5 +16,23 @@ public record ItemFilter(
                 Double minPrice,
                 Double maxPrice,
                 String sortBy,
-                Sort.Direction direction) {
+                Sort.Direction direction,
+                // Match the category and all its subcategories instead of the exact category
+                Boolean includeSubcategories,
+                // Only items free (no confirmed/active booking, no blocked period) on every day of [from, to]
+                LocalDate from,
+                LocalDate to) {
+
+        public ItemFilter(String name, Category category, Material material, Double minPrice, Double maxPrice,
+                        String sortBy, Sort.Direction direction) {
+                this(name, category, material, minPrice, maxPrice, sortBy, direction, null, null, null);
+        }
+
+        public boolean matchesSubcategories() {
+                return Boolean.TRUE.equals(includeSubcategories);
+        }
+
+        public boolean hasDateRange() {
+                return from != null || to != null;
+        }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package gofish.pt.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A page of catalog item summaries, with facet counts for the whole query when they were requested.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItemPageDTO extends CursorPageDTO<ItemSummaryDTO> {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ItemFacetsDTO facets;
+
+    public ItemPageDTO(List<ItemSummaryDTO> items, String nextCursor, boolean hasNext, ItemFacetsDTO facets) {
+        super(items, nextCursor, hasNext);
+        this.facets = facets;
+    }
+}
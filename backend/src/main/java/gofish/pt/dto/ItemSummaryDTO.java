@@ -0,0 +1,47 @@
+package gofish.pt.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import gofish.pt.entity.Category;
+import gofish.pt.entity.Item;
+import gofish.pt.entity.Material;
+import gofish.pt.entity.User;
+
+import java.util.List;
+
+/**
+ * List-view row for item cards and tables. Field names match the {@link Item} JSON so
+ * clients can read either, but photoUrls only carries the cover photo; the full gallery
+ * comes from GET /api/items/{id}.
+ */
+public record ItemSummaryDTO(
+        Long id,
+        String name,
+        String description,
+        Double price,
+        @JsonIgnoreProperties("subCategories") Category category,
+        Material material,
+        Boolean available,
+        Boolean active,
+        String deactivationReason,
+        List<String> photoUrls,
+        Owner owner,
+        Double averageRating,
+        long reviewCount) {
+
+    public record Owner(Long id, String username) {
+    }
+
+    /**
+     * Builds the summary from an already loaded item (e.g. from the catalog snapshot).
+     */
+    public static ItemSummaryDTO of(Item item, Double averageRating, long reviewCount) {
+        List<String> photos = item.getPhotoUrls();
+        User owner = item.getOwner();
+        return new ItemSummaryDTO(item.getId(), item.getName(), item.getDescription(), item.getPrice(),
+                item.getCategory(), item.getMaterial(), item.getAvailable(), item.getActive(),
+                item.getDeactivationReason(),
+                photos == null || photos.isEmpty() ? List.of() : List.of(photos.get(0)),
+                owner == null ? null : new Owner(owner.getId(), owner.getUsername()),
+                averageRating, reviewCount);
+    }
+}
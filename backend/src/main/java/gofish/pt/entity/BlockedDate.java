@@ -9,7 +9,9 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "blocked_date")
+@Table(name = "blocked_date", indexes = {
+        @Index(name = "idx_blocked_date_item_dates", columnList = "item_id, start_date, end_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,54 @@
+package gofish.pt.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A blocked period that repeats: the days of the week in {@link #weekdays}, either all
+ * year or only inside a yearly season. Stored once per item and expanded only over the
+ * days being asked about.
+ */
+@Entity
+@Table(name = "blocked_date_rule", indexes = {
+        @Index(name = "idx_blocked_date_rule_item", columnList = "item_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class BlockedDateRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Bit 0 = Monday ... bit 6 = Sunday; 0x7F blocks every day
+    @Column(nullable = false)
+    private Integer weekdays;
+
+    // Season as MMDD, e.g. 1101 to 0228 (an end before the start wraps over the new year).
+    // Both null: the rule applies all year
+    @Column
+    private Integer seasonStart;
+
+    @Column
+    private Integer seasonEnd;
+
+    @Column
+    private String reason;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    @JsonIgnore
+    private Item item;
+
+    public BlockedDateRule(Integer weekdays, Integer seasonStart, Integer seasonEnd, String reason, Item item) {
+        this.weekdays = weekdays;
+        this.seasonStart = seasonStart;
+        this.seasonEnd = seasonEnd;
+        this.reason = reason;
+        this.item = item;
+    }
+}
@@ -1,13 +1,16 @@
 package gofish.pt.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 
 
@@ -16,7 +19,14 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_item_dates", columnList = "item_id, start_date, end_date"),
+        @Index(name = "idx_bookings_status_hold", columnList = "status, hold_expires_at"),
+        @Index(name = "idx_bookings_status_start", columnList = "status, start_date"),
+        @Index(name = "idx_bookings_status_end", columnList = "status, end_date"),
+        @Index(name = "idx_bookings_cart", columnList = "cart_id"),
+        @Index(name = "idx_bookings_user", columnList = "user_id")
+})
 public class Booking {
 
     @Id
@@ -34,9 +44,10 @@ public class Booking {
     @Column(nullable = false)
     private BookingStatus status;
 
-    @Column
-    @Positive
-    private Double price;
+    // Price in cents fixed when the booking is created; later item price changes do not affect it
+    @Column(name = "price_cents")
+    @PositiveOrZero
+    private Long priceCents;
 
     @ManyToOne
     @JoinColumn(name = "item_id", nullable = false)
@@ -46,5 +57,41 @@ public class Booking {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Until when a PENDING booking holds its dates while payment completes
+    @Column
+    private LocalDateTime holdExpiresAt;
+
+    // Set when the booking was made as part of a cart, which is paid as a whole
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cart_id")
+    @JsonIgnore
+    private BookingCart cart;
+
+    /**
+     * Whether this booking keeps its dates off the calendar at the given moment:
+     * confirmed and active bookings always do, pending ones only while their hold is live.
+     */
+    public boolean occupiesAt(LocalDateTime now) {
+        if (status == null)
+            return false;
+        return switch (status) {
+            case CONFIRMED, ACTIVE -> true;
+            case PENDING -> holdExpiresAt != null && holdExpiresAt.isAfter(now);
+            default -> false;
+        };
+    }
+
+    /**
+     * Price in cents of renting the item from start to end: the daily price times the
+     * number of days, charging at least one. Zero when the item has no price.
+     */
+    public static long priceCents(Item item, LocalDate start, LocalDate end) {
+        if (item.getPrice() == null)
+            return 0L;
 
+        long days = ChronoUnit.DAYS.between(start, end);
+        if (days < 1)
+            days = 1;
+        return Math.round(item.getPrice() * 100 * days);
+    }
 }
@@ -0,0 +1,49 @@
+package gofish.pt.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Several items booked together for the same dates. Each item still has its own
+ * {@link Booking} pointing here; the cart carries the total and is paid as a whole.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_carts")
+public class BookingCart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    // Sum of the bookings' prices, in cents
+    @Column(nullable = false)
+    private Long totalCents;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -5,8 +5,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 @Getter
 @JsonFormat(shape = JsonFormat.Shape.OBJECT)
@@ -142,6 +141,27 @@ public enum Category {
     ANCHORS(ADDONS, "Anchors"),
     MOUNTING_SYSTEMS(ADDONS, "Mounting Systems");
 
+    // Tree shape is fixed at compile time, so children and subtrees are computed once here
+    private static final Map<Category, List<Category>> CHILDREN = new EnumMap<>(Category.class);
+    private static final Map<Category, Set<Category>> SUBTREES = new EnumMap<>(Category.class);
+
+    static {
+        Map<Category, EnumSet<Category>> subtrees = new EnumMap<>(Category.class);
+        Map<Category, List<Category>> children = new EnumMap<>(Category.class);
+        for (Category category : values()) {
+            subtrees.put(category, EnumSet.of(category));
+            children.put(category, new ArrayList<>());
+        }
+        for (Category category : values()) {
+            if (category.parent != null)
+                children.get(category.parent).add(category);
+            for (Category ancestor = category.parent; ancestor != null; ancestor = ancestor.parent)
+                subtrees.get(ancestor).add(category);
+        }
+        children.forEach((category, list) -> CHILDREN.put(category, List.copyOf(list)));
+        subtrees.forEach((category, set) -> SUBTREES.put(category, Collections.unmodifiableSet(set)));
+    }
+
     @JsonIgnore
     private final Category parent;
     private final String displayName;
@@ -162,9 +182,14 @@ public enum Category {
 
     @JsonProperty("subCategories")
     public List<Category> subCategories() {
-        return Arrays.stream(values())
-                .filter(c -> c.parent == this)
-                .toList();
+        return CHILDREN.get(this);
+    }
+
+    /**
+     * This category and every category below it, at any depth.
+     */
+    public Set<Category> subtree() {
+        return SUBTREES.get(this);
     }
 
     public String getId() {
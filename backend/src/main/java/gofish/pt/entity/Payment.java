@@ -37,6 +37,11 @@ public class Payment {
     @Column(nullable = false)
     private PaymentStatus status;
 
+    // Charged for bookings that could not be confirmed and the automatic refund failed;
+    // null on rows from before refunds were tracked
+    @Column
+    private Boolean refundDue;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
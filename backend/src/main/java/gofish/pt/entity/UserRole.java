@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "user_roles")
+@Table(name = "user_roles", indexes = {
+        @Index(name = "idx_user_roles_user", columnList = "user_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
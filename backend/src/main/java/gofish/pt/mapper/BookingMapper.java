@@ -3,10 +3,12 @@ package gofish.pt.mapper;
 import gofish.pt.dto.BookingRequestDTO;
 import gofish.pt.dto.BookingResponseDTO;
 import gofish.pt.entity.Booking;
+import gofish.pt.repository.BookingRepository.OwnerBookingRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
 @Mapper(componentModel = "spring")
@@ -18,6 +20,9 @@ public interface BookingMapper {
     // o Controller desenpacota. Mas se precisares, seria algo assim:
     @Mapping(target = "item", ignore = true) // O Service é que busca o Item
     @Mapping(target = "user", ignore = true) // O Service é que busca o User
+    @Mapping(target = "holdExpiresAt", ignore = true) // O Service é que define a retenção
+    @Mapping(target = "priceCents", ignore = true) // E o preço, a partir do Item
+    @Mapping(target = "cart", ignore = true)
     @Mapping(target = "status", constant = "PENDING")
     // Começa sempre Pendente
     Booking toEntity(BookingRequestDTO dto);
@@ -28,31 +33,45 @@ public interface BookingMapper {
     @Mapping(target = "itemName", source = "item.name")
     @Mapping(target = "userId", source = "user.id")
     @Mapping(target = "userName", source = "user.username") // Supondo que User tem 'name'
+    @Mapping(target = "cartId", source = "cart.id")
     @Mapping(target = "price", source = ".", qualifiedByName = "calculatePrice")
     @Mapping(target = "itemPhotoUrl", source = "item.photoUrls", qualifiedByName = "getFirstPhoto")
     BookingResponseDTO toDTO(Booking booking);
 
 
+    // --- Linha da caixa de entrada do dono (projeção, sem entidades) ---
+    // Os restantes campos têm o mesmo nome dos dois lados
+    @Mapping(target = "price", expression = "java(price(row.getPriceCents(), row.getItemPrice(), row.getStartDate(), row.getEndDate()))")
+    BookingResponseDTO toInboxDTO(OwnerBookingRow row);
+
+
     @Named("calculatePrice")
     default Double calculatePrice(Booking booking) {
+        Double pricePerDay = booking.getItem() != null ? booking.getItem().getPrice() : null;
+        return price(booking.getPriceCents(), pricePerDay, booking.getStartDate(), booking.getEndDate());
+    }
+
+    default Double price(Long priceCents, Double pricePerDay, LocalDate startDate, LocalDate endDate) {
+        // 0. O preço guardado na criação (em cêntimos) é o que vale; as contas abaixo
+        // só servem para reservas antigas, anteriores a essa coluna
+        if (priceCents != null) {
+            return priceCents / 100.0;
+        }
+
         // 1. Validações de segurança para nã dar estouro
-        if (booking.getItem() == null || booking.getStartDate() == null || booking.getEndDate() == null) {
+        if (pricePerDay == null || startDate == null || endDate == null) {
             return 0.0;
         }
 
         // 2. Calcular o número de dias
         // O ChronoUnit.DAYS conta dias inteiros.
-        long days = ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate());
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
 
         // Regra de Negócio: Se alugar de manhã e devolver à tarde (0 dias no ChronoUnit), cobra 1 dia?
         // Vou assumir que sim, cobra no mínimo 1 dia.
         if (days == 0) days = 1;
 
-        // 3. Buscar o preço diário do Item
-        Double pricePerDay = booking.getItem().getPrice();
-        if (pricePerDay == null) return 0.0;
-
-        // 4. A conta final
+        // 3. A conta final
         return days * pricePerDay;
     }
 
@@ -0,0 +1,15 @@
+package gofish.pt.repository;
+
+import gofish.pt.entity.AuditLog;
+
+import java.util.List;
+
+public interface AuditLogRepositoryCustom {
+
+    /**
+     * Inserts the entries as a single JDBC batch. Audit ids are IDENTITY columns, which
+     * keeps Hibernate from batching inserts, so the rows are written directly: the given
+     * entities are not managed afterwards and their ids stay null. createdAt must be set.
+     */
+    void insertAll(List<AuditLog> entries);
+}
@@ -0,0 +1,39 @@
+package gofish.pt.repository;
+
+import gofish.pt.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Batch insert behind the audit write-behind queue: AuditLogWriter flushes each batch
+ * here instead of through save(), which would issue one INSERT per entry.
+ */
+@RequiredArgsConstructor
+public class AuditLogRepositoryImpl implements AuditLogRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO audit_logs "
+            + "(admin_id, action, target_type, target_id, details, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<AuditLog> entries) {
+        if (entries.isEmpty())
+            return;
+
+        // AuditLogWriter calls this in its own REQUIRES_NEW transaction, so a failed batch
+        // rolls back alone and can be retried as a whole
+        jdbcTemplate.batchUpdate(INSERT, entries.stream()
+                .map(entry -> new Object[] {
+                        entry.getAdminId(),
+                        entry.getAction(),
+                        entry.getTargetType(),
+                        entry.getTargetId(),
+                        entry.getDetails(),
+                        entry.getCreatedAt() })
+                .toList());
+    }
+}
@@ -1,5 +1,6 @@
 package gofish.pt.repository;
 
+import gofish.pt.dto.ItemDateRange;
 import gofish.pt.entity.BlockedDate;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,4 +28,35 @@ public interface BlockedDateRepository extends JpaRepository<BlockedDate, Long>
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
+
+    /**
+     * Same overlap rule as {@link #findBlockedDatesInRange} for several items in one query,
+     * projected to plain ranges.
+     * @param itemIds The IDs of the items.
+     * @param startDate The start of the query range.
+     * @param endDate The end of the query range.
+     * @return The blocked periods of every item, tagged with the item ID.
+     */
+    @Query("SELECT new gofish.pt.dto.ItemDateRange(b.item.id, b.startDate, b.endDate) FROM BlockedDate b " +
+            "WHERE b.item.id IN :itemIds AND b.startDate <= :endDate AND b.endDate >= :startDate")
+    List<ItemDateRange> findBlockedRangesForItems(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Every blocked period of an item, earliest first.
+     * @param itemId The ID of the item.
+     * @return The item's BlockedDate entities ordered by start date.
+     */
+    List<BlockedDate> findAllByItemIdOrderByStartDateAsc(Long itemId);
+
+    /**
+     * Items with more than one blocked period, i.e. the only ones whose periods may
+     * overlap or touch.
+     * @return The IDs of those items, ascending.
+     */
+    @Query("SELECT b.item.id FROM BlockedDate b GROUP BY b.item.id HAVING COUNT(b) > 1 ORDER BY b.item.id")
+    List<Long> findItemIdsWithSeveralBlockedDates();
 }
@@ -0,0 +1,26 @@
+package gofish.pt.repository;
+
+import gofish.pt.entity.BlockedDateRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BlockedDateRuleRepository extends JpaRepository<BlockedDateRule, Long> {
+
+    /**
+     * Every recurring rule of an item.
+     * @param itemId The ID of the item.
+     * @return The item's BlockedDateRule entities.
+     */
+    List<BlockedDateRule> findAllByItemId(Long itemId);
+
+    /**
+     * The recurring rules of several items in one query.
+     * @param itemIds The IDs of the items.
+     * @return The rules of every item; group them by item ID.
+     */
+    List<BlockedDateRule> findAllByItemIdIn(Collection<Long> itemIds);
+}
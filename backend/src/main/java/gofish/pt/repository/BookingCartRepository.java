@@ -0,0 +1,7 @@
+package gofish.pt.repository;
+
+import gofish.pt.entity.BookingCart;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BookingCartRepository extends JpaRepository<BookingCart, Long> {
+}
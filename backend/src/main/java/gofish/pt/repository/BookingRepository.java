@@ -1,38 +1,73 @@
 package gofish.pt.repository;
 
+import gofish.pt.dto.ItemDateRange;
 import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+
+        // Reservas que ocupam datas em :now: confirmadas, ativas e retenções PENDENTES ainda válidas
+        String OCCUPYING = "AND (b.status IN (gofish.pt.entity.BookingStatus.CONFIRMED, gofish.pt.entity.BookingStatus.ACTIVE) "
+                        + "OR (b.status = gofish.pt.entity.BookingStatus.PENDING AND b.holdExpiresAt > :now)) ";
 
         // Query para ver se já existe alguma reserva "ATIVA" ou "CONFIRMADA" que se
-        // sobreponha às datas
+        // sobreponha às datas, ou uma PENDENTE cuja retenção ainda não expirou em :now
         // A lógica é: (StartA < EndB) e (EndA > StartB)
         @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
                         "FROM Booking b " +
                         "WHERE b.item.id = :itemId " +
-                        "AND b.status NOT IN (gofish.pt.entity.BookingStatus.CANCELLED, gofish.pt.entity.BookingStatus.PENDING, gofish.pt.entity.BookingStatus.COMPLETED) "
-                        +
+                        OCCUPYING +
                         "AND b.startDate < :endDate " +
                         "AND b.endDate > :startDate")
         boolean existsOverlappingBooking(@Param("itemId") Long itemId,
                         @Param("startDate") LocalDate startDate,
-                        @Param("endDate") LocalDate endDate);
+                        @Param("endDate") LocalDate endDate,
+                        @Param("now") LocalDateTime now);
 
         @Query("SELECT b FROM Booking b " +
                         "WHERE b.item.id = :itemId " +
-                        "AND b.status IN (gofish.pt.entity.BookingStatus.CONFIRMED, gofish.pt.entity.BookingStatus.ACTIVE) "
-                        +
+                        OCCUPYING +
                         "AND b.endDate >= :start " +
                         "AND b.startDate <= :end")
         List<Booking> findBookingsInRange(@Param("itemId") Long itemId,
                         @Param("start") LocalDate start,
-                        @Param("end") LocalDate end);
+                        @Param("end") LocalDate end,
+                        @Param("now") LocalDateTime now);
+
+        // Same rule as findBookingsInRange for several items at once, without loading the entities
+        @Query("SELECT new gofish.pt.dto.ItemDateRange(b.item.id, b.startDate, b.endDate) FROM Booking b " +
+                        "WHERE b.item.id IN :itemIds " +
+                        OCCUPYING +
+                        "AND b.endDate >= :start " +
+                        "AND b.startDate <= :end")
+        List<ItemDateRange> findBookingRangesForItems(@Param("itemIds") Collection<Long> itemIds,
+                        @Param("start") LocalDate start,
+                        @Param("end") LocalDate end,
+                        @Param("now") LocalDateTime now);
+
+        // Mesma regra que existsOverlappingBooking para vários itens de uma vez:
+        // devolve os que já estão ocupados em parte das datas
+        @Query("SELECT DISTINCT b.item.id FROM Booking b " +
+                        "WHERE b.item.id IN :itemIds " +
+                        OCCUPYING +
+                        "AND b.startDate < :endDate " +
+                        "AND b.endDate > :startDate")
+        List<Long> findItemIdsWithOverlappingBooking(@Param("itemIds") Collection<Long> itemIds,
+                        @Param("startDate") LocalDate startDate,
+                        @Param("endDate") LocalDate endDate,
+                        @Param("now") LocalDateTime now);
+
+        List<Booking> findAllByCartIdOrderByItemIdAsc(Long cartId);
 
         List<Booking> findAllByUserId(Long userId);
 
@@ -48,10 +83,125 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                         @Param("start") LocalDate start,
                         @Param("end") LocalDate end);
 
-        // Find all bookings on items owned by a specific user
-        @Query("SELECT b FROM Booking b " +
-                        "WHERE b.item.owner.id = :ownerId " +
+        // Find all bookings on items owned by a specific user (item and renter in the same query)
+        @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.user " +
+                        "WHERE i.owner.id = :ownerId " +
                         "ORDER BY b.startDate DESC")
         List<Booking> findAllByItemOwnerId(@Param("ownerId") Long ownerId);
 
+        // Caixa de entrada do dono: só as colunas que a lista mostra, reserva + item + quem reservou
+        // numa só query. A foto de capa é a menor URL do item, para não multiplicar linhas
+        String OWNER_INBOX = "SELECT b.id AS id, b.startDate AS startDate, b.endDate AS endDate, " +
+                        "b.status AS status, b.priceCents AS priceCents, b.holdExpiresAt AS holdExpiresAt, " +
+                        "c.id AS cartId, i.id AS itemId, i.name AS itemName, i.price AS itemPrice, " +
+                        "(SELECT MIN(p) FROM Item ip JOIN ip.photoUrls p WHERE ip.id = i.id) AS itemPhotoUrl, " +
+                        "u.id AS userId, u.username AS userName " +
+                        "FROM Booking b JOIN b.item i JOIN b.user u LEFT JOIN b.cart c " +
+                        "WHERE i.owner.id = :ownerId AND b.status IN :statuses ";
+
+        // Primeira página, por (startDate, id) descendente
+        @Query(OWNER_INBOX + "ORDER BY b.startDate DESC, b.id DESC")
+        List<OwnerBookingRow> findOwnerInbox(@Param("ownerId") Long ownerId,
+                        @Param("statuses") Collection<BookingStatus> statuses,
+                        Pageable page);
+
+        // Páginas seguintes: continua depois da última linha devolvida (keyset, sem OFFSET)
+        @Query(OWNER_INBOX +
+                        "AND (b.startDate < :startDate OR (b.startDate = :startDate AND b.id < :id)) " +
+                        "ORDER BY b.startDate DESC, b.id DESC")
+        List<OwnerBookingRow> findOwnerInboxAfter(@Param("ownerId") Long ownerId,
+                        @Param("statuses") Collection<BookingStatus> statuses,
+                        @Param("startDate") LocalDate startDate,
+                        @Param("id") Long id,
+                        Pageable page);
+
+        // Retenções PENDENTES já expiradas, por ordem de id, um bloco de cada vez
+        @Query("SELECT b.id AS id, b.item.id AS itemId FROM Booking b " +
+                        "WHERE b.status = gofish.pt.entity.BookingStatus.PENDING " +
+                        "AND b.holdExpiresAt <= :now " +
+                        "ORDER BY b.id")
+        List<HoldRef> findExpiredHolds(@Param("now") LocalDateTime now, Pageable chunk);
+
+        // Cancela o bloco num único UPDATE; ignora as que entretanto mudaram de estado.
+        // Uma reserva expirada é uma CANCELLED com holdExpiresAt no passado
+        @Modifying
+        @Query("UPDATE Booking b SET b.status = gofish.pt.entity.BookingStatus.CANCELLED " +
+                        "WHERE b.id IN :ids AND b.status = gofish.pt.entity.BookingStatus.PENDING")
+        int expireHolds(@Param("ids") Collection<Long> ids);
+
+        // Só muda uma reserva que ainda esteja PENDENTE na base de dados, para não desfazer
+        // um cancelamento do reaper feito depois de a termos lido. 0 = já não estava pendente.
+        @Modifying
+        @Query("UPDATE Booking b SET b.status = :status " +
+                        "WHERE b.id = :id AND b.status = gofish.pt.entity.BookingStatus.PENDING")
+        int updateStatusIfPending(@Param("id") Long id, @Param("status") BookingStatus status);
+
+        // Ciclo de vida: CONFIRMED -> ACTIVE no dia de início, ACTIVE -> COMPLETED depois do fim.
+        // Os dias em atraso são tratados um a um, a começar pelo mais antigo
+        @Query("SELECT MIN(b.startDate) FROM Booking b " +
+                        "WHERE b.status = gofish.pt.entity.BookingStatus.CONFIRMED AND b.startDate <= :today")
+        LocalDate findOldestStartToActivate(@Param("today") LocalDate today);
+
+        @Modifying
+        @Query("UPDATE Booking b SET b.status = gofish.pt.entity.BookingStatus.ACTIVE " +
+                        "WHERE b.status = gofish.pt.entity.BookingStatus.CONFIRMED AND b.startDate = :day")
+        int activateStartingOn(@Param("day") LocalDate day);
+
+        @Query("SELECT MIN(b.endDate) FROM Booking b " +
+                        "WHERE b.status = gofish.pt.entity.BookingStatus.ACTIVE AND b.endDate < :today")
+        LocalDate findOldestEndToComplete(@Param("today") LocalDate today);
+
+        @Modifying
+        @Query("UPDATE Booking b SET b.status = gofish.pt.entity.BookingStatus.COMPLETED " +
+                        "WHERE b.status = gofish.pt.entity.BookingStatus.ACTIVE AND b.endDate = :day")
+        int completeEndingOn(@Param("day") LocalDate day);
+
+        // Painel de admin e métricas: número de reservas e soma dos preços guardados por estado,
+        // numa só passagem e sem carregar reservas
+        @Query("SELECT b.status AS status, COUNT(b) AS count, COALESCE(SUM(b.priceCents), 0) AS priceCents " +
+                        "FROM Booking b GROUP BY b.status")
+        List<StatusTotals> getStatusTotals();
+
+        interface StatusTotals {
+                BookingStatus getStatus();
+
+                long getCount();
+
+                long getPriceCents();
+        }
+
+        interface OwnerBookingRow {
+                Long getId();
+
+                LocalDate getStartDate();
+
+                LocalDate getEndDate();
+
+                BookingStatus getStatus();
+
+                Long getPriceCents();
+
+                LocalDateTime getHoldExpiresAt();
+
+                Long getCartId();
+
+                Long getItemId();
+
+                String getItemName();
+
+                Double getItemPrice();
+
+                String getItemPhotoUrl();
+
+                Long getUserId();
+
+                String getUserName();
+        }
+
+        interface HoldRef {
+                Long getId();
+
+                Long getItemId();
+        }
+
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package gofish.pt.repository;
+
+import gofish.pt.entity.Booking;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Inserts the bookings as a single JDBC batch. Booking ids are IDENTITY columns, which
+     * keeps Hibernate from batching inserts, so the rows are written directly: the given
+     * entities are not managed afterwards and their ids stay null.
+     */
+    void insertAll(List<Booking> bookings);
+}
@@ -0,0 +1,39 @@
+package gofish.pt.repository;
+
+import gofish.pt.entity.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC writes that Spring Data cannot express, picked up by {@link BookingRepository}.
+ */
+@RequiredArgsConstructor
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO bookings "
+            + "(start_date, end_date, status, price_cents, item_id, user_id, hold_expires_at, cart_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty())
+            return;
+
+        // Runs on the connection of the surrounding JPA transaction
+        jdbcTemplate.batchUpdate(INSERT, bookings.stream()
+                .map(booking -> new Object[] {
+                        booking.getStartDate(),
+                        booking.getEndDate(),
+                        booking.getStatus().name(),
+                        booking.getPriceCents(),
+                        booking.getItem().getId(),
+                        booking.getUser().getId(),
+                        booking.getHoldExpiresAt(),
+                        booking.getCart() != null ? booking.getCart().getId() : null })
+                .toList());
+    }
+}
@@ -1,11 +1,51 @@
 package gofish.pt.repository;
 
 import gofish.pt.entity.Item;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item> {
+public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item>, ItemRepositoryCustom {
     List<Item> findAllByOwnerId(Long ownerId);
+
+    long countByActiveFalse();
+
+    /**
+     * Loads the item with a row lock (SELECT ... FOR UPDATE) held until the transaction ends.
+     * Serializes booking writes on one item without blocking any other item.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Locks several items in one query, always in id order, so two transactions locking
+     * overlapping sets wait for each other instead of deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sets the active flag and deactivation reason of several items in one statement.
+     * Clears the persistence context, so items loaded before are detached.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.active = :active, i.deactivationReason = :reason WHERE i.id IN :ids")
+    int updateActive(@Param("ids") Collection<Long> ids, @Param("active") boolean active,
+            @Param("reason") String reason);
+
+    /**
+     * Loads the items with their photos in one query.
+     */
+    @Query("SELECT DISTINCT i FROM Item i LEFT JOIN FETCH i.photoUrls WHERE i.id IN :ids")
+    List<Item> findAllWithPhotosByIdIn(@Param("ids") Collection<Long> ids);
 }
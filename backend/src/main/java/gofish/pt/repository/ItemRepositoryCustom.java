@@ -0,0 +1,31 @@
+package gofish.pt.repository;
+
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemSummaryDTO;
+import gofish.pt.entity.Item;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Counts the items matching the specification by category, material and price range
+     * with a single grouped query.
+     */
+    ItemFacetsDTO countFacets(Specification<Item> spec);
+
+    /**
+     * Loads the list-view rows for the items matching the specification in one query:
+     * item columns, owner id/username, cover photo and rating average/count, without
+     * initializing any association or collection.
+     */
+    List<ItemSummaryDTO> findSummaries(Specification<Item> spec, Sort sort);
+
+    /**
+     * Same as {@link #findSummaries(Specification, Sort)}, but stops after the first
+     * {@code limit} rows.
+     */
+    List<ItemSummaryDTO> findSummaries(Specification<Item> spec, Sort sort, int limit);
+}
@@ -0,0 +1,123 @@
+package gofish.pt.repository;
+
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemSummaryDTO;
+import gofish.pt.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria-based queries that Spring Data cannot derive, picked up by {@link ItemRepository}.
+ */
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public ItemFacetsDTO countFacets(Specification<Item> spec) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Item> root = query.from(Item.class);
+
+        Path<Category> category = root.get("category");
+        Path<Material> material = root.get("material");
+        Expression<Integer> priceRange = priceRange(builder, root.get("price"));
+
+        // At most one row per category, material and price range, however many items match
+        query.multiselect(category, material, priceRange, builder.count(root));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, builder) : null;
+        if (predicate != null)
+            query.where(predicate);
+        query.groupBy(category, material, priceRange);
+
+        ItemFacetsDTO facets = new ItemFacetsDTO();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            facets.addToRange(row.get(0, Category.class), row.get(1, Material.class), row.get(2, Integer.class),
+                    row.get(3, Long.class));
+        }
+        return facets;
+    }
+
+    /**
+     * CASE mapping a price to its range index. The bounds are rendered as SQL literals, not
+     * bound parameters, so the database sees the same expression in SELECT and GROUP BY.
+     */
+    private static Expression<Integer> priceRange(CriteriaBuilder builder, Path<Double> price) {
+        List<Double> bounds = ItemFacetsDTO.PRICE_BOUNDS;
+        CriteriaBuilder.Case<Integer> range = builder.selectCase();
+        for (int i = 0; i < bounds.size(); i++)
+            range = range.when(builder.lessThan(price, builder.literal(bounds.get(i))), builder.literal(i));
+        return range.otherwise(builder.literal(bounds.size()));
+    }
+
+    @Override
+    public List<ItemSummaryDTO> findSummaries(Specification<Item> spec, Sort sort) {
+        return summaries(spec, sort).getResultList().stream()
+                .map(ItemRepositoryImpl::toSummary)
+                .toList();
+    }
+
+    @Override
+    public List<ItemSummaryDTO> findSummaries(Specification<Item> spec, Sort sort, int limit) {
+        return summaries(spec, sort).setMaxResults(limit).getResultList().stream()
+                .map(ItemRepositoryImpl::toSummary)
+                .toList();
+    }
+
+    private TypedQuery<Tuple> summaries(Specification<Item> spec, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Item> root = query.from(Item.class);
+        Join<Item, User> owner = root.join("owner");
+
+        // The cover is the smallest URL, read as a scalar subquery so the item stays one row
+        // (photoUrls has no order column, so "the first photo" would not be stable)
+        Subquery<String> cover = query.subquery(String.class);
+        cover.select(builder.least(cover.correlate(root).<Item, String>join("photoUrls")));
+
+        Subquery<Double> average = query.subquery(Double.class);
+        Root<Review> rated = average.from(Review.class);
+        average.select(builder.avg(rated.<Integer>get("rating"))).where(builder.equal(rated.get("item"), root));
+
+        Subquery<Long> count = query.subquery(Long.class);
+        Root<Review> counted = count.from(Review.class);
+        count.select(builder.count(counted)).where(builder.equal(counted.get("item"), root));
+
+        query.multiselect(root.get("id"), root.get("name"), root.get("description"), root.get("price"),
+                root.get("category"), root.get("material"), root.get("available"), root.get("active"),
+                root.get("deactivationReason"), cover, owner.get("id"), owner.get("username"), average, count);
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, builder) : null;
+        if (predicate != null)
+            query.where(predicate);
+
+        // The id breaks ties, so equal sort keys come back in a stable order
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(sort, root, builder));
+        if (sort.getOrderFor("id") == null)
+            orders.add(builder.asc(root.get("id")));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query);
+    }
+
+    private static ItemSummaryDTO toSummary(Tuple row) {
+        String photo = row.get(9, String.class);
+        Long reviews = row.get(13, Long.class);
+        return new ItemSummaryDTO(row.get(0, Long.class), row.get(1, String.class), row.get(2, String.class),
+                row.get(3, Double.class), row.get(4, Category.class), row.get(5, Material.class),
+                row.get(6, Boolean.class), row.get(7, Boolean.class), row.get(8, String.class),
+                photo != null ? List.of(photo) : List.of(),
+                new ItemSummaryDTO.Owner(row.get(10, Long.class), row.get(11, String.class)),
+                row.get(12, Double.class), reviews != null ? reviews : 0);
+    }
+}
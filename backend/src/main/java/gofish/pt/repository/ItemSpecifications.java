@@ -1,15 +1,39 @@
 package gofish.pt.repository;
 
+import gofish.pt.dto.ItemCursor;
+import gofish.pt.entity.BlockedDate;
+import gofish.pt.entity.BlockedDateRule;
+import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingStatus;
 import gofish.pt.entity.Category;
 import gofish.pt.entity.Item;
 import gofish.pt.entity.Material;
 import lombok.AccessLevel;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemSpecifications {
 
+    // Same word boundaries as ItemSearchIndex.tokenize
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
     public static Specification<Item> nameContains(String text) {
         return (root, query, builder) -> text == null ? null
                 : builder.like(
@@ -17,10 +41,44 @@ public class ItemSpecifications {
                         "%" + text.toLowerCase() + "%");
     }
 
+    /**
+     * SQL counterpart of the search index: every word of the text must appear in the name
+     * or the description. Words are matched as substrings, and accents are not folded.
+     */
+    public static Specification<Item> textContains(String text) {
+        return (root, query, builder) -> {
+            if (text == null)
+                return null;
+
+            List<Predicate> words = new ArrayList<>();
+            for (String word : WORD_SEPARATORS.split(text.toLowerCase())) {
+                if (word.isEmpty())
+                    continue;
+                String pattern = "%" + word + "%";
+                words.add(builder.or(
+                        builder.like(builder.lower(root.get("name")), pattern),
+                        builder.like(builder.lower(root.get("description")), pattern)));
+            }
+            return words.isEmpty() ? null : builder.and(words.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Item> idIn(Collection<Long> ids) {
+        return (root, query, builder) -> ids == null ? null : root.get("id").in(ids);
+    }
+
+    public static Specification<Item> ownerIs(Long ownerId) {
+        return (root, query, builder) -> ownerId == null ? null : builder.equal(root.get("owner").get("id"), ownerId);
+    }
+
     public static Specification<Item> categoryIs(Category category) {
         return (root, query, builder) -> category == null ? null : builder.equal(root.get("category"), category);
     }
 
+    public static Specification<Item> categoryWithin(Category category) {
+        return (root, query, builder) -> category == null ? null : root.get("category").in(category.subtree());
+    }
+
     public static Specification<Item> materialIs(Material material) {
         return (root, query, builder) -> material == null ? null : builder.equal(root.get("material"), material);
     }
@@ -41,6 +99,118 @@ public class ItemSpecifications {
         };
     }
 
+    /**
+     * Items with no confirmed/active booking, live pending hold, blocked period or recurring
+     * rule day overlapping [from, to].
+     * Compiles to NOT EXISTS anti-joins using the same overlap rules as
+     * {@link BookingRepository#findBookingsInRange} and {@link BlockedDateRepository#findBlockedDatesInRange};
+     * recurring rules are matched as in {@link #ruleBlocksAny}.
+     * A missing bound means a single-day range.
+     */
+    public static Specification<Item> freeBetween(LocalDate from, LocalDate to) {
+        return (root, query, builder) -> {
+            if (from == null && to == null)
+                return null;
+
+            LocalDate start = from != null ? from : to;
+            LocalDate end = to != null ? to : from;
+
+            Subquery<Long> bookings = query.subquery(Long.class);
+            Root<Booking> booking = bookings.from(Booking.class);
+            bookings.select(booking.get("id")).where(
+                    builder.equal(booking.get("item"), root),
+                    builder.or(
+                            booking.get("status").in(BookingStatus.CONFIRMED, BookingStatus.ACTIVE),
+                            builder.and(
+                                    builder.equal(booking.get("status"), BookingStatus.PENDING),
+                                    builder.greaterThan(booking.<LocalDateTime>get("holdExpiresAt"), LocalDateTime.now()))),
+                    builder.greaterThanOrEqualTo(booking.get("endDate"), start),
+                    builder.lessThanOrEqualTo(booking.get("startDate"), end));
+
+            Subquery<Long> blocks = query.subquery(Long.class);
+            Root<BlockedDate> blocked = blocks.from(BlockedDate.class);
+            blocks.select(blocked.get("id")).where(
+                    builder.equal(blocked.get("item"), root),
+                    builder.lessThanOrEqualTo(blocked.get("startDate"), end),
+                    builder.greaterThanOrEqualTo(blocked.get("endDate"), start));
+
+            Subquery<Long> rules = query.subquery(Long.class);
+            Root<BlockedDateRule> rule = rules.from(BlockedDateRule.class);
+            rules.select(rule.get("id")).where(
+                    builder.equal(rule.get("item"), root),
+                    ruleBlocksAny(builder, rule, start, end));
+
+            return builder.and(builder.not(builder.exists(bookings)), builder.not(builder.exists(blocks)),
+                    builder.not(builder.exists(rules)));
+        };
+    }
+
+    /**
+     * Whether a {@link BlockedDateRule} blocks a day of [start, end]: for some weekday of the
+     * range, the rule has that weekday and no season or a season holding one of the range's
+     * days on that weekday. Those days are folded into runs of consecutive month-days, so the
+     * predicate stays short however long the range is. Everything is inlined as literals.
+     */
+    private static Predicate ruleBlocksAny(CriteriaBuilder builder, Root<BlockedDateRule> rule, LocalDate start,
+            LocalDate end) {
+        List<SortedSet<MonthDay>> daysByWeekday = new ArrayList<>(7);
+        for (int weekday = 0; weekday < 7; weekday++)
+            daysByWeekday.add(new TreeSet<>());
+        // Every month-day falls on every weekday within 28 years, so later days add nothing
+        LocalDate last = end.isAfter(start.plusYears(28)) ? start.plusYears(28) : end;
+        for (LocalDate day = start; !day.isAfter(last); day = day.plusDays(1))
+            daysByWeekday.get(day.getDayOfWeek().getValue() - 1).add(MonthDay.from(day));
+
+        Path<Integer> weekdays = rule.get("weekdays");
+        Path<Integer> seasonStart = rule.get("seasonStart");
+        Path<Integer> seasonEnd = rule.get("seasonEnd");
+        List<Predicate> hits = new ArrayList<>();
+        for (int weekday = 0; weekday < 7; weekday++) {
+            SortedSet<MonthDay> days = daysByWeekday.get(weekday);
+            if (days.isEmpty())
+                continue;
+
+            List<Predicate> seasons = new ArrayList<>();
+            seasons.add(builder.isNull(seasonStart));
+            for (int[] run : runs(days)) {
+                Predicate startsBeforeRunEnds = builder.lessThanOrEqualTo(seasonStart, builder.literal(run[1]));
+                Predicate endsAfterRunStarts = builder.greaterThanOrEqualTo(seasonEnd, builder.literal(run[0]));
+                // An end before the start wraps over the new year
+                seasons.add(builder.and(builder.lessThanOrEqualTo(seasonStart, seasonEnd),
+                        startsBeforeRunEnds, endsAfterRunStarts));
+                seasons.add(builder.and(builder.greaterThan(seasonStart, seasonEnd),
+                        builder.or(startsBeforeRunEnds, endsAfterRunStarts)));
+            }
+            // Bit 0 = Monday: the bit is set when weekdays mod 2^(bit + 1) reaches 2^bit
+            Predicate hasWeekday = builder.greaterThanOrEqualTo(
+                    builder.mod(weekdays, builder.literal(2 << weekday)), builder.literal(1 << weekday));
+            hits.add(builder.and(hasWeekday, builder.or(seasons.toArray(Predicate[]::new))));
+        }
+        return builder.or(hits.toArray(Predicate[]::new));
+    }
+
+    // Ascending month-days as [first, last] runs of consecutive days, both as MMDD
+    private static List<int[]> runs(SortedSet<MonthDay> days) {
+        List<int[]> runs = new ArrayList<>();
+        MonthDay first = null;
+        MonthDay previous = null;
+        for (MonthDay day : days) {
+            // 2000 is a leap year, so 28 February is followed by the 29th
+            if (previous == null || !MonthDay.from(previous.atYear(2000).plusDays(1)).equals(day)) {
+                if (previous != null)
+                    runs.add(new int[] { mmdd(first), mmdd(previous) });
+                first = day;
+            }
+            previous = day;
+        }
+        runs.add(new int[] { mmdd(first), mmdd(previous) });
+        return runs;
+    }
+
+    private static int mmdd(MonthDay day) {
+        return day.getMonthValue() * 100 + day.getDayOfMonth();
+    }
+
     public static Specification<Item> availableIs(Boolean available) {
         return (root, query, builder) -> available == null ? null : builder.equal(root.get("available"), available);
     }
@@ -48,4 +218,30 @@ public class ItemSpecifications {
     public static Specification<Item> activeIs(Boolean active) {
         return (root, query, builder) -> active == null ? null : builder.equal(root.get("active"), active);
     }
+
+    /**
+     * Keyset predicate: rows strictly after the cursor in (sortBy, id) order.
+     * Lets the database seek on the sort index instead of skipping rows with OFFSET.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<Item> seekAfter(ItemCursor cursor) {
+        return (root, query, builder) -> {
+            if (cursor == null)
+                return null;
+
+            Path<Long> id = root.get("id");
+            boolean ascending = cursor.direction() == Sort.Direction.ASC;
+            if ("id".equals(cursor.sortBy()))
+                return ascending ? builder.greaterThan(id, cursor.id()) : builder.lessThan(id, cursor.id());
+
+            Path<Comparable> key = root.get(cursor.sortBy());
+            Comparable value = cursor.value();
+            if (ascending)
+                return builder.or(builder.greaterThan(key, value),
+                        builder.and(builder.equal(key, value), builder.greaterThan(id, cursor.id())));
+
+            return builder.or(builder.lessThan(key, value),
+                    builder.and(builder.equal(key, value), builder.lessThan(id, cursor.id())));
+        };
+    }
 }
@@ -3,6 +3,7 @@ package gofish.pt.repository;
 import gofish.pt.entity.Payment;
 import gofish.pt.entity.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,4 +19,13 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByStatus(PaymentStatus status);
 
     Optional<Payment> findByBookingIdAndStatus(Long bookingId, PaymentStatus status);
+
+    @Query("SELECT p.status AS status, COUNT(p) AS count FROM Payment p GROUP BY p.status")
+    List<StatusCount> getStatusCounts();
+
+    interface StatusCount {
+        PaymentStatus getStatus();
+
+        long getCount();
+    }
 }
@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
@@ -24,4 +26,16 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     @Query("SELECT COUNT(r) FROM Review r WHERE r.item.id = :itemId")
     Long countByItemId(@Param("itemId") Long itemId);
+
+    @Query("SELECT r.item.id AS itemId, AVG(r.rating) AS averageRating, COUNT(r) AS reviewCount " +
+            "FROM Review r WHERE r.item.id IN :itemIds GROUP BY r.item.id")
+    List<RatingSummary> summarizeByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    interface RatingSummary {
+        Long getItemId();
+
+        Double getAverageRating();
+
+        Long getReviewCount();
+    }
 }
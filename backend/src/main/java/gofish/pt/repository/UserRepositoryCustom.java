@@ -0,0 +1,27 @@
+package gofish.pt.repository;
+
+import gofish.pt.dto.AdminUserDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Set;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Properties the admin user listing can be sorted by; anything else is rejected.
+     */
+    Set<String> ADMIN_USER_SORTS = Set.of("id", "username", "email", "location", "role", "status", "itemCount",
+            "bookingCount");
+
+    /**
+     * Loads one page of the admin user listing in one query: user columns, role, status and
+     * reason, and item and booking counts, without initializing any association. Users with
+     * no role or status row count as USER and ACTIVE. The total is only counted when the page
+     * does not already tell it.
+     *
+     * @param role   Only users with this role, or null for any
+     * @param status Only users with this status, or null for any
+     */
+    Page<AdminUserDTO> findAdminUsers(String role, String status, Pageable pageable);
+}
@@ -0,0 +1,117 @@
+package gofish.pt.repository;
+
+import gofish.pt.dto.AdminUserDTO;
+import gofish.pt.entity.UserRole;
+import gofish.pt.entity.UserStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * HQL queries that Spring Data cannot derive, picked up by {@link UserRepository}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    // Roles and statuses live in their own tables keyed by user id, not as associations
+    private static final String FROM = "FROM User u "
+            + "LEFT JOIN UserRole r ON r.userId = u.id "
+            + "LEFT JOIN UserStatus s ON s.userId = u.id ";
+
+    // The counts are correlated subqueries, so only the rows of the page are counted
+    // (through idx_items_owner and idx_bookings_user) and items and bookings do not multiply
+    private static final String SELECT = "SELECT u.id AS id, u.username AS username, u.email AS email, "
+            + "u.location AS location, COALESCE(r.role, '" + UserRole.ROLE_USER + "') AS role, "
+            + "COALESCE(s.status, '" + UserStatus.STATUS_ACTIVE + "') AS status, s.reason AS statusReason, "
+            + "(SELECT COUNT(i) FROM Item i WHERE i.owner.id = u.id) AS itemCount, "
+            + "(SELECT COUNT(b) FROM Booking b WHERE b.user.id = u.id) AS bookingCount ";
+
+    private static final Map<String, String> SORT_EXPRESSIONS = Map.of(
+            "id", "u.id",
+            "username", "u.username",
+            "email", "u.email",
+            "location", "u.location",
+            "role", "COALESCE(r.role, '" + UserRole.ROLE_USER + "')",
+            "status", "COALESCE(s.status, '" + UserStatus.STATUS_ACTIVE + "')",
+            "itemCount", "itemCount",
+            "bookingCount", "bookingCount");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<AdminUserDTO> findAdminUsers(String role, String status, Pageable pageable) {
+        String where = where(role, status);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(SELECT + FROM + where + orderBy(pageable.getSort()),
+                Tuple.class);
+        bind(query, role, status);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<AdminUserDTO> content = query.getResultList().stream()
+                .map(UserRepositoryImpl::toAdminUser)
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(u) " + FROM + where, Long.class);
+            bind(count, role, status);
+            return count.getSingleResult();
+        });
+    }
+
+    // A missing row means the default, so filtering on the default also keeps users without one
+    private static String where(String role, String status) {
+        StringJoiner where = new StringJoiner(" AND ", "WHERE ", " ").setEmptyValue("");
+        if (role != null)
+            where.add(UserRole.ROLE_USER.equals(role) ? "(r.role IS NULL OR r.role = :role)" : "r.role = :role");
+        if (status != null)
+            where.add(UserStatus.STATUS_ACTIVE.equals(status) ? "(s.status IS NULL OR s.status = :status)"
+                    : "s.status = :status");
+        return where.toString();
+    }
+
+    private static void bind(TypedQuery<?> query, String role, String status) {
+        if (role != null)
+            query.setParameter("role", role);
+        if (status != null)
+            query.setParameter("status", status);
+    }
+
+    // Sorting repeats the column expressions; the counts are referenced by their alias.
+    // The id breaks ties so pages do not overlap
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", "ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            String expression = SORT_EXPRESSIONS.get(order.getProperty());
+            if (expression == null)
+                throw new IllegalArgumentException("Cannot sort users by " + order.getProperty());
+            orderBy.add(expression + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (sort.getOrderFor("id") == null)
+            orderBy.add("u.id ASC");
+        return orderBy.toString();
+    }
+
+    private static AdminUserDTO toAdminUser(Tuple row) {
+        return new AdminUserDTO(
+                row.get("id", Long.class),
+                row.get("username", String.class),
+                row.get("email", String.class),
+                row.get("location", String.class),
+                row.get("role", String.class),
+                row.get("status", String.class),
+                row.get("statusReason", String.class),
+                row.get("itemCount", Long.class).intValue(),
+                row.get("bookingCount", Long.class).intValue());
+    }
+}
@@ -2,8 +2,11 @@ package gofish.pt.repository;
 
 import gofish.pt.entity.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,7 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Long> {
     List<UserRole> findAllByRole(String role);
 
     boolean existsByUserId(Long userId);
+
+    @Query("SELECT r.userId FROM UserRole r WHERE r.userId IN :userIds AND r.role = :role")
+    List<Long> findUserIdsWithRole(@Param("userIds") Collection<Long> userIds, @Param("role") String role);
 }
@@ -2,8 +2,13 @@ package gofish.pt.repository;
 
 import gofish.pt.entity.UserStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,5 +19,25 @@ public interface UserStatusRepository extends JpaRepository<UserStatus, Long> {
 
     List<UserStatus> findAllByStatus(String status);
 
+    long countByStatus(String status);
+
     boolean existsByUserId(Long userId);
+
+    @Query("SELECT s.userId AS userId, s.status AS status FROM UserStatus s WHERE s.userId IN :userIds")
+    List<StatusRef> findStatusesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Sets the status and reason of every existing status row of these users in one statement.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserStatus s SET s.status = :status, s.reason = :reason, s.updatedAt = :now " +
+            "WHERE s.userId IN :userIds")
+    int updateStatus(@Param("userIds") Collection<Long> userIds, @Param("status") String status,
+            @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    interface StatusRef {
+        Long getUserId();
+
+        String getStatus();
+    }
 }
@@ -2,15 +2,29 @@ package gofish.pt.service;
 
 import gofish.pt.dto.AdminDashboardDTO;
 import gofish.pt.dto.AdminUserDTO;
+import gofish.pt.dto.BulkModerationResultDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.entity.*;
 import gofish.pt.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,23 +32,39 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminService {
 
+    static final int MAX_USER_PAGE_SIZE = 100;
+    static final int MAX_BULK_IDS = 500;
+
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
     private final UserStatusRepository userStatusRepository;
     private final ItemRepository itemRepository;
-    private final BookingRepository bookingRepository;
     private final AuditLogService auditLogService;
+    private final CatalogSnapshotService catalogSnapshot;
+    private final ItemSearchIndex searchIndex;
+    private final DashboardCounters dashboardCounters;
 
     // ==================== USER MANAGEMENT ====================
 
     /**
-     * Get all users with their role and status information
+     * One page of users with their role, status and item/booking counts, optionally filtered
+     * by role and status. The page size is capped at {@value #MAX_USER_PAGE_SIZE}.
      */
     @Transactional(readOnly = true)
-    public List<AdminUserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::toAdminUserDTO)
-                .collect(Collectors.toList());
+    public Page<AdminUserDTO> getUsers(String role, String status, Pageable pageable) {
+        role = normalize(role, Set.of(UserRole.ROLE_USER, UserRole.ROLE_ADMIN), "role");
+        status = normalize(status,
+                Set.of(UserStatus.STATUS_ACTIVE, UserStatus.STATUS_SUSPENDED, UserStatus.STATUS_DELETED), "status");
+        for (Sort.Order order : pageable.getSort()) {
+            if (!UserRepositoryCustom.ADMIN_USER_SORTS.contains(order.getProperty())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Cannot sort users by " + order.getProperty());
+            }
+        }
+        if (pageable.isPaged() && pageable.getPageSize() > MAX_USER_PAGE_SIZE) {
+            pageable = PageRequest.of(pageable.getPageNumber(), MAX_USER_PAGE_SIZE, pageable.getSort());
+        }
+        return userRepository.findAdminUsers(role, status, pageable);
     }
 
     /**
@@ -54,6 +84,7 @@ public class AdminService {
         UserStatus status = userStatusRepository.findByUserId(userId)
                 .orElse(new UserStatus(userId, UserStatus.STATUS_ACTIVE));
 
+        dashboardCounters.userStatusChanged(status.getStatus(), UserStatus.STATUS_SUSPENDED);
         status.setStatus(UserStatus.STATUS_SUSPENDED);
         status.setReason(reason);
         userStatusRepository.save(status);
@@ -71,6 +102,7 @@ public class AdminService {
         UserStatus status = userStatusRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User status not found"));
 
+        dashboardCounters.userStatusChanged(status.getStatus(), UserStatus.STATUS_ACTIVE);
         status.setStatus(UserStatus.STATUS_ACTIVE);
         status.setReason(null);
         userStatusRepository.save(status);
@@ -95,6 +127,7 @@ public class AdminService {
         UserStatus status = userStatusRepository.findByUserId(userId)
                 .orElse(new UserStatus(userId, UserStatus.STATUS_ACTIVE));
 
+        dashboardCounters.userStatusChanged(status.getStatus(), UserStatus.STATUS_DELETED);
         status.setStatus(UserStatus.STATUS_DELETED);
         status.setReason(reason);
         userStatusRepository.save(status);
@@ -103,14 +136,95 @@ public class AdminService {
                 "{\"reason\":\"" + reason + "\"}");
     }
 
+    /**
+     * Suspend several user accounts at once. Admins are never suspended.
+     */
+    public BulkModerationResultDTO suspendUsers(List<Long> userIds, Long adminId, String reason) {
+        return moveUsers(userIds, adminId, UserStatus.STATUS_SUSPENDED, reason, true, AuditLog.ACTION_SUSPEND_USER);
+    }
+
+    /**
+     * Reactivate several user accounts at once
+     */
+    public BulkModerationResultDTO reactivateUsers(List<Long> userIds, Long adminId) {
+        return moveUsers(userIds, adminId, UserStatus.STATUS_ACTIVE, null, false, AuditLog.ACTION_REACTIVATE_USER);
+    }
+
+    /**
+     * Soft-delete several users at once. Admins are never deleted.
+     */
+    public BulkModerationResultDTO softDeleteUsers(List<Long> userIds, Long adminId, String reason) {
+        return moveUsers(userIds, adminId, UserStatus.STATUS_DELETED, reason, true, AuditLog.ACTION_DELETE_USER);
+    }
+
+    /**
+     * Moves the users to the target status with a fixed number of statements: three reads,
+     * one UPDATE of the existing status rows, inserts for users that have none, and one
+     * batched insert of audit rows. Users already in the target status are left alone,
+     * reason included.
+     */
+    private BulkModerationResultDTO moveUsers(List<Long> userIds, Long adminId, String target, String reason,
+            boolean protectAdmins, String action) {
+        Set<Long> requested = distinctIds(userIds);
+        Set<Long> existing = new HashSet<>(userRepository.findExistingIds(requested));
+        Set<Long> admins = protectAdmins && !existing.isEmpty()
+                ? new HashSet<>(userRoleRepository.findUserIdsWithRole(existing, UserRole.ROLE_ADMIN))
+                : Set.of();
+        Map<Long, String> current = existing.isEmpty() ? Map.of()
+                : userStatusRepository.findStatusesByUserIdIn(existing).stream()
+                        .collect(Collectors.toMap(UserStatusRepository.StatusRef::getUserId,
+                                UserStatusRepository.StatusRef::getStatus));
+
+        List<BulkModerationResultDTO.Entry> results = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        List<Long> withRow = new ArrayList<>();
+        List<Long> withoutRow = new ArrayList<>();
+        Map<String, Integer> movedFrom = new HashMap<>();
+        for (Long id : requested) {
+            BulkModerationResultDTO.Outcome outcome;
+            String from = current.getOrDefault(id, UserStatus.STATUS_ACTIVE);
+            if (!existing.contains(id)) {
+                outcome = BulkModerationResultDTO.Outcome.NOT_FOUND;
+            } else if (admins.contains(id)) {
+                outcome = BulkModerationResultDTO.Outcome.FORBIDDEN;
+            } else if (from.equals(target)) {
+                outcome = BulkModerationResultDTO.Outcome.UNCHANGED;
+            } else {
+                outcome = BulkModerationResultDTO.Outcome.UPDATED;
+                updated.add(id);
+                (current.containsKey(id) ? withRow : withoutRow).add(id);
+                movedFrom.merge(from, 1, Integer::sum);
+            }
+            results.add(new BulkModerationResultDTO.Entry(id, outcome));
+        }
+
+        if (!updated.isEmpty()) {
+            if (!withRow.isEmpty())
+                userStatusRepository.updateStatus(withRow, target, reason, LocalDateTime.now());
+            // Every registration writes a status row, so these are only accounts older than that
+            if (!withoutRow.isEmpty()) {
+                userStatusRepository.saveAll(withoutRow.stream()
+                        .map(id -> {
+                            UserStatus status = new UserStatus(id, target);
+                            status.setReason(reason);
+                            return status;
+                        })
+                        .toList());
+            }
+            movedFrom.forEach((from, count) -> dashboardCounters.usersMoved(from, target, count));
+            auditLogService.logAll(adminId, action, AuditLog.TARGET_USER, updated, reasonDetails(reason));
+        }
+        return new BulkModerationResultDTO(updated.size(), results);
+    }
+
     // ==================== ITEM MANAGEMENT ====================
 
     /**
      * Get all items including inactive ones
      */
     @Transactional(readOnly = true)
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    public List<ItemSummaryDTO> getAllItems() {
+        return itemRepository.findSummaries(null, Sort.by("id"));
     }
 
     /**
@@ -120,9 +234,12 @@ public class AdminService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
 
+        dashboardCounters.itemActiveChanged(item.getActive(), false);
         item.setActive(false);
         item.setDeactivationReason(reason);
-        itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        catalogSnapshot.publish(saved);
+        searchIndex.index(saved);
 
         auditLogService.log(adminId, AuditLog.ACTION_DEACTIVATE_ITEM, AuditLog.TARGET_ITEM, itemId,
                 "{\"reason\":\"" + reason + "\"}");
@@ -137,48 +254,79 @@ public class AdminService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
 
+        dashboardCounters.itemActiveChanged(item.getActive(), true);
         item.setActive(true);
         item.setDeactivationReason(null);
-        itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        catalogSnapshot.publish(saved);
+        searchIndex.index(saved);
 
         auditLogService.log(adminId, AuditLog.ACTION_REACTIVATE_ITEM, AuditLog.TARGET_ITEM, itemId, null);
     }
 
+    /**
+     * Deactivate several items at once
+     */
+    public BulkModerationResultDTO deactivateItems(List<Long> itemIds, String reason, Long adminId) {
+        if (reason == null || reason.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Deactivation reason is required");
+        }
+        return setItemsActive(itemIds, false, reason, adminId, AuditLog.ACTION_DEACTIVATE_ITEM);
+    }
+
+    /**
+     * Reactivate several items at once
+     */
+    public BulkModerationResultDTO reactivateItems(List<Long> itemIds, Long adminId) {
+        return setItemsActive(itemIds, true, null, adminId, AuditLog.ACTION_REACTIVATE_ITEM);
+    }
+
+    /**
+     * Switches the items with one UPDATE. They are locked first, in id order like cart
+     * bookings lock them, and reloaded with their photos in one query for the catalog
+     * snapshot and search index. Audit rows go in as one batch.
+     */
+    private BulkModerationResultDTO setItemsActive(List<Long> itemIds, boolean active, String reason, Long adminId,
+            String action) {
+        Set<Long> requested = distinctIds(itemIds);
+        Map<Long, Boolean> current = itemRepository.findAllByIdForUpdate(requested).stream()
+                .collect(Collectors.toMap(Item::getId, item -> !Boolean.FALSE.equals(item.getActive())));
+
+        List<BulkModerationResultDTO.Entry> results = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        for (Long id : requested) {
+            BulkModerationResultDTO.Outcome outcome;
+            Boolean wasActive = current.get(id);
+            if (wasActive == null) {
+                outcome = BulkModerationResultDTO.Outcome.NOT_FOUND;
+            } else if (wasActive == active) {
+                outcome = BulkModerationResultDTO.Outcome.UNCHANGED;
+            } else {
+                outcome = BulkModerationResultDTO.Outcome.UPDATED;
+                updated.add(id);
+            }
+            results.add(new BulkModerationResultDTO.Entry(id, outcome));
+        }
+
+        if (!updated.isEmpty()) {
+            itemRepository.updateActive(updated, active, reason);
+            dashboardCounters.itemsActiveChanged(active, updated.size());
+            List<Item> saved = itemRepository.findAllWithPhotosByIdIn(updated);
+            catalogSnapshot.publishAll(saved);
+            saved.forEach(searchIndex::index);
+            auditLogService.logAll(adminId, action, AuditLog.TARGET_ITEM, updated,
+                    active ? null : reasonDetails(reason));
+        }
+        return new BulkModerationResultDTO(updated.size(), results);
+    }
+
     // ==================== DASHBOARD ====================
 
     /**
-     * Get dashboard statistics
+     * Get dashboard statistics, read from the running totals (see {@link DashboardCounters})
      */
-    @Transactional(readOnly = true)
     public AdminDashboardDTO getDashboardStats() {
-        int totalUsers = (int) userRepository.count();
-        int suspendedUsers = userStatusRepository.findAllByStatus(UserStatus.STATUS_SUSPENDED).size();
-
-        List<Item> allItems = itemRepository.findAll();
-        int totalItems = allItems.size();
-        int inactiveItems = (int) allItems.stream().filter(item -> !item.getActive()).count();
-
-        List<Booking> allBookings = bookingRepository.findAll();
-        int activeBookings = (int) allBookings.stream()
-                .filter(b -> BookingStatus.CONFIRMED.equals(b.getStatus()))
-                .count();
-        int pendingBookings = (int) allBookings.stream()
-                .filter(b -> BookingStatus.PENDING.equals(b.getStatus()))
-                .count();
-
-        double totalRevenue = allBookings.stream()
-                .filter(b -> BookingStatus.CONFIRMED.equals(b.getStatus()) && b.getPrice() != null)
-                .mapToDouble(Booking::getPrice)
-                .sum();
-
-        return new AdminDashboardDTO(
-                activeBookings,
-                pendingBookings,
-                totalUsers,
-                suspendedUsers,
-                totalItems,
-                inactiveItems,
-                totalRevenue);
+        return dashboardCounters.snapshot();
     }
 
     // ==================== HELPER METHODS ====================
@@ -188,27 +336,33 @@ public class AdminService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
     }
 
-    private AdminUserDTO toAdminUserDTO(User user) {
-        String role = userRoleRepository.findByUserId(user.getId())
-                .map(UserRole::getRole)
-                .orElse(UserRole.ROLE_USER);
+    // Duplicates are acted on once; the request order is kept for the outcomes
+    private static Set<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one id is required");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ids cannot be null");
+        }
+        if (distinct.size() > MAX_BULK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BULK_IDS + " ids per request");
+        }
+        return distinct;
+    }
 
-        UserStatus userStatus = userStatusRepository.findByUserId(user.getId()).orElse(null);
-        String status = userStatus != null ? userStatus.getStatus() : UserStatus.STATUS_ACTIVE;
-        String statusReason = userStatus != null ? userStatus.getReason() : null;
-
-        int itemCount = user.getItems() != null ? user.getItems().size() : 0;
-        int bookingCount = user.getBookings() != null ? user.getBookings().size() : 0;
-
-        return new AdminUserDTO(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getLocation(),
-                role,
-                status,
-                statusReason,
-                itemCount,
-                bookingCount);
+    private static String reasonDetails(String reason) {
+        return reason != null ? "{\"reason\":\"" + reason + "\"}" : null;
+    }
+
+    private static String normalize(String value, Set<String> allowed, String name) {
+        if (value == null || value.isBlank())
+            return null;
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(normalized)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown " + name + ": " + value);
+        }
+        return normalized;
     }
 }
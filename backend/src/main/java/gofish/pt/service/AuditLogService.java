@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -15,13 +16,30 @@ import java.util.List;
 public class AuditLogService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
 
     /**
-     * Log an admin action
+     * Log an admin action. The row is written in the background once the surrounding
+     * transaction commits, so a rolled-back action leaves no entry (see {@link AuditLogWriter}).
      */
-    public AuditLog log(Long adminId, String action, String targetType, Long targetId, String details) {
-        AuditLog auditLog = new AuditLog(adminId, action, targetType, targetId, details);
-        return auditLogRepository.save(auditLog);
+    public void log(Long adminId, String action, String targetType, Long targetId, String details) {
+        logAll(adminId, action, targetType, List.of(targetId), details);
+    }
+
+    /**
+     * Log the same admin action on several targets
+     */
+    public void logAll(Long adminId, String action, String targetType, Collection<Long> targetIds, String details) {
+        // Stamped now rather than when the writer gets to it
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditLog> entries = targetIds.stream()
+                .map(targetId -> {
+                    AuditLog auditLog = new AuditLog(adminId, action, targetType, targetId, details);
+                    auditLog.setCreatedAt(now);
+                    return auditLog;
+                })
+                .toList();
+        TransactionCallbacks.afterCommit(() -> auditLogWriter.submit(entries));
     }
 
     /**
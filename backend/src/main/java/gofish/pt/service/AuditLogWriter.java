@@ -0,0 +1,221 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.AuditLog;
+import gofish.pt.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for audit rows, so admin requests do not wait on their insert.
+ * <p>
+ * Entries go into a bounded queue; one worker thread drains it and inserts a batch once
+ * batch-size entries are waiting or flush-interval-ms has passed since the first one.
+ * When the queue is full a submit waits up to offer-timeout-ms and then inserts what did
+ * not fit itself, so a slow database pushes back on the callers instead of losing rows.
+ * <p>
+ * The writer starts before and stops after the web server, so requests still in flight
+ * during a graceful shutdown are queued, and stopping drains the queue. Entries submitted
+ * while it is not running are inserted straight away. A batch that keeps failing is logged
+ * entry by entry at ERROR, which is the only place rows can still go missing.
+ * <p>
+ * Meters: audit.writer.queue (entries waiting), audit.writer.flush (insert time per
+ * batch), audit.writer.overflow (entries inserted by the caller because the queue was
+ * full) and audit.writer.failures (failed batch inserts).
+ */
+@Slf4j
+@Service
+public class AuditLogWriter implements SmartLifecycle {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AuditLogRepository auditLogRepository;
+    private final TransactionTemplate transactions;
+    private final BlockingQueue<AuditLog> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMillis;
+
+    private final Timer flushTimer;
+    private final Counter overflow;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${audit.writer.capacity:10000}") int capacity,
+            @Value("${audit.writer.batch-size:200}") int batchSize,
+            @Value("${audit.writer.flush-interval-ms:1000}") long flushIntervalMillis,
+            @Value("${audit.writer.offer-timeout-ms:100}") long offerTimeoutMillis) {
+        this.auditLogRepository = auditLogRepository;
+        // Inserts may run from an afterCommit callback, where only a new transaction can write
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+
+        Gauge.builder("audit.writer.queue", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be inserted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.writer.flush")
+                .description("Time to insert one batch of audit entries")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("audit.writer.overflow")
+                .description("Audit entries inserted by the caller because the queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("audit.writer.failures")
+                .description("Failed audit batch inserts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the entries for insertion; createdAt must be set. Blocks only while the queue
+     * is full, for at most offer-timeout-ms per entry, and then inserts the rest directly.
+     */
+    public void submit(List<AuditLog> entries) {
+        if (!running) {
+            write(entries);
+            return;
+        }
+
+        // Once one entry does not fit the rest go straight in too, keeping their order
+        int queued = 0;
+        try {
+            while (queued < entries.size()
+                    && queue.offer(entries.get(queued), offerTimeoutMillis, TimeUnit.MILLISECONDS))
+                queued++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queued < entries.size()) {
+            List<AuditLog> rejected = entries.subList(queued, entries.size());
+            overflow.increment(rejected.size());
+            write(rejected);
+        }
+
+        // Stopped while queueing: the final drain may already have run
+        if (!running)
+            drain();
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                AuditLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null)
+                    continue;
+
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0)
+                        break;
+                    AuditLog next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            write(batch);
+        }
+    }
+
+    /**
+     * Inserts everything still queued, in batches, on the calling thread.
+     */
+    private void drain() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        if (batch.isEmpty())
+            return;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> transactions.executeWithoutResult(
+                        status -> auditLogRepository.insertAll(batch)));
+                return;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("Could not insert {} audit entries", batch.size(), e);
+                    batch.forEach(entry -> log.error(
+                            "Lost audit entry: admin={} action={} target={}:{} at={} details={}",
+                            entry.getAdminId(), entry.getAction(), entry.getTargetType(), entry.getTargetId(),
+                            entry.getCreatedAt(), entry.getDetails()));
+                    return;
+                }
+                log.warn("Audit batch insert failed (attempt {} of {}), retrying", attempt, MAX_ATTEMPTS, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        worker = new Thread(this::run, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Lets the worker finish its batch, then inserts whatever is still queued.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+        running = false;
+        try {
+            // The worker notices within one flush interval
+            worker.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) * 2 + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Lower than the web server's phases: started before it, stopped after it
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,48 @@
+package gofish.pt.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-item availability version behind the ETags of the calendar endpoints.
+ * Bumped (after commit) by every booking and blocked-date write; reading it never
+ * touches the database, so a matching If-None-Match is answered before any query.
+ * <p>
+ * The tag also carries a process epoch (versions restart at 0), a global version for
+ * bulk status changes that are not tracked per item, and the current day, since past
+ * days turn unavailable at midnight without any write.
+ */
+@Service
+public class AvailabilityVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong global = new AtomicLong();
+
+    /**
+     * Strong ETag (quoted) for the availability of this item as of now.
+     */
+    public String etag(Long itemId) {
+        return "\"" + epoch + "-" + global.get() + "-" + versions.getOrDefault(itemId, 0L) + "-"
+                + LocalDate.now() + "\"";
+    }
+
+    /**
+     * Marks the item's availability as changed once the current transaction commits.
+     * Bumping later than the write means a reader never tags old data with the new version.
+     */
+    public void bump(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> versions.merge(itemId, 1L, Long::sum));
+    }
+
+    /**
+     * Invalidates every item's tag, for bulk updates that do not know the items they touched.
+     */
+    public void bumpAll() {
+        TransactionCallbacks.afterCommit(global::incrementAndGet);
+    }
+}
@@ -0,0 +1,87 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.BlockedDate;
+import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off clean-up for blocked periods written before blocks were merged on write:
+ * per item, periods that overlap or touch are folded into the earliest of them and
+ * the rest are deleted.
+ * <p>
+ * Runs at startup when blocked-dates.compact-on-startup=true. Each item is compacted
+ * in its own transaction, holding the item lock like a block or unblock would.
+ */
+@Slf4j
+@Service
+public class BlockedDateCompactor implements ApplicationRunner {
+
+    private final BlockedDateRepository blockedDateRepository;
+    private final ItemRepository itemRepository;
+    private final AvailabilityVersions availabilityVersions;
+    private final TransactionTemplate transactions;
+    private final boolean onStartup;
+
+    public BlockedDateCompactor(BlockedDateRepository blockedDateRepository, ItemRepository itemRepository,
+            AvailabilityVersions availabilityVersions, PlatformTransactionManager transactionManager,
+            @Value("${blocked-dates.compact-on-startup:false}") boolean onStartup) {
+        this.blockedDateRepository = blockedDateRepository;
+        this.itemRepository = itemRepository;
+        this.availabilityVersions = availabilityVersions;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.onStartup = onStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!onStartup)
+            return;
+        int removed = compactAll();
+        log.info("Blocked date compaction removed {} redundant rows", removed);
+    }
+
+    /**
+     * Compacts every item that has more than one blocked period.
+     *
+     * @return Number of rows deleted
+     */
+    public int compactAll() {
+        int total = 0;
+        for (Long itemId : blockedDateRepository.findItemIdsWithSeveralBlockedDates())
+            total += transactions.execute(status -> compact(itemId));
+        return total;
+    }
+
+    private int compact(Long itemId) {
+        itemRepository.findByIdForUpdate(itemId);
+
+        List<BlockedDate> redundant = new ArrayList<>();
+        BlockedDate current = null;
+        for (BlockedDate blocked : blockedDateRepository.findAllByItemIdOrderByStartDateAsc(itemId)) {
+            if (current != null && !blocked.getStartDate().isAfter(current.getEndDate().plusDays(1))) {
+                if (blocked.getEndDate().isAfter(current.getEndDate()))
+                    current.setEndDate(blocked.getEndDate());
+                redundant.add(blocked);
+            } else {
+                current = blocked;
+            }
+        }
+        if (redundant.isEmpty())
+            return 0;
+
+        blockedDateRepository.deleteAllInBatch(redundant);
+        // Same days as before, but the blocked-dates listing changes
+        availabilityVersions.bump(itemId);
+        return redundant.size();
+    }
+}
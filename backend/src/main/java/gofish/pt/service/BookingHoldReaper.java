@@ -0,0 +1,87 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.BookingRepository.HoldRef;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cancels pending bookings whose hold has lapsed, so they stop counting as a request
+ * and their dates show as free again. An expired hold is a CANCELLED booking with
+ * holdExpiresAt in the past.
+ * <p>
+ * Works in chunks: one query picks the next ids, one bulk UPDATE cancels them,
+ * each chunk in its own short transaction. No booking entity is loaded.
+ */
+@Slf4j
+@Service
+public class BookingHoldReaper {
+
+    private final BookingRepository bookingRepository;
+    private final ItemOccupancyCache occupancy;
+    private final AvailabilityVersions availabilityVersions;
+    private final DashboardCounters dashboardCounters;
+    private final TransactionTemplate transactions;
+    private final int chunkSize;
+
+    public BookingHoldReaper(BookingRepository bookingRepository, ItemOccupancyCache occupancy,
+            AvailabilityVersions availabilityVersions, DashboardCounters dashboardCounters,
+            PlatformTransactionManager transactionManager,
+            @Value("${booking.hold.reaper.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.occupancy = occupancy;
+        this.availabilityVersions = availabilityVersions;
+        this.dashboardCounters = dashboardCounters;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.reaper.interval-ms:60000}")
+    public void reap() {
+        int expired = expireHolds(LocalDateTime.now());
+        if (expired > 0)
+            log.info("Expired {} stale booking holds", expired);
+    }
+
+    /**
+     * Expires every hold that lapsed at or before the given moment.
+     *
+     * @return Number of bookings cancelled
+     */
+    public int expireHolds(LocalDateTime now) {
+        int total = 0;
+        Chunk chunk;
+        do {
+            chunk = transactions.execute(status -> expireChunk(now));
+            total += chunk.expired();
+        } while (chunk.picked() == chunkSize);
+        return total;
+    }
+
+    private Chunk expireChunk(LocalDateTime now) {
+        List<HoldRef> holds = bookingRepository.findExpiredHolds(now, PageRequest.of(0, chunkSize));
+        if (holds.isEmpty())
+            return new Chunk(0, 0);
+
+        int expired = bookingRepository.expireHolds(holds.stream().map(HoldRef::getId).toList());
+        dashboardCounters.bookingsMoved(BookingStatus.PENDING, BookingStatus.CANCELLED, expired, 0);
+        holds.stream().map(HoldRef::getItemId).distinct().forEach(itemId -> {
+            occupancy.evict(itemId);
+            availabilityVersions.bump(itemId);
+        });
+        return new Chunk(holds.size(), expired);
+    }
+
+    // A booking confirmed between the select and the update is picked but not expired
+    private record Chunk(int picked, int expired) {
+    }
+}
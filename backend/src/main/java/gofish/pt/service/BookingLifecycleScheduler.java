@@ -0,0 +1,107 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Moves bookings along their lifecycle: CONFIRMED to ACTIVE on the start date and
+ * ACTIVE to COMPLETED once the end date has passed.
+ * <p>
+ * Each transition is one bulk UPDATE per date, oldest date first, each in its own
+ * transaction, so a run after downtime catches up in bounded batches without loading
+ * any booking. Rows moved are counted as bookings.lifecycle.transitions (tagged with
+ * the target status) and each run is timed as bookings.lifecycle.run.
+ */
+@Slf4j
+@Service
+public class BookingLifecycleScheduler {
+
+    private final BookingRepository bookingRepository;
+    private final AvailabilityVersions availabilityVersions;
+    private final DashboardCounters dashboardCounters;
+    private final TransactionTemplate transactions;
+    private final Counter activatedCounter;
+    private final Counter completedCounter;
+    private final Timer runTimer;
+
+    public BookingLifecycleScheduler(BookingRepository bookingRepository, AvailabilityVersions availabilityVersions,
+            DashboardCounters dashboardCounters, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.availabilityVersions = availabilityVersions;
+        this.dashboardCounters = dashboardCounters;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.activatedCounter = transitionCounter(meterRegistry, BookingStatus.ACTIVE);
+        this.completedCounter = transitionCounter(meterRegistry, BookingStatus.COMPLETED);
+        this.runTimer = Timer.builder("bookings.lifecycle.run")
+                .description("Time to apply the scheduled booking status transitions")
+                .register(meterRegistry);
+    }
+
+    private static Counter transitionCounter(MeterRegistry meterRegistry, BookingStatus target) {
+        return Counter.builder("bookings.lifecycle.transitions")
+                .description("Bookings moved by the lifecycle scheduler")
+                .tag("to", target.name())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${booking.lifecycle.cron:0 5 * * * *}")
+    public void run() {
+        Transitions done = advance(LocalDate.now());
+        if (done.activated() > 0 || done.completed() > 0)
+            log.info("Booking lifecycle: {} activated, {} completed", done.activated(), done.completed());
+    }
+
+    /**
+     * Applies every transition due on the given day. Activation runs first, so a confirmed
+     * booking whose whole period already passed ends up COMPLETED in the same run.
+     */
+    public Transitions advance(LocalDate today) {
+        return runTimer.record(() -> {
+            int activated = byDate(bookingRepository::findOldestStartToActivate,
+                    bookingRepository::activateStartingOn, today);
+            activatedCounter.increment(activated);
+            // Both statuses are paid, so no revenue moves
+            dashboardCounters.bookingsMoved(BookingStatus.CONFIRMED, BookingStatus.ACTIVE, activated, 0);
+
+            int completed = byDate(bookingRepository::findOldestEndToComplete,
+                    bookingRepository::completeEndingOn, today);
+            completedCounter.increment(completed);
+            dashboardCounters.bookingsMoved(BookingStatus.ACTIVE, BookingStatus.COMPLETED, completed, 0);
+
+            // Booking lists show the status, but the updates do not know which items they touched
+            if (activated > 0 || completed > 0)
+                availabilityVersions.bumpAll();
+            return new Transitions(activated, completed);
+        });
+    }
+
+    // Updates the oldest due date until none is left; only dates that have rows are visited
+    private int byDate(Function<LocalDate, LocalDate> oldestDue, ToIntFunction<LocalDate> updateDay, LocalDate today) {
+        int total = 0;
+        LocalDate day;
+        while ((day = oldestDue.apply(today)) != null) {
+            LocalDate batch = day;
+            int updated = transactions.execute(status -> updateDay.applyAsInt(batch));
+            if (updated == 0)
+                break;
+            total += updated;
+        }
+        return total;
+    }
+
+    public record Transitions(int activated, int completed) {
+    }
+}
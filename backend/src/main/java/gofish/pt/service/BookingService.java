@@ -1,33 +1,60 @@
 package gofish.pt.service;
 
+import gofish.pt.dto.AvailabilityCalendarDTO;
+import gofish.pt.dto.BookingCursor;
+import gofish.pt.dto.CursorPageDTO;
+import gofish.pt.dto.DateRange;
+import gofish.pt.dto.ItemDateRange;
 import gofish.pt.entity.BlockedDate;
+import gofish.pt.entity.BlockedDateRule;
 import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingCart;
 import gofish.pt.entity.BookingStatus;
+import gofish.pt.entity.Item;
 import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.BlockedDateRuleRepository;
+import gofish.pt.repository.BookingCartRepository;
 import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.BookingRepository.OwnerBookingRow;
 import gofish.pt.repository.ItemRepository;
 import gofish.pt.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.List;
-import java.util.Optional;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class BookingService {
 
+    static final int MAX_BATCH_ITEMS = 100;
+    static final int MAX_INBOX_PAGE_SIZE = 100;
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BlockedDateRepository blockedDateRepository;
     private final UserService userService;
+    private final ItemOccupancyCache occupancy;
+    private final AvailabilityVersions availabilityVersions;
+    private final BookingCartRepository bookingCartRepository;
+    private final BlockedDateRuleRepository blockedDateRuleRepository;
+    private final DashboardCounters dashboardCounters;
+
+    // Quanto tempo uma reserva PENDENTE segura as datas enquanto o pagamento é feito
+    @Value("${booking.hold.ttl:PT15M}")
+    private Duration holdTtl = Duration.ofMinutes(15);
 
     // GET methods
 
@@ -51,6 +78,35 @@ public class BookingService {
         return bookingRepository.findAllByItemOwnerId(ownerId);
     }
 
+    /**
+     * One page of the owner's inbox: bookings on their items, latest start date first,
+     * optionally of a single status. Each page is one query (booking, item and renter
+     * columns only) that seeks past the cursor instead of counting or offsetting.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first one
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OwnerBookingRow> getOwnerInbox(Long ownerId, BookingStatus status, int size, String cursor) {
+        int limit = Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE));
+        Set<BookingStatus> statuses = status != null ? EnumSet.of(status) : EnumSet.allOf(BookingStatus.class);
+        // Uma linha a mais diz se há página seguinte, sem COUNT
+        PageRequest page = PageRequest.of(0, limit + 1);
+
+        List<OwnerBookingRow> rows;
+        if (cursor == null) {
+            rows = bookingRepository.findOwnerInbox(ownerId, statuses, page);
+        } else {
+            BookingCursor after = BookingCursor.decode(cursor);
+            rows = bookingRepository.findOwnerInboxAfter(ownerId, statuses, after.startDate(), after.id(), page);
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<OwnerBookingRow> items = hasNext ? rows.subList(0, limit) : rows;
+        OwnerBookingRow last = hasNext ? items.get(limit - 1) : null;
+        String nextCursor = last != null ? new BookingCursor(last.getStartDate(), last.getId()).encode() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasNext);
+    }
+
     public List<Booking> getBookingsByItemAndMonth(Long itemId, int year, int month) {
         YearMonth yearMonth = YearMonth.of(year, month);
         LocalDate start = yearMonth.atDay(1);
@@ -71,7 +127,9 @@ public class BookingService {
         // 1. Validar utilizador e item
         var user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Utilizador não encontrado"));
-        var item = itemRepository.findById(itemId)
+        // Trinca a linha do item até ao commit: pedidos para o mesmo item ficam em fila,
+        // pedidos para itens diferentes seguem em paralelo
+        var item = itemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new IllegalArgumentException("Item não encontrado"));
 
         // 1.1 Check if user is suspended
@@ -89,9 +147,10 @@ public class BookingService {
             throw new IllegalArgumentException("Não podes alugar a tua própria cana de pesca!");
         }
 
-        // 3. Validar disponibilidade
-        boolean isAvailable = !bookingRepository.existsOverlappingBooking(itemId, startDate, endDate);
-        if (!isAvailable) {
+        // 3. Validar disponibilidade (as retenções pendentes ainda válidas também contam)
+        LocalDateTime now = LocalDateTime.now();
+        boolean isAvailable = !bookingRepository.existsOverlappingBooking(itemId, startDate, endDate, now);
+        if (!isAvailable || blockedByRules(blockedDateRuleRepository.findAllByItemId(itemId), startDate, endDate)) {
             throw new IllegalStateException("Item não disponível nas datas selecionadas");
         }
 
@@ -102,8 +161,97 @@ public class BookingService {
         booking.setStartDate(startDate);
         booking.setEndDate(endDate);
         booking.setStatus(BookingStatus.PENDING); // Exemplo de estado inicial
+        booking.setPriceCents(Booking.priceCents(item, startDate, endDate)); // Preço fica fixo a partir daqui
+        booking.setHoldExpiresAt(now.plus(holdTtl)); // Segura as datas até lá; depois o BookingHoldReaper cancela-a
+
+        Booking saved = bookingRepository.save(booking);
+        occupancy.bookingChanged(saved);
+        availabilityVersions.bump(itemId);
+        dashboardCounters.bookingsAdded(BookingStatus.PENDING, 1, saved.getPriceCents());
+        return saved;
+    }
 
-        return bookingRepository.save(booking);
+    /**
+     * Books several items for the same dates in one transaction: every item is booked or none is.
+     * The items are locked in id order, so carts sharing items queue instead of deadlocking;
+     * availability is checked for all of them with one query and the rows are inserted as one batch.
+     *
+     * @return The bookings created, in item id order, all in the same cart
+     */
+    public List<Booking> createCartBooking(Long userId, Collection<Long> itemIds, LocalDate startDate,
+            LocalDate endDate) throws IllegalArgumentException {
+        if (itemIds == null || itemIds.isEmpty() || itemIds.size() > MAX_BATCH_ITEMS) {
+            throw new IllegalArgumentException("O carrinho tem de ter entre 1 e " + MAX_BATCH_ITEMS + " itens");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("A data de fim não pode ser antes da data de início");
+        }
+
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Utilizador não encontrado"));
+        if (!userService.isUserActive(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Conta suspensa. Não é possível fazer reservas.");
+        }
+
+        // Tranca todos os itens de uma vez, por ordem de id (a mesma para todos os pedidos)
+        SortedSet<Long> ids = new TreeSet<>(itemIds);
+        List<Item> items = itemRepository.findAllByIdForUpdate(ids);
+        if (items.size() != ids.size()) {
+            throw new IllegalArgumentException("Item não encontrado");
+        }
+        for (Item item : items) {
+            if (!item.getActive()) {
+                throw new IllegalArgumentException(
+                        "O item " + item.getId() + " foi desativado e não está disponível para reserva.");
+            }
+            if (item.getOwner().getId().equals(userId)) {
+                throw new IllegalArgumentException("Não podes alugar a tua própria cana de pesca!");
+            }
+        }
+
+        // Uma só query para todos os itens, com a mesma regra de createBooking
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> taken = new ArrayList<>(
+                bookingRepository.findItemIdsWithOverlappingBooking(ids, startDate, endDate, now));
+        rulesByItem(ids).forEach((itemId, rules) -> {
+            if (!taken.contains(itemId) && blockedByRules(rules, startDate, endDate))
+                taken.add(itemId);
+        });
+        if (!taken.isEmpty()) {
+            throw new IllegalStateException("Itens não disponíveis nas datas selecionadas: " + taken);
+        }
+
+        BookingCart cart = new BookingCart();
+        cart.setUser(user);
+        cart.setStartDate(startDate);
+        cart.setEndDate(endDate);
+        cart.setTotalCents(items.stream().mapToLong(item -> Booking.priceCents(item, startDate, endDate)).sum());
+        cart = bookingCartRepository.save(cart);
+
+        LocalDateTime holdExpiresAt = now.plus(holdTtl);
+        List<Booking> bookings = new ArrayList<>(items.size());
+        for (Item item : items) {
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setItem(item);
+            booking.setStartDate(startDate);
+            booking.setEndDate(endDate);
+            booking.setStatus(BookingStatus.PENDING);
+            booking.setPriceCents(Booking.priceCents(item, startDate, endDate));
+            booking.setHoldExpiresAt(holdExpiresAt);
+            booking.setCart(cart);
+            bookings.add(booking);
+        }
+        bookingRepository.insertAll(bookings);
+
+        // As linhas foram escritas por JDBC; lê-as de volta para terem id
+        List<Booking> saved = bookingRepository.findAllByCartIdOrderByItemIdAsc(cart.getId());
+        for (Booking booking : saved) {
+            occupancy.bookingChanged(booking);
+            availabilityVersions.bump(booking.getItem().getId());
+        }
+        dashboardCounters.bookingsAdded(BookingStatus.PENDING, saved.size(), cart.getTotalCents());
+        return saved;
     }
 
     // PUT method
@@ -127,71 +275,152 @@ public class BookingService {
             throw new IllegalArgumentException("Só podes Confirmar ou Rejeitar!");
         }
 
+        // Confirmar ocupa as datas. Uma retenção válida já as tem; se expirou,
+        // volta a verificar com o item trancado
+        LocalDateTime now = LocalDateTime.now();
+        if (newStatus == BookingStatus.CONFIRMED && !booking.occupiesAt(now)) {
+            Long itemId = booking.getItem().getId();
+            itemRepository.findByIdForUpdate(itemId);
+            if (bookingRepository.existsOverlappingBooking(itemId, booking.getStartDate(), booking.getEndDate(), now)) {
+                throw new IllegalStateException("Item não disponível nas datas selecionadas");
+            }
+        }
+
+        // O reaper pode ter cancelado a retenção depois de a lermos: só muda se continuar PENDENTE
+        if (bookingRepository.updateStatusIfPending(booking.getId(), newStatus) == 0) {
+            throw new IllegalStateException("Esta reserva já foi tratada, nã podes mudar mais!");
+        }
+
+        dashboardCounters.bookingsMoved(BookingStatus.PENDING, newStatus, 1, priceCentsOf(booking));
         booking.setStatus(newStatus);
-        return bookingRepository.save(booking);
+        occupancy.bookingChanged(booking);
+        availabilityVersions.bump(booking.getItem().getId());
+        return booking;
     }
 
     public List<LocalDate> getUnavailableDates(Long itemId, LocalDate start, LocalDate end) {
         // 1. Validar a entrada
         validateDateRange(start, end);
 
-        // 2. Ir à pesca das reservas e dos bloqueios
+        // Dentro do horizonte responde o bitmap em cache, sem ir à base de dados
+        if (occupancy.covers(end))
+            return occupancy.unavailableDates(itemId, start, end);
+
+        // 2. Ir à pesca das reservas, dos bloqueios e das regras recorrentes
         List<Booking> existingBookings = getConflictingBookings(itemId, start, end);
         List<BlockedDate> blockedDates = blockedDateRepository.findBlockedDatesInRange(itemId, start,
                 end);
+        List<BlockedDateRule> rules = blockedDateRuleRepository.findAllByItemId(itemId);
 
         // 3. Calcular os dias queimados
-        return calculateUnavailableDates(start, end, existingBookings, blockedDates);
+        return calculateUnavailableDates(start, end, existingBookings, blockedDates, rules);
     }
 
-    private void validateDateRange(LocalDate start, LocalDate end) {
-        if (start.isAfter(end)) {
-            throw new IllegalArgumentException("Ó moce, o início nã pode ser depois do fim!");
-        }
-    }
+    /**
+     * Same days as {@link #getUnavailableDates}, run-length encoded (see {@link AvailabilityCalendarDTO}).
+     * Built from the merged ranges, so no LocalDate is created per day.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityCalendarDTO getUnavailabilityCalendar(Long itemId, LocalDate start, LocalDate end) {
+        validateDateRange(start, end);
 
-    private List<Booking> getConflictingBookings(Long itemId, LocalDate start, LocalDate end) {
-        return bookingRepository.findBookingsInRange(itemId, start, end);
+        List<DateRange> ranges = occupancy.covers(end)
+                ? occupancy.unavailableRanges(itemId, start, end)
+                : getUnavailableRanges(List.of(itemId), start, end).get(itemId);
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        return new AvailabilityCalendarDTO(start, days, DateIntervals.runs(ranges, start, end));
     }
 
-    private List<LocalDate> calculateUnavailableDates(LocalDate startDate, LocalDate endDate, List<Booking> bookings,
-            List<BlockedDate> blockedDates) {
-        // Cria um stream de dias desde o início até ao fim
-        return startDate.datesUntil(endDate.plusDays(1)) // plusDays(1) porque o método é exclusivo no fim
-                .filter(date -> isDateUnavailable(date, bookings, blockedDates))
-                .sorted()
-                .toList();
-    }
+    /**
+     * Unavailable days of several items over the same range, as merged ranges per item.
+     * All bookings, blocked periods and recurring rules are fetched with one query each.
+     *
+     * @return Merged unavailable ranges (past days included) by item id, in request order;
+     *         items without any are mapped to an empty list
+     * @throws ResponseStatusException 400 with no ids or more than MAX_BATCH_ITEMS
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<DateRange>> getUnavailableRanges(Collection<Long> itemIds, LocalDate start,
+            LocalDate end) {
+        validateDateRange(start, end);
+        if (itemIds == null || itemIds.isEmpty() || itemIds.size() > MAX_BATCH_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_ITEMS + " item ids are required");
+        }
 
-    private boolean isDateUnavailable(LocalDate date, List<Booking> bookings, List<BlockedDate> blockedDates) {
-        return isPastDate(date) || isDateBooked(date, bookings) || isDateBlocked(date, blockedDates);
+        Map<Long, List<DateRange>> rangesByItem = new LinkedHashMap<>();
+        itemIds.forEach(id -> rangesByItem.put(id, new ArrayList<>()));
+
+        List<ItemDateRange> rows = new ArrayList<>(bookingRepository.findBookingRangesForItems(itemIds, start, end,
+                LocalDateTime.now()));
+        rows.addAll(blockedDateRepository.findBlockedRangesForItems(itemIds, start, end));
+        for (ItemDateRange row : rows)
+            rangesByItem.get(row.itemId()).add(row.range());
+        rulesByItem(itemIds).forEach((itemId, rules) ->
+                rangesByItem.get(itemId).addAll(RecurringBlocks.ranges(rules, start, end)));
+
+        LocalDate today = LocalDate.now();
+        rangesByItem.replaceAll((id, ranges) -> {
+            if (start.isBefore(today))
+                ranges.add(new DateRange(start, today.minusDays(1)));
+            return clip(DateIntervals.merge(ranges), start, end);
+        });
+        return rangesByItem;
     }
 
-    private boolean isPastDate(LocalDate date) {
-        return date.isBefore(LocalDate.now());
+    private static List<DateRange> clip(List<DateRange> ranges, LocalDate start, LocalDate end) {
+        List<DateRange> clipped = new ArrayList<>(ranges.size());
+        for (DateRange range : ranges) {
+            LocalDate from = range.start().isBefore(start) ? start : range.start();
+            LocalDate to = range.end().isAfter(end) ? end : range.end();
+            if (!from.isAfter(to))
+                clipped.add(new DateRange(from, to));
+        }
+        return clipped;
     }
 
-    private boolean isDateBooked(LocalDate date, List<Booking> bookings) {
-        return bookings.stream().anyMatch(booking -> isDateInBookingRange(date, booking));
+    private void validateDateRange(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Ó moce, o início nã pode ser depois do fim!");
+        }
     }
 
-    private boolean isDateInBookingRange(LocalDate date, Booking booking) {
-        LocalDate bStart = booking.getStartDate();
-        LocalDate bEnd = booking.getEndDate();
+    // Reservas antigas não têm o preço guardado; a receita conta-as a zero, como o SUM
+    static long priceCentsOf(Booking booking) {
+        return booking.getPriceCents() != null ? booking.getPriceCents() : 0L;
+    }
 
-        // Lógica: !(date < start) && !(date > end) -> está no meio ou nas pontas
-        return !date.isBefore(bStart) && !date.isAfter(bEnd);
+    private Map<Long, List<BlockedDateRule>> rulesByItem(Collection<Long> itemIds) {
+        Map<Long, List<BlockedDateRule>> rulesByItem = new HashMap<>();
+        for (BlockedDateRule rule : blockedDateRuleRepository.findAllByItemIdIn(itemIds))
+            rulesByItem.computeIfAbsent(rule.getItem().getId(), id -> new ArrayList<>()).add(rule);
+        return rulesByItem;
     }
 
-    private boolean isDateBlocked(LocalDate date, List<BlockedDate> blockedDates) {
-        return blockedDates.stream().anyMatch(blockedDate -> isDateInBlockedRange(date, blockedDate));
+    // Mesma regra que existsOverlappingBooking: o dia de saída fica livre, exceto numa reserva de um só dia
+    private static boolean blockedByRules(List<BlockedDateRule> rules, LocalDate startDate, LocalDate endDate) {
+        LocalDate lastNight = endDate.isAfter(startDate) ? endDate.minusDays(1) : startDate;
+        return RecurringBlocks.blocksAny(rules, startDate, lastNight);
     }
 
-    private boolean isDateInBlockedRange(LocalDate date, BlockedDate blockedDate) {
-        LocalDate bStart = blockedDate.getStartDate();
-        LocalDate bEnd = blockedDate.getEndDate();
+    private List<Booking> getConflictingBookings(Long itemId, LocalDate start, LocalDate end) {
+        return bookingRepository.findBookingsInRange(itemId, start, end, LocalDateTime.now());
+    }
 
-        return !date.isBefore(bStart) && !date.isAfter(bEnd);
+    private List<LocalDate> calculateUnavailableDates(LocalDate startDate, LocalDate endDate, List<Booking> bookings,
+            List<BlockedDate> blockedDates, List<BlockedDateRule> rules) {
+        List<DateRange> ranges = new ArrayList<>(bookings.size() + blockedDates.size() + 1);
+        bookings.forEach(booking -> ranges.add(new DateRange(booking.getStartDate(), booking.getEndDate())));
+        blockedDates.forEach(blocked -> ranges.add(new DateRange(blocked.getStartDate(), blocked.getEndDate())));
+        ranges.addAll(RecurringBlocks.ranges(rules, startDate, endDate));
+
+        // Os dias passados também estão indisponíveis
+        LocalDate today = LocalDate.now();
+        if (startDate.isBefore(today))
+            ranges.add(new DateRange(startDate, today.minusDays(1)));
+
+        // Ordena e junta os intervalos uma vez e percorre-os de seguida
+        return DateIntervals.days(DateIntervals.merge(ranges), startDate, endDate);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemFilter;
+import gofish.pt.entity.Category;
+import gofish.pt.entity.Item;
+import gofish.pt.entity.Material;
+import org.springframework.data.domain.Sort;
+
+import java.util.*;
+
+/**
+ * Immutable column-oriented copy of the item catalog, ordered by id.
+ * Filters scan the primitive columns; only matching rows touch the Item objects.
+ * Writers never mutate a snapshot: {@link #with(Item)}, {@link #withAll} and {@link #without(Long)} copy it.
+ */
+final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(new Item[0]);
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Material[] MATERIALS = Material.values();
+
+    private final Item[] rows;
+    private final long[] ids;
+    private final double[] prices;
+    private final int[] categories;
+    private final int[] materials;
+    private final BitSet active;
+    private final BitSet available;
+
+    private CatalogSnapshot(Item[] rows) {
+        int n = rows.length;
+        this.rows = rows;
+        this.ids = new long[n];
+        this.prices = new double[n];
+        this.categories = new int[n];
+        this.materials = new int[n];
+        this.active = new BitSet(n);
+        this.available = new BitSet(n);
+
+        for (int i = 0; i < n; i++) {
+            Item item = rows[i];
+            ids[i] = item.getId();
+            prices[i] = item.getPrice();
+            categories[i] = item.getCategory().ordinal();
+            materials[i] = item.getMaterial().ordinal();
+            active.set(i, Boolean.TRUE.equals(item.getActive()));
+            available.set(i, Boolean.TRUE.equals(item.getAvailable()));
+        }
+    }
+
+    static CatalogSnapshot of(Collection<Item> items) {
+        Item[] rows = items.toArray(new Item[0]);
+        Arrays.sort(rows, Comparator.comparing(Item::getId));
+        return new CatalogSnapshot(rows);
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    /**
+     * Returns a new snapshot with the item inserted, or replacing the row with the same id.
+     */
+    CatalogSnapshot with(Item item) {
+        int pos = Arrays.binarySearch(ids, item.getId());
+        Item[] copy;
+        if (pos >= 0) {
+            copy = rows.clone();
+            copy[pos] = item;
+        } else {
+            int insertAt = -pos - 1;
+            copy = new Item[rows.length + 1];
+            System.arraycopy(rows, 0, copy, 0, insertAt);
+            copy[insertAt] = item;
+            System.arraycopy(rows, insertAt, copy, insertAt + 1, rows.length - insertAt);
+        }
+        return new CatalogSnapshot(copy);
+    }
+
+    /**
+     * Returns a new snapshot with every item inserted or replacing its row, copying the
+     * rows once however many items change. The items must have distinct ids.
+     */
+    CatalogSnapshot withAll(Collection<Item> items) {
+        Item[] copy = rows.clone();
+        List<Item> added = new ArrayList<>();
+        for (Item item : items) {
+            int pos = Arrays.binarySearch(ids, item.getId());
+            if (pos >= 0)
+                copy[pos] = item;
+            else
+                added.add(item);
+        }
+        if (!added.isEmpty()) {
+            int n = copy.length;
+            copy = Arrays.copyOf(copy, n + added.size());
+            for (Item item : added)
+                copy[n++] = item;
+            Arrays.sort(copy, Comparator.comparing(Item::getId));
+        }
+        return new CatalogSnapshot(copy);
+    }
+
+    /**
+     * Returns a new snapshot without the row for the given id (or this one if absent).
+     */
+    CatalogSnapshot without(Long itemId) {
+        int pos = Arrays.binarySearch(ids, itemId);
+        if (pos < 0)
+            return this;
+
+        Item[] copy = new Item[rows.length - 1];
+        System.arraycopy(rows, 0, copy, 0, pos);
+        System.arraycopy(rows, pos + 1, copy, pos, rows.length - pos - 1);
+        return new CatalogSnapshot(copy);
+    }
+
+    /**
+     * Answers the structured part of an ItemFilter (category, material, price range, active only).
+     */
+    List<Item> query(ItemFilter filter) {
+        int[] hits = new int[rows.length];
+        int count = match(filter, hits);
+        return sorted(hits, count, filter.sortBy(), filter.direction());
+    }
+
+    /**
+     * Counts the rows matching the filter by category, material and price range in one scan.
+     */
+    ItemFacetsDTO facets(ItemFilter filter) {
+        int[] hits = new int[rows.length];
+        int count = match(filter, hits);
+
+        ItemFacetsDTO facets = new ItemFacetsDTO();
+        for (int k = 0; k < count; k++) {
+            int i = hits[k];
+            facets.add(CATEGORIES[categories[i]], MATERIALS[materials[i]], prices[i], 1);
+        }
+        return facets;
+    }
+
+    /**
+     * Writes the indexes of the matching rows into hits, in id order.
+     *
+     * @return The number of matches
+     */
+    private int match(ItemFilter filter, int[] hits) {
+        int category = filter.category() != null ? filter.category().ordinal() : -1;
+        BitSet subtree = filter.category() != null && filter.matchesSubcategories()
+                ? ordinals(filter.category().subtree())
+                : null;
+        int material = filter.material() != null ? filter.material().ordinal() : -1;
+        double min = filter.minPrice() != null ? filter.minPrice() : Double.NEGATIVE_INFINITY;
+        double max = filter.maxPrice() != null ? filter.maxPrice() : Double.POSITIVE_INFINITY;
+
+        int count = 0;
+        for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+            boolean categoryMatches = subtree != null ? subtree.get(categories[i])
+                    : category < 0 || categories[i] == category;
+            if (categoryMatches
+                    && (material < 0 || materials[i] == material)
+                    && prices[i] >= min && prices[i] <= max) {
+                hits[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    private static BitSet ordinals(Set<Category> subtree) {
+        BitSet bits = new BitSet(CATEGORIES.length);
+        subtree.forEach(c -> bits.set(c.ordinal()));
+        return bits;
+    }
+
+    private List<Item> sorted(int[] hits, int count, String sortBy, Sort.Direction direction) {
+        boolean descending = direction == Sort.Direction.DESC;
+        if (sortBy == null || "id".equals(sortBy)) {
+            // Rows are already in id order
+            List<Item> result = new ArrayList<>(count);
+            for (int k = 0; k < count; k++)
+                result.add(rows[hits[descending ? count - 1 - k : k]]);
+            return result;
+        }
+
+        Integer[] order = new Integer[count];
+        for (int k = 0; k < count; k++)
+            order[k] = hits[k];
+
+        Comparator<Integer> comparator = comparator(sortBy);
+        Arrays.sort(order, descending ? comparator.reversed() : comparator);
+
+        List<Item> result = new ArrayList<>(count);
+        for (Integer i : order)
+            result.add(rows[i]);
+        return result;
+    }
+
+    private Comparator<Integer> comparator(String sortBy) {
+        // Enums are stored as strings, so compare names to keep the database ordering
+        Comparator<Integer> key = switch (sortBy) {
+            case "price" -> (a, b) -> Double.compare(prices[a], prices[b]);
+            case "category" -> Comparator.comparing(i -> CATEGORIES[categories[i]].name());
+            case "material" -> Comparator.comparing(i -> MATERIALS[materials[i]].name());
+            case "name" -> Comparator.comparing(i -> rows[i].getName());
+            case "description" -> Comparator.comparing(i -> rows[i].getDescription());
+            case "available" -> (a, b) -> Boolean.compare(available.get(a), available.get(b));
+            default -> throw new IllegalArgumentException("Unsupported sort field " + sortBy);
+        };
+        return key.thenComparingInt(i -> i);
+    }
+}
@@ -0,0 +1,142 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.ItemCursor;
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemFilter;
+import gofish.pt.entity.Item;
+import gofish.pt.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Optional in-memory engine for catalog filters (catalog.snapshot.enabled).
+ * Holds the catalog as an immutable {@link CatalogSnapshot}; item writes publish
+ * a new copy once their transaction commits, so readers never see uncommitted rows
+ * and never take a database connection.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile boolean loaded;
+    // Changes applied while a rebuild is loading, replayed onto its result; guarded by this
+    private final List<List<UnaryOperator<CatalogSnapshot>>> recordings = new ArrayList<>();
+
+    public CatalogSnapshotService(ItemRepository itemRepository,
+            @Value("${catalog.snapshot.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the snapshot can answer this filter. Text search and date availability
+     * still go to the database, and so does everything until the first rebuild succeeds.
+     */
+    public boolean supports(ItemFilter filter) {
+        return enabled && loaded && filter != null && filter.name() == null && !filter.hasDateRange()
+                && (filter.sortBy() == null || ItemCursor.SORTABLE_FIELDS.contains(filter.sortBy()));
+    }
+
+    public List<Item> query(ItemFilter filter) {
+        return snapshot.query(filter);
+    }
+
+    public ItemFacetsDTO facets(ItemFilter filter) {
+        return snapshot.facets(filter);
+    }
+
+    /**
+     * Loads the whole catalog into a fresh snapshot. Changes published while it loads are
+     * replayed onto the result before it is swapped in, so none of them is lost; replaying
+     * one the load already saw is harmless, since each change sets an item's whole row.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled)
+            return;
+
+        List<UnaryOperator<CatalogSnapshot>> missed = new ArrayList<>();
+        synchronized (this) {
+            recordings.add(missed);
+        }
+        try {
+            List<Item> items = itemRepository.findAll();
+            items.forEach(item -> Hibernate.initialize(item.getPhotoUrls()));
+            CatalogSnapshot fresh = CatalogSnapshot.of(items);
+            synchronized (this) {
+                for (UnaryOperator<CatalogSnapshot> change : missed)
+                    fresh = change.apply(fresh);
+                snapshot = fresh;
+                loaded = true;
+            }
+            log.info("Catalog snapshot loaded with {} items", items.size());
+        } finally {
+            synchronized (this) {
+                recordings.remove(missed);
+            }
+        }
+    }
+
+    /**
+     * Publishes the new state of an item after the current transaction commits.
+     */
+    public void publish(Item item) {
+        if (!enabled || item == null || item.getId() == null)
+            return;
+
+        // Serialization happens outside the session, so load the photos now
+        Hibernate.initialize(item.getPhotoUrls());
+        afterCommit(current -> current.with(item));
+    }
+
+    /**
+     * Publishes the new state of several items after the current transaction commits,
+     * as one snapshot copy. Their photos should already be loaded.
+     */
+    public void publishAll(Collection<Item> items) {
+        if (!enabled || items.isEmpty())
+            return;
+
+        items.forEach(item -> Hibernate.initialize(item.getPhotoUrls()));
+        List<Item> published = List.copyOf(items);
+        afterCommit(current -> current.withAll(published));
+    }
+
+    /**
+     * Removes an item from the snapshot after the current transaction commits.
+     */
+    public void evict(Long itemId) {
+        if (!enabled || itemId == null)
+            return;
+
+        afterCommit(current -> current.without(itemId));
+    }
+
+    private void afterCommit(UnaryOperator<CatalogSnapshot> change) {
+        TransactionCallbacks.afterCommit(() -> apply(change));
+    }
+
+    private synchronized void apply(UnaryOperator<CatalogSnapshot> change) {
+        snapshot = change.apply(snapshot);
+        recordings.forEach(missed -> missed.add(change));
+    }
+}
@@ -0,0 +1,317 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.AdminDashboardDTO;
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.entity.PaymentStatus;
+import gofish.pt.entity.UserStatus;
+import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.ItemRepository;
+import gofish.pt.repository.PaymentRepository;
+import gofish.pt.repository.UserRepository;
+import gofish.pt.repository.UserStatusRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * Running business totals behind the admin dashboard and the kpi.* meters, so neither a
+ * dashboard hit nor a Prometheus scrape reads the database.
+ * <p>
+ * The user, item, booking and payment write paths report their changes here; each change
+ * is applied once its transaction commits. Writes that bypass those paths, other instances
+ * and races with a reconciliation make the totals drift, so {@link #reconcile} periodically
+ * resets them from COUNT/SUM aggregates. The first dashboard read reconciles if no run
+ * happened yet; the gauges only ever read the totals.
+ * <p>
+ * Meters: kpi.bookings and kpi.payments (current count per status), kpi.users and
+ * kpi.items (per status), kpi.revenue (cents) and the kpi.bookings.transitions and
+ * kpi.payments.transitions counters (tagged with the status entered).
+ */
+@Slf4j
+@Service
+public class DashboardCounters {
+
+    enum Total {
+        USERS, SUSPENDED_USERS, DELETED_USERS, ITEMS, INACTIVE_ITEMS, REVENUE_CENTS
+    }
+
+    // Statuses whose stored price counts as revenue
+    private static final Set<BookingStatus> PAID = EnumSet.of(BookingStatus.CONFIRMED, BookingStatus.ACTIVE,
+            BookingStatus.COMPLETED);
+
+    // One slot per Total, then one per booking status, then one per payment status
+    private static final int BOOKINGS = Total.values().length;
+    private static final int PAYMENTS = BOOKINGS + BookingStatus.values().length;
+    private static final int SLOTS = PAYMENTS + PaymentStatus.values().length;
+
+    private final UserRepository userRepository;
+    private final UserStatusRepository userStatusRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readOnly;
+
+    private final AtomicLongArray values = new AtomicLongArray(SLOTS);
+    private final Counter[] bookingTransitions = new Counter[BookingStatus.values().length];
+    private final Counter[] paymentTransitions = new Counter[PaymentStatus.values().length];
+    private volatile boolean reconciled;
+
+    public DashboardCounters(UserRepository userRepository, UserStatusRepository userStatusRepository,
+            ItemRepository itemRepository, BookingRepository bookingRepository, PaymentRepository paymentRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userStatusRepository = userStatusRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        registerMeters(meterRegistry);
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry) {
+        for (BookingStatus status : BookingStatus.values()) {
+            gauge(meterRegistry, "kpi.bookings", "Bookings currently in each status", status.name(),
+                    v -> v.get(slot(status)));
+            bookingTransitions[status.ordinal()] = Counter.builder("kpi.bookings.transitions")
+                    .description("Bookings that entered each status, creation included")
+                    .tag("to", status.name())
+                    .register(meterRegistry);
+        }
+        for (PaymentStatus status : PaymentStatus.values()) {
+            gauge(meterRegistry, "kpi.payments", "Payments currently in each status", status.name(),
+                    v -> v.get(slot(status)));
+            paymentTransitions[status.ordinal()] = Counter.builder("kpi.payments.transitions")
+                    .description("Payments that entered each status, creation included")
+                    .tag("to", status.name())
+                    .register(meterRegistry);
+        }
+
+        // Users without a status row count as active, like AdminService treats them
+        gauge(meterRegistry, "kpi.users", "Users in each account status", UserStatus.STATUS_ACTIVE,
+                v -> v.get(slot(Total.USERS)) - v.get(slot(Total.SUSPENDED_USERS)) - v.get(slot(Total.DELETED_USERS)));
+        gauge(meterRegistry, "kpi.users", "Users in each account status", UserStatus.STATUS_SUSPENDED,
+                v -> v.get(slot(Total.SUSPENDED_USERS)));
+        gauge(meterRegistry, "kpi.users", "Users in each account status", UserStatus.STATUS_DELETED,
+                v -> v.get(slot(Total.DELETED_USERS)));
+        gauge(meterRegistry, "kpi.items", "Items listed, by visibility", "ACTIVE",
+                v -> v.get(slot(Total.ITEMS)) - v.get(slot(Total.INACTIVE_ITEMS)));
+        gauge(meterRegistry, "kpi.items", "Items listed, by visibility", "INACTIVE",
+                v -> v.get(slot(Total.INACTIVE_ITEMS)));
+
+        Gauge.builder("kpi.revenue", values, v -> v.get(slot(Total.REVENUE_CENTS)))
+                .description("Stored price of confirmed, active and completed bookings")
+                .baseUnit("cents")
+                .register(meterRegistry);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String description, String status,
+            ToLongFunction<AtomicLongArray> value) {
+        Gauge.builder(name, values, v -> value.applyAsLong(v))
+                .description(description)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    public AdminDashboardDTO snapshot() {
+        if (!reconciled) {
+            synchronized (this) {
+                if (!reconciled)
+                    reconcile();
+            }
+        }
+        return new AdminDashboardDTO(
+                (int) values.get(slot(BookingStatus.CONFIRMED)),
+                (int) values.get(slot(BookingStatus.PENDING)),
+                (int) values.get(slot(Total.USERS)),
+                (int) values.get(slot(Total.SUSPENDED_USERS)),
+                (int) values.get(slot(Total.ITEMS)),
+                (int) values.get(slot(Total.INACTIVE_ITEMS)),
+                values.get(slot(Total.REVENUE_CENTS)) / 100.0);
+    }
+
+    /**
+     * Resets every total from the database. Changes committed while the aggregates run are
+     * kept on top of them; one that the aggregates already saw is counted twice until the
+     * next run.
+     */
+    @Scheduled(fixedDelayString = "${admin.dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long[] before = new long[SLOTS];
+        for (int i = 0; i < SLOTS; i++)
+            before[i] = values.get(i);
+
+        long[] actual = readOnly.execute(status -> {
+            long[] totals = new long[SLOTS];
+            totals[slot(Total.USERS)] = userRepository.count();
+            totals[slot(Total.SUSPENDED_USERS)] = userStatusRepository.countByStatus(UserStatus.STATUS_SUSPENDED);
+            totals[slot(Total.DELETED_USERS)] = userStatusRepository.countByStatus(UserStatus.STATUS_DELETED);
+            totals[slot(Total.ITEMS)] = itemRepository.count();
+            totals[slot(Total.INACTIVE_ITEMS)] = itemRepository.countByActiveFalse();
+            for (BookingRepository.StatusTotals row : bookingRepository.getStatusTotals()) {
+                totals[slot(row.getStatus())] = row.getCount();
+                if (PAID.contains(row.getStatus()))
+                    totals[slot(Total.REVENUE_CENTS)] += row.getPriceCents();
+            }
+            for (PaymentRepository.StatusCount row : paymentRepository.getStatusCounts())
+                totals[slot(row.getStatus())] = row.getCount();
+            return totals;
+        });
+
+        for (int i = 0; i < SLOTS; i++) {
+            long drift = actual[i] - before[i];
+            if (drift == 0)
+                continue;
+            values.addAndGet(i, drift);
+            if (reconciled)
+                log.info("Dashboard counter {} drifted by {}", slotName(i), -drift);
+        }
+        reconciled = true;
+    }
+
+    // --- Write paths ---
+
+    public void userAdded() {
+        add(slot(Total.USERS), 1);
+    }
+
+    public void userStatusChanged(String from, String to) {
+        usersMoved(from, to, 1);
+    }
+
+    public void usersMoved(String from, String to, int count) {
+        if (count == 0 || (from != null && from.equals(to)))
+            return;
+        Total left = userTotal(from);
+        Total entered = userTotal(to);
+        if (left != null)
+            add(slot(left), -count);
+        if (entered != null)
+            add(slot(entered), count);
+    }
+
+    public void itemAdded(boolean active) {
+        add(slot(Total.ITEMS), 1);
+        if (!active)
+            add(slot(Total.INACTIVE_ITEMS), 1);
+    }
+
+    public void itemRemoved(boolean active) {
+        add(slot(Total.ITEMS), -1);
+        if (!active)
+            add(slot(Total.INACTIVE_ITEMS), -1);
+    }
+
+    public void itemActiveChanged(boolean wasActive, boolean active) {
+        if (wasActive != active)
+            itemsActiveChanged(active, 1);
+    }
+
+    /**
+     * Items that were all switched to the given flag from the opposite one.
+     */
+    public void itemsActiveChanged(boolean active, int count) {
+        if (count > 0)
+            add(slot(Total.INACTIVE_ITEMS), active ? -count : count);
+    }
+
+    /**
+     * New bookings, all in the same status.
+     *
+     * @param priceCents Sum of their stored prices
+     */
+    public void bookingsAdded(BookingStatus status, int count, long priceCents) {
+        bookingsMoved(null, status, count, priceCents);
+    }
+
+    /**
+     * Bookings moved from one status to another.
+     *
+     * @param priceCents Sum of their stored prices; only read when they start or stop
+     *                   counting as revenue
+     */
+    public void bookingsMoved(BookingStatus from, BookingStatus to, int count, long priceCents) {
+        if (count == 0 || from == to)
+            return;
+        if (from != null)
+            add(slot(from), -count);
+        add(slot(to), count);
+        increment(bookingTransitions[to.ordinal()], count);
+
+        boolean wasPaid = from != null && PAID.contains(from);
+        boolean paid = PAID.contains(to);
+        if (wasPaid != paid)
+            add(slot(Total.REVENUE_CENTS), paid ? priceCents : -priceCents);
+    }
+
+    public void paymentAdded(PaymentStatus status) {
+        paymentMoved(null, status);
+    }
+
+    public void paymentMoved(PaymentStatus from, PaymentStatus to) {
+        if (from == to)
+            return;
+        if (from != null)
+            add(slot(from), -1);
+        add(slot(to), 1);
+        increment(paymentTransitions[to.ordinal()], 1);
+    }
+
+    long get(Total total) {
+        return values.get(slot(total));
+    }
+
+    long get(BookingStatus status) {
+        return values.get(slot(status));
+    }
+
+    long get(PaymentStatus status) {
+        return values.get(slot(status));
+    }
+
+    private static Total userTotal(String status) {
+        if (UserStatus.STATUS_SUSPENDED.equals(status))
+            return Total.SUSPENDED_USERS;
+        if (UserStatus.STATUS_DELETED.equals(status))
+            return Total.DELETED_USERS;
+        return null;
+    }
+
+    private static int slot(Total total) {
+        return total.ordinal();
+    }
+
+    private static int slot(BookingStatus status) {
+        return BOOKINGS + status.ordinal();
+    }
+
+    private static int slot(PaymentStatus status) {
+        return PAYMENTS + status.ordinal();
+    }
+
+    private static String slotName(int slot) {
+        if (slot < BOOKINGS)
+            return Total.values()[slot].name();
+        if (slot < PAYMENTS)
+            return "BOOKINGS_" + BookingStatus.values()[slot - BOOKINGS];
+        return "PAYMENTS_" + PaymentStatus.values()[slot - PAYMENTS];
+    }
+
+    private void add(int slot, long delta) {
+        TransactionCallbacks.afterCommit(() -> values.addAndGet(slot, delta));
+    }
+
+    private static void increment(Counter counter, int count) {
+        TransactionCallbacks.afterCommit(() -> counter.increment(count));
+    }
+}
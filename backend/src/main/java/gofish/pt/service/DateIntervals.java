@@ -0,0 +1,112 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Interval sweep over booking/blocked ranges: sort once, merge, then walk the merged
+ * ranges in order. O(n log n + d) instead of checking every interval for every day.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class DateIntervals {
+
+    /**
+     * Sorts the ranges by start and merges the ones that overlap or touch.
+     *
+     * @return Disjoint ranges in ascending order
+     */
+    static List<DateRange> merge(List<DateRange> ranges) {
+        List<DateRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparing(DateRange::start));
+
+        List<DateRange> merged = new ArrayList<>();
+        DateRange current = null;
+        for (DateRange range : sorted) {
+            if (current != null && !range.start().isAfter(current.end().plusDays(1))) {
+                if (range.end().isAfter(current.end()))
+                    current = new DateRange(current.start(), range.end());
+            } else {
+                if (current != null)
+                    merged.add(current);
+                current = range;
+            }
+        }
+        if (current != null)
+            merged.add(current);
+        return merged;
+    }
+
+    /**
+     * What is left of a range after taking out the days [from, to]: nothing, one piece,
+     * or two when [from, to] falls strictly inside it.
+     *
+     * @return Remaining pieces in ascending order
+     */
+    static List<DateRange> minus(DateRange range, LocalDate from, LocalDate to) {
+        if (to.isBefore(range.start()) || from.isAfter(range.end()))
+            return List.of(range);
+        List<DateRange> left = new ArrayList<>(2);
+        if (range.start().isBefore(from))
+            left.add(new DateRange(range.start(), from.minusDays(1)));
+        if (range.end().isAfter(to))
+            left.add(new DateRange(to.plusDays(1), range.end()));
+        return left;
+    }
+
+    /**
+     * Every day of [from, to] covered by one of the merged ranges, in order.
+     *
+     * @param merged Output of {@link #merge}
+     */
+    static List<LocalDate> days(List<DateRange> merged, LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        for (DateRange range : merged) {
+            if (range.start().isAfter(to))
+                break;
+            LocalDate start = range.start().isBefore(from) ? from : range.start();
+            LocalDate end = range.end().isAfter(to) ? to : range.end();
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1))
+                days.add(day);
+        }
+        return days;
+    }
+
+    /**
+     * Run-length encoding of [from, to]: alternating free and covered day counts, starting
+     * with a free run. Works on the ranges directly, one step per range.
+     *
+     * @param merged Ranges in ascending order, not overlapping (e.g. output of {@link #merge})
+     */
+    static int[] runs(List<DateRange> merged, LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        int[] runs = new int[merged.size() * 2 + 1];
+        int count = 0;
+        long cursor = 0; // first day not encoded yet, as an offset from 'from'
+
+        for (DateRange range : merged) {
+            long start = Math.max(cursor, ChronoUnit.DAYS.between(from, range.start()));
+            long end = Math.min(days - 1, ChronoUnit.DAYS.between(from, range.end()));
+            if (start > end)
+                continue;
+            if (start == cursor && count > 0) {
+                // Touches the previous covered run
+                runs[count - 1] += (int) (end - start + 1);
+            } else {
+                runs[count++] = (int) (start - cursor);
+                runs[count++] = (int) (end - start + 1);
+            }
+            cursor = end + 1;
+        }
+        if (cursor < days)
+            runs[count++] = (int) (days - cursor);
+        return Arrays.copyOf(runs, count);
+    }
+}
@@ -0,0 +1,53 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemFilter;
+import gofish.pt.entity.Item;
+import gofish.pt.repository.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Computes catalog facet counts in a single pass: one scan of the in-memory snapshot
+ * when it can answer the filter, otherwise one grouped SQL query.
+ * Timed as catalog.facets, tagged with the engine that answered.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ItemFacetService {
+
+    private final ItemRepository itemRepository;
+    private final CatalogSnapshotService catalogSnapshot;
+    private final Timer snapshotTimer;
+    private final Timer databaseTimer;
+
+    public ItemFacetService(ItemRepository itemRepository, CatalogSnapshotService catalogSnapshot,
+            MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.catalogSnapshot = catalogSnapshot;
+        this.snapshotTimer = facetTimer(meterRegistry, "snapshot");
+        this.databaseTimer = facetTimer(meterRegistry, "database");
+    }
+
+    private static Timer facetTimer(MeterRegistry meterRegistry, String engine) {
+        return Timer.builder("catalog.facets")
+                .description("Time to compute facet counts for a catalog query")
+                .tag("engine", engine)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param filter The filter as sent by the client (used by the snapshot engine)
+     * @param spec The same filter compiled to a Specification (used by the database engine)
+     */
+    public ItemFacetsDTO countFacets(ItemFilter filter, Specification<Item> spec) {
+        if (catalogSnapshot.supports(filter))
+            return snapshotTimer.record(() -> catalogSnapshot.facets(filter));
+
+        return databaseTimer.record(() -> itemRepository.countFacets(spec));
+    }
+}
@@ -0,0 +1,200 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import gofish.pt.entity.BlockedDate;
+import gofish.pt.entity.BlockedDateRule;
+import gofish.pt.entity.Booking;
+import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.BlockedDateRuleRepository;
+import gofish.pt.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Per-item occupancy bitmaps for the availability calendar.
+ * Each cached item holds one bit per day from today over a rolling horizon, set when a
+ * confirmed/active booking, a live pending hold, a blocked period or a recurring blocked
+ * date rule covers that day.
+ * Reads inside the horizon are answered from the bitmap without touching the database.
+ * <p>
+ * New bookings and blocks set bits in place once their transaction commits; anything
+ * that frees days (unblocking, cancelling, expiring a hold) evicts the item instead,
+ * since overlapping intervals make clearing bits unsafe. Entries are evicted LRU.
+ */
+@Service
+public class ItemOccupancyCache {
+
+    private final BookingRepository bookingRepository;
+    private final BlockedDateRepository blockedDateRepository;
+    private final BlockedDateRuleRepository blockedDateRuleRepository;
+    private final int horizonDays;
+
+    private final Map<Long, Occupancy> entries;
+    // Bumped on every write so a load racing with a commit is not cached
+    private long generation;
+
+    public ItemOccupancyCache(BookingRepository bookingRepository, BlockedDateRepository blockedDateRepository,
+            BlockedDateRuleRepository blockedDateRuleRepository,
+            @Value("${availability.cache.horizon-days:400}") int horizonDays,
+            @Value("${availability.cache.max-items:5000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.blockedDateRepository = blockedDateRepository;
+        this.blockedDateRuleRepository = blockedDateRuleRepository;
+        this.horizonDays = horizonDays;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Occupancy> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    /**
+     * Whether a range ending on this day can be answered from the cache.
+     */
+    public boolean covers(LocalDate end) {
+        return end.isBefore(LocalDate.now().plusDays(horizonDays));
+    }
+
+    /**
+     * Days in [start, end] that cannot be booked: past days plus every occupied day.
+     * The range must end inside the horizon (see {@link #covers}).
+     */
+    public List<LocalDate> unavailableDates(Long itemId, LocalDate start, LocalDate end) {
+        LocalDate today = LocalDate.now();
+        List<LocalDate> dates = new ArrayList<>();
+
+        LocalDate day = start;
+        for (; day.isBefore(today) && !day.isAfter(end); day = day.plusDays(1))
+            dates.add(day);
+        if (day.isAfter(end))
+            return dates;
+
+        Occupancy occupancy = get(itemId, today);
+        int from = occupancy.index(day);
+        int to = occupancy.index(end);
+        for (int i = occupancy.days.nextSetBit(from); i >= 0 && i <= to; i = occupancy.days.nextSetBit(i + 1))
+            dates.add(occupancy.origin.plusDays(i));
+        return dates;
+    }
+
+    /**
+     * Same days as {@link #unavailableDates}, as ascending disjoint ranges read off the
+     * bitmap run by run, without a LocalDate per day.
+     */
+    public List<DateRange> unavailableRanges(Long itemId, LocalDate start, LocalDate end) {
+        LocalDate today = LocalDate.now();
+        List<DateRange> ranges = new ArrayList<>();
+
+        if (start.isBefore(today))
+            ranges.add(new DateRange(start, end.isBefore(today) ? end : today.minusDays(1)));
+        if (end.isBefore(today))
+            return ranges;
+
+        Occupancy occupancy = get(itemId, today);
+        int from = occupancy.index(start.isBefore(today) ? today : start);
+        int to = occupancy.index(end);
+        for (int i = occupancy.days.nextSetBit(from); i >= 0 && i <= to; ) {
+            int next = occupancy.days.nextClearBit(i);
+            ranges.add(new DateRange(occupancy.origin.plusDays(i), occupancy.origin.plusDays(Math.min(next - 1, to))));
+            i = occupancy.days.nextSetBit(next);
+        }
+        return ranges;
+    }
+
+    /**
+     * Records a saved booking: occupies its days while it holds them (see
+     * {@link Booking#occupiesAt}), otherwise evicts the item.
+     */
+    public void bookingChanged(Booking booking) {
+        if (booking.occupiesAt(LocalDateTime.now()))
+            occupy(booking.getItem().getId(), booking.getStartDate(), booking.getEndDate());
+        else
+            evict(booking.getItem().getId());
+    }
+
+    /**
+     * Marks [start, end] as occupied after the current transaction commits.
+     */
+    public void occupy(Long itemId, LocalDate start, LocalDate end) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (entries) {
+                generation++;
+                Occupancy current = entries.get(itemId);
+                if (current != null)
+                    entries.put(itemId, current.with(start, end));
+            }
+        });
+    }
+
+    /**
+     * Drops the item after the current transaction commits; the next read reloads it.
+     */
+    public void evict(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (entries) {
+                generation++;
+                entries.remove(itemId);
+            }
+        });
+    }
+
+    private Occupancy get(Long itemId, LocalDate today) {
+        long loadedAt;
+        synchronized (entries) {
+            Occupancy cached = entries.get(itemId);
+            // Entries built on an earlier day would end before the current horizon
+            if (cached != null && cached.origin.equals(today))
+                return cached;
+            loadedAt = generation;
+        }
+
+        Occupancy loaded = load(itemId, today);
+        synchronized (entries) {
+            if (generation == loadedAt)
+                entries.put(itemId, loaded);
+        }
+        return loaded;
+    }
+
+    private Occupancy load(Long itemId, LocalDate origin) {
+        LocalDate last = origin.plusDays(horizonDays - 1L);
+        Occupancy occupancy = new Occupancy(origin, horizonDays, new BitSet(horizonDays));
+
+        for (Booking booking : bookingRepository.findBookingsInRange(itemId, origin, last, LocalDateTime.now()))
+            occupancy.mark(booking.getStartDate(), booking.getEndDate());
+        for (BlockedDate blocked : blockedDateRepository.findBlockedDatesInRange(itemId, origin, last))
+            occupancy.mark(blocked.getStartDate(), blocked.getEndDate());
+        for (BlockedDateRule rule : blockedDateRuleRepository.findAllByItemId(itemId))
+            RecurringBlocks.mark(occupancy.days, origin, horizonDays, rule);
+        return occupancy;
+    }
+
+    /**
+     * Bitmap of occupied days starting at origin. Never mutated once cached.
+     */
+    private record Occupancy(LocalDate origin, int length, BitSet days) {
+
+        int index(LocalDate date) {
+            return (int) Math.max(0, Math.min(length - 1L, ChronoUnit.DAYS.between(origin, date)));
+        }
+
+        void mark(LocalDate start, LocalDate end) {
+            long from = Math.max(0, ChronoUnit.DAYS.between(origin, start));
+            long to = Math.min(length - 1L, ChronoUnit.DAYS.between(origin, end));
+            if (from <= to)
+                days.set((int) from, (int) to + 1);
+        }
+
+        Occupancy with(LocalDate start, LocalDate end) {
+            Occupancy copy = new Occupancy(origin, length, (BitSet) days.clone());
+            copy.mark(start, end);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.Item;
+import gofish.pt.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the name and description of active items.
+ * Replaces lower(name) LIKE '%text%' scans: query terms are prefix-matched against
+ * folded tokens and every hit gets a relevance score.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    // A term in the name counts more than the same term in the description
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+    // Changes applied while a rebuild is loading, replayed onto its result; guarded by the write lock
+    private final List<List<Runnable>> recordings = new ArrayList<>();
+    private volatile boolean ready;
+
+    /**
+     * Whether the index has been built; until then callers fall back to SQL LIKE.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexes every item from scratch. Changes published while the items load are replayed
+     * afterwards, so none of them is lost; each one re-indexes or drops a whole item, so
+     * replaying one the load already saw is harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Runnable> missed = new ArrayList<>();
+        writeLocked(() -> recordings.add(missed));
+        try {
+            List<Item> items = itemRepository.findAll();
+
+            writeLocked(() -> {
+                postings.clear();
+                termsByItem.clear();
+                items.forEach(this::add);
+                missed.forEach(Runnable::run);
+                ready = true;
+            });
+            log.info("Item search index built with {} items and {} terms", termsByItem.size(), postings.size());
+        } finally {
+            writeLocked(() -> recordings.remove(missed));
+        }
+    }
+
+    /**
+     * Re-indexes an item after the current transaction commits. Inactive items are dropped.
+     */
+    public void index(Item item) {
+        if (item == null || item.getId() == null)
+            return;
+
+        Long id = item.getId();
+        boolean active = Boolean.TRUE.equals(item.getActive());
+        String name = item.getName();
+        String description = item.getDescription();
+
+        TransactionCallbacks.afterCommit(() -> apply(() -> {
+            remove(id);
+            if (active)
+                add(id, name, description);
+        }));
+    }
+
+    /**
+     * Drops an item from the index after the current transaction commits.
+     */
+    public void evict(Long itemId) {
+        if (itemId == null)
+            return;
+
+        TransactionCallbacks.afterCommit(() -> apply(() -> remove(itemId)));
+    }
+
+    private void apply(Runnable change) {
+        writeLocked(() -> {
+            change.run();
+            recordings.forEach(missed -> missed.add(change));
+        });
+    }
+
+    private void writeLocked(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the items matching every term of the query (each term as a token prefix).
+     *
+     * @param text Free text as typed by the user
+     * @return Relevance score by item id, best first; empty when nothing matches
+     */
+    public Map<Long, Double> search(String text) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty())
+            return Map.of();
+
+        lock.readLock().lock();
+        try {
+            int documents = Math.max(termsByItem.size(), 1);
+            Map<Long, Double> scores = null;
+
+            for (String term : terms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map<Long, Integer> posting : postings.subMap(term, true, term + Character.MAX_VALUE, true)
+                        .values()) {
+                    double idf = Math.log(1.0 + (double) documents / posting.size());
+                    posting.forEach((id, weight) -> termScores.merge(id, weight * idf, Math::max));
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty())
+                    return Map.of();
+            }
+
+            Map<Long, Double> ranked = new LinkedHashMap<>();
+            scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> ranked.put(e.getKey(), e.getValue()));
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercases, strips accents (so "arpao" finds "Arpão") and splits on anything
+     * that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null)
+            return List.of();
+
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private void add(Item item) {
+        if (Boolean.TRUE.equals(item.getActive()))
+            add(item.getId(), item.getName(), item.getDescription());
+    }
+
+    private void add(Long id, String name, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        termsByItem.put(id, weights.keySet());
+    }
+
+    private void remove(Long id) {
+        Set<String> terms = termsByItem.remove(id);
+        if (terms == null)
+            return;
+
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty())
+                postings.remove(term);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package gofish.pt.service;
 
 import gofish.pt.dto.BlockDateRequestDTO;
+import gofish.pt.dto.BlockedDateRuleRequestDTO;
+import gofish.pt.dto.DateRange;
+import gofish.pt.dto.ItemCursor;
+import gofish.pt.dto.ItemFacetsDTO;
 import gofish.pt.dto.ItemFilter;
+import gofish.pt.dto.ItemPageDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.dto.ItemUpdateDTO;
 import gofish.pt.entity.*;
 import gofish.pt.dto.ItemDTO;
 import gofish.pt.mapper.ItemMapper;
 import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.BlockedDateRuleRepository;
 import gofish.pt.repository.BookingRepository;
 import gofish.pt.repository.ItemRepository;
+import gofish.pt.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
@@ -17,8 +25,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 
 import static gofish.pt.repository.ItemSpecifications.*;
 
@@ -27,10 +38,23 @@ import static gofish.pt.repository.ItemSpecifications.*;
 @RequiredArgsConstructor
 public class ItemService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final String SORT_RELEVANCE = "relevance";
+    // Index matches are bound one SQL parameter per id; past this many the text goes to LIKE
+    static final int MAX_TEXT_CANDIDATES = 1000;
+
     private final ItemRepository itemRepository;
     private final BlockedDateRepository blockedDateRepository;
     private final BookingRepository bookingRepository;
+    private final ReviewRepository reviewRepository;
     private final ItemMapper itemMapper;
+    private final CatalogSnapshotService catalogSnapshot;
+    private final ItemSearchIndex searchIndex;
+    private final ItemFacetService facetService;
+    private final ItemOccupancyCache occupancy;
+    private final AvailabilityVersions availabilityVersions;
+    private final BlockedDateRuleRepository blockedDateRuleRepository;
+    private final DashboardCounters dashboardCounters;
 
     public Optional<Item> findById(long id) {
         return itemRepository.findById(id);
@@ -49,18 +73,167 @@ public class ItemService {
         if (filter == null)
             return findAll();
 
-        Specification<Item> spec = Specification.allOf(nameContains(filter.name()),
-                categoryIs(filter.category()),
-                materialIs(filter.material()),
-                priceBetween(filter.minPrice(), filter.maxPrice()),
-                activeIs(true));
+        if (catalogSnapshot.supports(filter))
+            return catalogSnapshot.query(filter);
+
+        Map<Long, Double> relevance = resolveText(filter);
+        if (relevance != null && relevance.isEmpty())
+            return List.of();
+
+        List<Item> items = itemRepository.findAll(filterSpec(filter, relevance), filterSort(filter));
+        return rankByRelevance(filter, relevance, items, Item::getId);
+    }
+
+    /**
+     * Same filtering as {@link #findAll(ItemFilter)} but returns list-view rows loaded with
+     * a single query, without the owner entity or the photo collection.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemSummaryDTO> findSummaries(ItemFilter filter) {
+
+        if (filter == null)
+            return itemRepository.findSummaries(null, Sort.by("id"));
+
+        if (catalogSnapshot.supports(filter))
+            return summarize(catalogSnapshot.query(filter));
 
-        String sortBy = (filter.sortBy() != null) ? filter.sortBy() : "id";
+        Map<Long, Double> relevance = resolveText(filter);
+        if (relevance != null && relevance.isEmpty())
+            return List.of();
+
+        List<ItemSummaryDTO> items = itemRepository.findSummaries(filterSpec(filter, relevance), filterSort(filter));
+        return rankByRelevance(filter, relevance, items, ItemSummaryDTO::id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemSummaryDTO> findSummariesByOwner(Long ownerId) {
+        return itemRepository.findSummaries(ownerIs(ownerId), Sort.by("id"));
+    }
+
+    private Sort filterSort(ItemFilter filter) {
+        boolean byRelevance = SORT_RELEVANCE.equals(filter.sortBy());
+        String sortBy = (filter.sortBy() != null && !byRelevance) ? filter.sortBy() : "id";
         Sort.Direction direction = (filter.direction() != null) ? filter.direction() : Sort.Direction.ASC;
 
-        Sort sort = Sort.by(direction, sortBy);
+        return Sort.by(direction, sortBy);
+    }
+
+    private <T> List<T> rankByRelevance(ItemFilter filter, Map<Long, Double> relevance, List<T> items,
+            Function<T, Long> id) {
+        if (!SORT_RELEVANCE.equals(filter.sortBy()) || relevance == null)
+            return items;
+
+        // Best match first; the stable sort keeps id order between equal scores. Rows the
+        // LIKE fallback found inside a word have no index score and go last
+        List<T> ranked = new ArrayList<>(items);
+        ranked.sort(Comparator.comparing((T item) -> relevance.getOrDefault(id.apply(item), 0.0)).reversed());
+        return ranked;
+    }
+
+    /**
+     * Turns snapshot items into summaries; the ratings come from one grouped query.
+     */
+    private List<ItemSummaryDTO> summarize(List<Item> items) {
+        if (items.isEmpty())
+            return List.of();
+
+        Map<Long, ReviewRepository.RatingSummary> ratings = new HashMap<>();
+        for (ReviewRepository.RatingSummary rating : reviewRepository
+                .summarizeByItemIds(items.stream().map(Item::getId).toList())) {
+            ratings.put(rating.getItemId(), rating);
+        }
+
+        return items.stream().map(item -> {
+            ReviewRepository.RatingSummary rating = ratings.get(item.getId());
+            return rating == null ? ItemSummaryDTO.of(item, null, 0)
+                    : ItemSummaryDTO.of(item, rating.getAverageRating(), rating.getReviewCount());
+        }).toList();
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #findSummaries(ItemFilter)}.
+     * Each page seeks past the (sortBy, id) of the previous page's last row,
+     * so deep pages cost the same as the first one.
+     *
+     * @param filter The filter and ordering (may be null)
+     * @param size Page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param withFacets Whether to also count the whole result by category, material and price
+     * @return The page with the cursor for the next one
+     * @throws ResponseStatusException 400 if the sort field cannot be paginated or the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public ItemPageDTO findPage(ItemFilter filter, int size, String cursor, boolean withFacets) {
+        String sortBy = (filter != null && filter.sortBy() != null) ? filter.sortBy() : "id";
+        Sort.Direction direction = (filter != null && filter.direction() != null) ? filter.direction()
+                : Sort.Direction.ASC;
+
+        if (!ItemCursor.SORTABLE_FIELDS.contains(sortBy)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot paginate by " + sortBy);
+        }
+
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ItemCursor after = cursor != null ? ItemCursor.decode(cursor, sortBy, direction) : null;
+
+        Map<Long, Double> relevance = filter != null ? resolveText(filter) : null;
+        if (relevance != null && relevance.isEmpty())
+            return new ItemPageDTO(List.of(), null, false, withFacets ? new ItemFacetsDTO() : null);
+
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id")
+                : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        Specification<Item> matching = filterSpec(filter, relevance);
+        Specification<Item> spec = matching.and(seekAfter(after));
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<ItemSummaryDTO> rows = itemRepository.findSummaries(spec, sort, limit + 1);
+
+        boolean hasNext = rows.size() > limit;
+        List<ItemSummaryDTO> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? ItemCursor.after(page.get(limit - 1), sortBy, direction).encode() : null;
+
+        ItemFacetsDTO facets = withFacets ? facetService.countFacets(filter, matching) : null;
+
+        return new ItemPageDTO(page, nextCursor, hasNext, facets);
+    }
+
+    /**
+     * Resolves the text part of the filter through the search index.
+     *
+     * @return Relevance by item id, or null when the filter has no text or the index is
+     *         not built yet (the query then falls back to SQL LIKE)
+     */
+    private Map<Long, Double> resolveText(ItemFilter filter) {
+        String text = filter.name();
+        if (text == null || !searchIndex.isReady() || ItemSearchIndex.tokenize(text).isEmpty())
+            return null;
+        return searchIndex.search(text);
+    }
+
+    /**
+     * The index matches as an id list, or the same name-or-description match in SQL when
+     * there is no index result or too many ids to bind one parameter each.
+     */
+    private static Specification<Item> textSpec(String text, Map<Long, Double> textMatches) {
+        if (textMatches != null && textMatches.size() <= MAX_TEXT_CANDIDATES)
+            return idIn(textMatches.keySet());
+        return textContains(text);
+    }
+
+    private Specification<Item> filterSpec(ItemFilter filter, Map<Long, Double> textMatches) {
+        if (filter == null)
+            return activeIs(true);
 
-        return itemRepository.findAll(spec, sort);
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date cannot be after end date");
+        }
+
+        return Specification.allOf(
+                textSpec(filter.name(), textMatches),
+                filter.matchesSubcategories() ? categoryWithin(filter.category()) : categoryIs(filter.category()),
+                materialIs(filter.material()),
+                priceBetween(filter.minPrice(), filter.maxPrice()),
+                freeBetween(filter.from(), filter.to()),
+                activeIs(true));
     }
 
     public Item save(ItemDTO dto) {
@@ -68,7 +241,13 @@ public class ItemService {
 
         if (item == null)
             return null;
-        return itemRepository.save(item);
+        boolean created = item.getId() == null;
+        Item saved = itemRepository.save(item);
+        if (created)
+            dashboardCounters.itemAdded(!Boolean.FALSE.equals(saved.getActive()));
+        catalogSnapshot.publish(saved);
+        searchIndex.index(saved);
+        return saved;
     }
 
     /**
@@ -128,12 +307,19 @@ public class ItemService {
             item.setAvailable(updateDTO.getAvailable());
         }
 
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        catalogSnapshot.publish(saved);
+        searchIndex.index(saved);
+        return saved;
     }
 
     public void delete(Item item) {
-        if (item != null)
+        if (item != null) {
             itemRepository.delete(item);
+            dashboardCounters.itemRemoved(!Boolean.FALSE.equals(item.getActive()));
+            catalogSnapshot.evict(item.getId());
+            searchIndex.evict(item.getId());
+        }
     }
 
     public boolean exists(long id) {
@@ -154,36 +340,65 @@ public class ItemService {
         return materials;
     }
 
+    /**
+     * Blocks [startDate, endDate] for the item. Periods already blocked that overlap or
+     * touch the new one are merged into a single row, so an item keeps one row per
+     * disjoint blocked period no matter how its owner blocks the days.
+     *
+     * @return The blocked period covering the requested days, possibly wider than them
+     */
     public BlockedDate blockDateRange(Long itemId, BlockDateRequestDTO request, Long ownerId) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
-
-        // Authorization: Check if the user is the owner
-        if (item.getOwner() == null || !item.getOwner().getId().equals(ownerId)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the item owner can block dates");
-        }
-
         LocalDate startDate = request.getStartDate();
         LocalDate endDate = request.getEndDate();
 
-        // Validate date range
+        // Validate date range before taking the lock, so a bad request never holds the item
         if (startDate.isAfter(endDate)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date cannot be after end date");
         }
 
-        // Conflict Check: Cannot block dates with existing confirmed bookings
+        // Locks the item, so two blocks on it cannot merge against the same rows
+        Item item = itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
+
+        requireOwner(item, ownerId, "Only the item owner can block dates");
+
+        // Conflict Check: Cannot block dates with existing confirmed bookings or live holds
         boolean hasConflict = bookingRepository.existsOverlappingBooking(
                 itemId,
                 startDate,
-                endDate);
+                endDate,
+                LocalDateTime.now());
 
         if (hasConflict) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
                     "The requested date range conflicts with an existing confirmed booking");
         }
 
-        BlockedDate blockedDate = new BlockedDate(startDate, endDate, request.getReason(), item);
-        return blockedDateRepository.save(blockedDate);
+        // One day wider on each side, so periods that only touch are merged as well
+        List<BlockedDate> touching = blockedDateRepository.findBlockedDatesInRange(
+                itemId, startDate.minusDays(1), endDate.plusDays(1));
+
+        BlockedDate saved;
+        if (touching.isEmpty()) {
+            saved = blockedDateRepository.save(new BlockedDate(startDate, endDate, request.getReason(), item));
+        } else {
+            saved = touching.stream().min(Comparator.comparing(BlockedDate::getId)).orElseThrow();
+            for (BlockedDate blocked : touching) {
+                if (blocked.getStartDate().isBefore(startDate))
+                    startDate = blocked.getStartDate();
+                if (blocked.getEndDate().isAfter(endDate))
+                    endDate = blocked.getEndDate();
+            }
+            saved.setStartDate(startDate);
+            saved.setEndDate(endDate);
+            if (request.getReason() != null)
+                saved.setReason(request.getReason());
+            BlockedDate kept = saved;
+            blockedDateRepository.deleteAllInBatch(touching.stream().filter(b -> b != kept).toList());
+        }
+        occupancy.occupy(itemId, request.getStartDate(), request.getEndDate());
+        availabilityVersions.bump(itemId);
+        return saved;
     }
 
     public List<BlockedDate> getBlockedDates(Long itemId, LocalDate from, LocalDate to) {
@@ -196,11 +411,90 @@ public class ItemService {
 
         // Authorization: Check if the user is the owner of the item associated with the
         // blocked date
-        if (blockedDate.getItem().getOwner() == null || !blockedDate.getItem().getOwner().getId().equals(ownerId)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Only the item owner can remove a blocked date period");
-        }
+        requireOwner(blockedDate.getItem(), ownerId, "Only the item owner can remove a blocked date period");
 
         blockedDateRepository.delete(blockedDate);
+        occupancy.evict(blockedDate.getItem().getId());
+        availabilityVersions.bump(blockedDate.getItem().getId());
+    }
+
+    /**
+     * Frees the days [startDate, endDate] of the item, whatever periods they belong to:
+     * periods inside the range are removed, periods crossing an edge are trimmed, and a
+     * period covering the whole range is split in two.
+     */
+    public void unblockDates(Long itemId, LocalDate startDate, LocalDate endDate, Long ownerId) {
+        if (startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date cannot be after end date");
+        }
+        Item item = itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
+        requireOwner(item, ownerId, "Only the item owner can remove a blocked date period");
+
+        List<BlockedDate> removed = new ArrayList<>();
+        for (BlockedDate blocked : blockedDateRepository.findBlockedDatesInRange(itemId, startDate, endDate)) {
+            List<DateRange> left = DateIntervals.minus(
+                    new DateRange(blocked.getStartDate(), blocked.getEndDate()), startDate, endDate);
+            if (left.isEmpty()) {
+                removed.add(blocked);
+                continue;
+            }
+            blocked.setStartDate(left.get(0).start());
+            blocked.setEndDate(left.get(0).end());
+            if (left.size() > 1) {
+                blockedDateRepository.save(
+                        new BlockedDate(left.get(1).start(), left.get(1).end(), blocked.getReason(), item));
+            }
+        }
+        blockedDateRepository.deleteAllInBatch(removed);
+        occupancy.evict(itemId);
+        availabilityVersions.bump(itemId);
+    }
+
+    /**
+     * Adds a recurring block to the item. It is stored as one row and expanded only over
+     * the days being checked; bookings already made are not affected.
+     */
+    public BlockedDateRule addBlockedDateRule(Long itemId, BlockedDateRuleRequestDTO request, Long ownerId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
+        requireOwner(item, ownerId, "Only the item owner can block dates");
+
+        if ((request.getSeasonStart() == null) != (request.getSeasonEnd() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Season start and end must be given together");
+        }
+
+        int weekdays = 0;
+        for (DayOfWeek day : request.getDaysOfWeek())
+            weekdays |= RecurringBlocks.weekdayBit(day);
+        Integer seasonStart = request.getSeasonStart() != null ? RecurringBlocks.mmdd(request.getSeasonStart()) : null;
+        Integer seasonEnd = request.getSeasonEnd() != null ? RecurringBlocks.mmdd(request.getSeasonEnd()) : null;
+
+        BlockedDateRule saved = blockedDateRuleRepository.save(
+                new BlockedDateRule(weekdays, seasonStart, seasonEnd, request.getReason(), item));
+        occupancy.evict(itemId);
+        availabilityVersions.bump(itemId);
+        return saved;
+    }
+
+    public List<BlockedDateRule> getBlockedDateRules(Long itemId) {
+        return blockedDateRuleRepository.findAllByItemId(itemId);
+    }
+
+    public void removeBlockedDateRule(Long ruleId, Long ownerId) {
+        BlockedDateRule rule = blockedDateRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Blocked date rule not found"));
+        requireOwner(rule.getItem(), ownerId, "Only the item owner can remove a blocked date rule");
+
+        blockedDateRuleRepository.delete(rule);
+        occupancy.evict(rule.getItem().getId());
+        availabilityVersions.bump(rule.getItem().getId());
+    }
+
+    private static void requireOwner(Item item, Long ownerId, String message) {
+        if (item.getOwner() == null || !item.getOwner().getId().equals(ownerId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, message);
+        }
     }
 }
@@ -2,15 +2,22 @@ package gofish.pt.service;
 
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
 import gofish.pt.dto.ConfirmPaymentDTO;
+import gofish.pt.dto.CreateCartPaymentIntentDTO;
 import gofish.pt.dto.CreatePaymentIntentDTO;
 import gofish.pt.dto.PaymentIntentResponseDTO;
 import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingCart;
 import gofish.pt.entity.BookingStatus;
 import gofish.pt.entity.Payment;
 import gofish.pt.entity.PaymentStatus;
+import gofish.pt.repository.BookingCartRepository;
 import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.ItemRepository;
 import gofish.pt.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +26,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @Transactional
 @RequiredArgsConstructor
@@ -27,9 +37,15 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemOccupancyCache occupancy;
+    private final AvailabilityVersions availabilityVersions;
+    private final BookingCartRepository bookingCartRepository;
+    private final DashboardCounters dashboardCounters;
 
     /**
-     * Creates a Stripe PaymentIntent for a booking
+     * Creates a Stripe PaymentIntent for a booking, charging its stored price; the amount in
+     * the request is only compared against it. The response carries the amount charged.
      */
     public PaymentIntentResponseDTO createPaymentIntent(CreatePaymentIntentDTO dto) {
         // Validate booking exists
@@ -42,11 +58,31 @@ public class PaymentService {
                     "Cannot process payment for non-pending booking");
         }
 
+        // Confirming the payment confirms the whole cart, so it must be charged the cart total
+        if (booking.getCart() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Booking belongs to cart " + booking.getCart().getId()
+                            + "; pay for it through /api/payments/create-cart-intent");
+        }
+
+        // The hold may have lapsed before the reaper cancelled it
+        if (booking.getHoldExpiresAt() != null && !booking.occupiesAt(LocalDateTime.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking hold has expired");
+        }
+
+        // Charge the price fixed when the booking was made, whatever the client computed
+        Long amount = calculateBookingAmount(booking);
+        if (!amount.equals(dto.getAmount())) {
+            log.warn("Booking {} costs {} cents, not the {} the client sent; charging the stored price",
+                    booking.getId(), amount, dto.getAmount());
+        }
+        String currency = dto.getCurrency() != null ? dto.getCurrency() : "eur";
+
         try {
             // Create Stripe PaymentIntent
             PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                    .setAmount(dto.getAmount())
-                    .setCurrency(dto.getCurrency() != null ? dto.getCurrency() : "eur")
+                    .setAmount(amount)
+                    .setCurrency(currency)
                     .setAutomaticPaymentMethods(
                             PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
                                     .setEnabled(true)
@@ -60,18 +96,19 @@ public class PaymentService {
             Payment payment = new Payment();
             payment.setBooking(booking);
             payment.setStripePaymentIntentId(paymentIntent.getId());
-            payment.setAmount(dto.getAmount());
-            payment.setCurrency(dto.getCurrency() != null ? dto.getCurrency() : "eur");
+            payment.setAmount(amount);
+            payment.setCurrency(currency);
             payment.setStatus(PaymentStatus.PENDING);
             paymentRepository.save(payment);
+            dashboardCounters.paymentAdded(PaymentStatus.PENDING);
 
             log.info("Created PaymentIntent {} for booking {}", paymentIntent.getId(), booking.getId());
 
             return new PaymentIntentResponseDTO(
                     paymentIntent.getClientSecret(),
                     paymentIntent.getId(),
-                    dto.getAmount(),
-                    dto.getCurrency(),
+                    amount,
+                    currency,
                     paymentIntent.getStatus());
 
         } catch (StripeException e) {
@@ -81,7 +118,73 @@ public class PaymentService {
     }
 
     /**
-     * Confirms a payment and updates booking status
+     * Creates a single Stripe PaymentIntent for every booking of a cart. The amount is the
+     * cart total; the payment is recorded against the cart's first booking (lowest item id).
+     */
+    public PaymentIntentResponseDTO createCartPaymentIntent(CreateCartPaymentIntentDTO dto) {
+        BookingCart cart = bookingCartRepository.findById(dto.getCartId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cart not found"));
+        List<Booking> bookings = bookingRepository.findAllByCartIdOrderByItemIdAsc(cart.getId());
+        if (bookings.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cart not found");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Booking booking : bookings) {
+            if (booking.getStatus() != BookingStatus.PENDING) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Cannot process payment for a cart with non-pending bookings");
+            }
+            if (!booking.occupiesAt(now)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking hold has expired");
+            }
+        }
+
+        String currency = dto.getCurrency() != null ? dto.getCurrency() : "eur";
+        Booking lead = bookings.get(0);
+        try {
+            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                    .setAmount(cart.getTotalCents())
+                    .setCurrency(currency)
+                    .setAutomaticPaymentMethods(
+                            PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                    .setEnabled(true)
+                                    .build())
+                    .putMetadata("booking_id", lead.getId().toString())
+                    .putMetadata("cart_id", cart.getId().toString())
+                    .build();
+
+            PaymentIntent paymentIntent = PaymentIntent.create(params);
+
+            Payment payment = new Payment();
+            payment.setBooking(lead);
+            payment.setStripePaymentIntentId(paymentIntent.getId());
+            payment.setAmount(cart.getTotalCents());
+            payment.setCurrency(currency);
+            payment.setStatus(PaymentStatus.PENDING);
+            paymentRepository.save(payment);
+            dashboardCounters.paymentAdded(PaymentStatus.PENDING);
+
+            log.info("Created PaymentIntent {} for cart {} ({} bookings)", paymentIntent.getId(), cart.getId(),
+                    bookings.size());
+
+            return new PaymentIntentResponseDTO(
+                    paymentIntent.getClientSecret(),
+                    paymentIntent.getId(),
+                    cart.getTotalCents(),
+                    currency,
+                    paymentIntent.getStatus());
+
+        } catch (StripeException e) {
+            log.error("Stripe error creating PaymentIntent: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Payment processing error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Confirms a payment and updates booking status; a cart payment confirms every booking in the cart.
+     * When a paid booking can no longer be confirmed the payment is kept and refunded instead,
+     * without failing the request.
      */
     public PaymentIntentResponseDTO confirmPayment(ConfirmPaymentDTO dto) {
         // Find payment record
@@ -96,29 +199,49 @@ public class PaymentService {
             log.info("PaymentIntent {} status: {}", dto.getPaymentIntentId(), status);
 
             if ("succeeded".equals(status)) {
-                // Update payment status
+                // Already handled by an earlier confirm; the bookings are left as they are
+                if (payment.getStatus() == PaymentStatus.SUCCEEDED || payment.getStatus() == PaymentStatus.REFUNDED) {
+                    return toResponse(paymentIntent, payment, status);
+                }
+
+                // The money is taken whatever happens to the bookings
+                dashboardCounters.paymentMoved(payment.getStatus(), PaymentStatus.SUCCEEDED);
                 payment.setStatus(PaymentStatus.SUCCEEDED);
-                paymentRepository.save(payment);
 
-                // Update booking status to CONFIRMED
+                // Update booking status to CONFIRMED (in item id order for carts, like the locks)
                 Booking booking = payment.getBooking();
-                booking.setStatus(BookingStatus.CONFIRMED);
-                bookingRepository.save(booking);
+                List<Booking> paid = booking.getCart() == null ? List.of(booking)
+                        : bookingRepository.findAllByCartIdOrderByItemIdAsc(booking.getCart().getId());
+                if (!paid.stream().allMatch(this::canConfirm) || !claim(paid)) {
+                    // One charge covers the whole cart, so it is confirmed whole or refunded whole
+                    paid.forEach(this::releaseHold);
+                    status = refund(payment);
+                    paymentRepository.save(payment);
+                    return toResponse(paymentIntent, payment, status);
+                }
+                paymentRepository.save(payment);
+
+                for (Booking each : paid) {
+                    // One the owner already confirmed keeps its state and the payment
+                    if (each.getStatus() != BookingStatus.PENDING)
+                        continue;
+                    dashboardCounters.bookingsMoved(BookingStatus.PENDING, BookingStatus.CONFIRMED, 1,
+                            BookingService.priceCentsOf(each));
+                    each.setStatus(BookingStatus.CONFIRMED);
+                    occupancy.bookingChanged(each);
+                    availabilityVersions.bump(each.getItem().getId());
+                }
 
                 log.info("Payment {} succeeded, booking {} confirmed", dto.getPaymentIntentId(), booking.getId());
             } else if ("requires_payment_method".equals(status) || "canceled".equals(status)) {
+                dashboardCounters.paymentMoved(payment.getStatus(), PaymentStatus.FAILED);
                 payment.setStatus(PaymentStatus.FAILED);
                 paymentRepository.save(payment);
 
                 throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment failed or was cancelled");
             }
 
-            return new PaymentIntentResponseDTO(
-                    paymentIntent.getClientSecret(),
-                    paymentIntent.getId(),
-                    payment.getAmount(),
-                    payment.getCurrency(),
-                    status);
+            return toResponse(paymentIntent, payment, status);
 
         } catch (StripeException e) {
             log.error("Stripe error confirming payment: {}", e.getMessage());
@@ -126,22 +249,107 @@ public class PaymentService {
         }
     }
 
+    private static PaymentIntentResponseDTO toResponse(PaymentIntent paymentIntent, Payment payment, String status) {
+        return new PaymentIntentResponseDTO(
+                paymentIntent.getClientSecret(),
+                paymentIntent.getId(),
+                payment.getAmount(),
+                payment.getCurrency(),
+                status);
+    }
+
     /**
-     * Calculate total price for a booking based on item daily rate and duration
+     * A paid booking the owner already confirmed, or that has started since, keeps the payment.
+     * One the owner cancelled or the reaper expired stays cancelled. A live hold owns its dates;
+     * once it lapsed, the dates must still be free, checked with the item row locked like
+     * BookingService does.
      */
-    public Long calculateBookingAmount(Booking booking) {
-        if (booking.getItem().getPrice() == null) {
-            return 0L;
+    private boolean canConfirm(Booking booking) {
+        BookingStatus status = booking.getStatus();
+        if (status == BookingStatus.CONFIRMED || status == BookingStatus.ACTIVE || status == BookingStatus.COMPLETED)
+            return true;
+        if (status != BookingStatus.PENDING) {
+            log.warn("Booking {} was paid while {}; it will not be confirmed", booking.getId(), status);
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (booking.occupiesAt(now))
+            return true;
+
+        Long itemId = booking.getItem().getId();
+        itemRepository.findByIdForUpdate(itemId);
+        if (bookingRepository.existsOverlappingBooking(itemId, booking.getStartDate(), booking.getEndDate(), now)) {
+            log.warn("Hold on booking {} expired and its dates were taken before payment completed", booking.getId());
+            return false;
         }
+        return true;
+    }
+
+    /**
+     * Confirms the PENDING bookings in the database, each only if it is still PENDING there:
+     * the reaper may have expired a hold after it was read, and that cancellation stands.
+     *
+     * @return false when one of them was no longer PENDING
+     */
+    private boolean claim(List<Booking> paid) {
+        for (Booking each : paid) {
+            if (each.getStatus() == BookingStatus.PENDING
+                    && bookingRepository.updateStatusIfPending(each.getId(), BookingStatus.CONFIRMED) == 0) {
+                log.warn("Hold on booking {} was expired while its payment was being confirmed", each.getId());
+                // The reaper has already counted it and given its dates back
+                each.setStatus(BookingStatus.CANCELLED);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Bookings of a refunded payment give their dates back, including a cart booking the owner
+    // had already confirmed: the money behind it is returned too
+    private void releaseHold(Booking booking) {
+        if (booking.getStatus() != BookingStatus.PENDING && booking.getStatus() != BookingStatus.CONFIRMED)
+            return;
+        dashboardCounters.bookingsMoved(booking.getStatus(), BookingStatus.CANCELLED, 1,
+                BookingService.priceCentsOf(booking));
+        booking.setStatus(BookingStatus.CANCELLED);
+        bookingRepository.save(booking);
+        occupancy.bookingChanged(booking);
+        availabilityVersions.bump(booking.getItem().getId());
+    }
 
-        long days = java.time.temporal.ChronoUnit.DAYS.between(
-                booking.getStartDate(),
-                booking.getEndDate());
+    /**
+     * Refunds a payment whose bookings could not be confirmed. The idempotency key makes a
+     * repeated attempt return the first refund instead of refunding twice. If Stripe refuses,
+     * the payment stays SUCCEEDED with refundDue set, for a refund by hand.
+     *
+     * @return "refunded" or "refund_pending", returned to the client instead of Stripe's status
+     */
+    private String refund(Payment payment) {
+        String paymentIntentId = payment.getStripePaymentIntentId();
+        try {
+            Refund.create(RefundCreateParams.builder().setPaymentIntent(paymentIntentId).build(),
+                    RequestOptions.builder().setIdempotencyKey("refund-" + paymentIntentId).build());
+            dashboardCounters.paymentMoved(PaymentStatus.SUCCEEDED, PaymentStatus.REFUNDED);
+            payment.setStatus(PaymentStatus.REFUNDED);
+            payment.setRefundDue(false);
+            log.info("Payment {} refunded, its bookings could not be confirmed", paymentIntentId);
+            return "refunded";
+        } catch (StripeException e) {
+            payment.setRefundDue(true);
+            log.error("Payment {} must be refunded by hand, Stripe refund failed: {}", paymentIntentId,
+                    e.getMessage());
+            return "refund_pending";
+        }
+    }
 
-        if (days < 1)
-            days = 1; // Minimum 1 day
+    /**
+     * Amount to charge for a booking, in cents: the price fixed when it was created.
+     * Bookings made before prices were stored fall back to the item's current daily rate.
+     */
+    public Long calculateBookingAmount(Booking booking) {
+        if (booking.getPriceCents() != null)
+            return booking.getPriceCents();
 
-        // Convert price to cents and multiply by days
-        return Math.round(booking.getItem().getPrice() * 100 * days);
+        return Booking.priceCents(booking.getItem(), booking.getStartDate(), booking.getEndDate());
     }
 }
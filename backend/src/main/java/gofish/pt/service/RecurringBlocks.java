@@ -0,0 +1,104 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import gofish.pt.entity.BlockedDateRule;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expands {@link BlockedDateRule}s over a window of days. The window is a bitmap with one
+ * bit per day from its first day; weekdays are found by stepping seven bits at a time
+ * and seasons by clipping one interval per year, so no date is created per day.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class RecurringBlocks {
+
+    static final int ALL_WEEKDAYS = 0x7F;
+
+    static int weekdayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    static int mmdd(MonthDay day) {
+        return day.getMonthValue() * 100 + day.getDayOfMonth();
+    }
+
+    static MonthDay monthDay(int mmdd) {
+        return MonthDay.of(mmdd / 100, mmdd % 100);
+    }
+
+    /**
+     * Sets the bit of every day in [origin, origin + length) that the rule blocks.
+     */
+    static void mark(BitSet days, LocalDate origin, int length, BlockedDateRule rule) {
+        int firstWeekday = origin.getDayOfWeek().getValue() - 1;
+        if (rule.getSeasonStart() == null) {
+            markWeekdays(days, 0, length - 1, firstWeekday, rule.getWeekdays());
+            return;
+        }
+
+        MonthDay start = monthDay(rule.getSeasonStart());
+        MonthDay end = monthDay(rule.getSeasonEnd());
+        boolean wraps = end.isBefore(start);
+        LocalDate last = origin.plusDays(length - 1L);
+        // A season that wraps and ends inside the window started the year before
+        for (int year = origin.getYear() - (wraps ? 1 : 0); year <= last.getYear(); year++) {
+            // atYear moves 29 February to the 28th in common years
+            long from = Math.max(0, ChronoUnit.DAYS.between(origin, start.atYear(year)));
+            long to = Math.min(length - 1L, ChronoUnit.DAYS.between(origin, end.atYear(wraps ? year + 1 : year)));
+            if (from <= to)
+                markWeekdays(days, (int) from, (int) to, firstWeekday, rule.getWeekdays());
+        }
+    }
+
+    // Sets bits [from, to] that fall on one of the weekdays; firstWeekday is the weekday of bit 0
+    private static void markWeekdays(BitSet days, int from, int to, int firstWeekday, int weekdays) {
+        if ((weekdays & ALL_WEEKDAYS) == ALL_WEEKDAYS) {
+            days.set(from, to + 1);
+            return;
+        }
+        int weekdayOfFrom = (firstWeekday + from) % 7;
+        for (int weekday = 0; weekday < 7; weekday++) {
+            if ((weekdays & (1 << weekday)) == 0)
+                continue;
+            for (int i = from + (weekday - weekdayOfFrom + 7) % 7; i <= to; i += 7)
+                days.set(i);
+        }
+    }
+
+    /**
+     * Days of [from, to] blocked by any of the rules, as ascending disjoint ranges.
+     */
+    static List<DateRange> ranges(Collection<BlockedDateRule> rules, LocalDate from, LocalDate to) {
+        if (rules.isEmpty())
+            return List.of();
+        int length = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BitSet days = new BitSet(length);
+        for (BlockedDateRule rule : rules)
+            mark(days, from, length, rule);
+
+        List<DateRange> ranges = new ArrayList<>();
+        for (int i = days.nextSetBit(0); i >= 0; ) {
+            int next = days.nextClearBit(i);
+            ranges.add(new DateRange(from.plusDays(i), from.plusDays(next - 1L)));
+            i = days.nextSetBit(next);
+        }
+        return ranges;
+    }
+
+    /**
+     * Whether any of the rules blocks a day of [from, to].
+     */
+    static boolean blocksAny(Collection<BlockedDateRule> rules, LocalDate from, LocalDate to) {
+        return !ranges(rules, from, to).isEmpty();
+    }
+}
@@ -0,0 +1,31 @@
+package gofish.pt.service;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects (caches, indexes, counters) until the surrounding
+ * transaction commits, so a rollback never leaves them ahead of the database.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class TransactionCallbacks {
+
+    /**
+     * Runs the action after commit, or immediately when no transaction is active.
+     */
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
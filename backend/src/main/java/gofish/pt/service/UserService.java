@@ -10,6 +10,7 @@ import gofish.pt.entity.UserRole;
 import gofish.pt.entity.UserStatus;
 import gofish.pt.exception.DuplicateEmailException;
 import gofish.pt.exception.InvalidCredentialsException;
+import gofish.pt.repository.BookingRepository;
 import gofish.pt.repository.UserRepository;
 import gofish.pt.repository.UserRoleRepository;
 import gofish.pt.repository.UserStatusRepository;
@@ -45,6 +46,8 @@ public class UserService {
     private final UserStatusRepository userStatusRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final BookingRepository bookingRepository;
+    private final DashboardCounters dashboardCounters;
 
     @Transactional
     public User registerUser(UserRegistrationDTO registrationDTO) {
@@ -70,6 +73,7 @@ public class UserService {
         // Create default status (ACTIVE)
         UserStatus status = new UserStatus(savedUser.getId(), UserStatus.STATUS_ACTIVE);
         userStatusRepository.save(status);
+        dashboardCounters.userAdded();
 
         return savedUser;
     }
@@ -121,12 +125,11 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public List<Booking> getUserOwnedBookings(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+        if (!userRepository.existsById(userId))
+            throw new IllegalArgumentException("User not found with id: " + userId);
 
-        return user.getItems().stream()
-                .flatMap(item -> item.getBookings().stream())
-                .toList();
+        // One query for the bookings with their item and renter, instead of walking user.items lazily
+        return bookingRepository.findAllByItemOwnerId(userId);
     }
 
     @Transactional(readOnly = true)
@@ -13,6 +13,7 @@ import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -137,7 +138,7 @@ public class AdminSteps {
 
     @When("the admin requests all users")
     public void the_admin_requests_all_users() {
-        userList = adminService.getAllUsers();
+        userList = adminService.getUsers(null, null, PageRequest.of(0, 100)).getContent();
     }
 
     @Then("the user list should contain user {string}")
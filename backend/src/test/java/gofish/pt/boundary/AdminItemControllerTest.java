@@ -1,5 +1,7 @@
 package gofish.pt.boundary;
 
+import gofish.pt.dto.BulkModerationResultDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.entity.Item;
 import gofish.pt.entity.User;
 import gofish.pt.service.AdminService;
@@ -9,12 +11,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,12 +54,13 @@ class AdminItemControllerTest {
     @Test
     @DisplayName("GET /api/admin/items - Should return all items")
     void getAllItems_returnsItems() throws Exception {
-        when(adminService.getAllItems()).thenReturn(List.of(testItem));
+        when(adminService.getAllItems()).thenReturn(List.of(ItemSummaryDTO.of(testItem, null, 0)));
 
         mockMvc.perform(get("/api/admin/items"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("Fishing Rod"));
+                .andExpect(jsonPath("$[0].name").value("Fishing Rod"))
+                .andExpect(jsonPath("$[0].owner.username").value("itemowner"));
 
         verify(adminService).getAllItems();
     }
@@ -71,4 +77,34 @@ class AdminItemControllerTest {
 
         verify(adminService).getAllItems();
     }
+
+    @Test
+    @DisplayName("POST /api/admin/items/bulk/deactivate - Should return an outcome per id")
+    void deactivateItems_returnsOutcomes() throws Exception {
+        when(adminService.deactivateItems(List.of(1L, 2L), "Spam", 7L)).thenReturn(new BulkModerationResultDTO(1,
+                List.of(new BulkModerationResultDTO.Entry(1L, BulkModerationResultDTO.Outcome.UPDATED),
+                        new BulkModerationResultDTO.Entry(2L, BulkModerationResultDTO.Outcome.NOT_FOUND))));
+
+        mockMvc.perform(post("/api/admin/items/bulk/deactivate")
+                        .principal(new UsernamePasswordAuthenticationToken(7L, null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2],\"reason\":\"Spam\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$.results[1].id").value(2))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("POST /api/admin/items/bulk/reactivate - Should reject an empty id list")
+    void reactivateItems_rejectsEmptyIds() throws Exception {
+        mockMvc.perform(post("/api/admin/items/bulk/reactivate")
+                        .principal(new UsernamePasswordAuthenticationToken(7L, null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(adminService, never()).reactivateItems(any(), any());
+    }
 }
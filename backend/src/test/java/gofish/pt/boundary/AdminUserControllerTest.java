@@ -1,6 +1,7 @@
 package gofish.pt.boundary;
 
 import gofish.pt.dto.AdminUserDTO;
+import gofish.pt.dto.BulkModerationResultDTO;
 import gofish.pt.service.AdminService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,12 +9,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,29 +47,68 @@ class AdminUserControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/admin/users - Should return all users")
-    void getAllUsers_returnsUsers() throws Exception {
-        when(adminService.getAllUsers()).thenReturn(List.of(testUserDTO));
+    @DisplayName("GET /api/admin/users - Should return a page of users")
+    void getUsers_returnsPage() throws Exception {
+        when(adminService.getUsers(isNull(), eq("SUSPENDED"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(testUserDTO), PageRequest.of(1, 10), 11));
 
-        mockMvc.perform(get("/api/admin/users"))
+        mockMvc.perform(get("/api/admin/users")
+                        .param("status", "SUSPENDED")
+                        .param("page", "1")
+                        .param("size", "10")
+                        .param("sort", "itemCount,desc"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(10))
-                .andExpect(jsonPath("$[0].username").value("testuser"))
-                .andExpect(jsonPath("$[0].email").value("test@example.com"));
+                .andExpect(jsonPath("$.content[0].id").value(10))
+                .andExpect(jsonPath("$.content[0].username").value("testuser"))
+                .andExpect(jsonPath("$.content[0].itemCount").value(5))
+                .andExpect(jsonPath("$.totalElements").value(11));
 
-        verify(adminService).getAllUsers();
+        verify(adminService).getUsers(isNull(), eq("SUSPENDED"),
+                argThat(p -> p.getPageNumber() == 1 && p.getPageSize() == 10
+                        && p.getSort().getOrderFor("itemCount").isDescending()));
     }
 
     @Test
-    @DisplayName("GET /api/admin/users - Should return empty list when no users")
-    void getAllUsers_returnsEmptyList() throws Exception {
-        when(adminService.getAllUsers()).thenReturn(List.of());
+    @DisplayName("GET /api/admin/users - Should default to the first 20 users by id")
+    void getUsers_defaultsPage() throws Exception {
+        when(adminService.getUsers(isNull(), isNull(), any(Pageable.class))).thenReturn(Page.empty());
 
         mockMvc.perform(get("/api/admin/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content").isEmpty());
+
+        verify(adminService).getUsers(isNull(), isNull(),
+                argThat(p -> p.getPageSize() == 20 && p.getSort().getOrderFor("id") != null));
+    }
+
+    @Test
+    @DisplayName("POST /api/admin/users/bulk/suspend - Should default the reason and report admins as forbidden")
+    void suspendUsers_returnsOutcomes() throws Exception {
+        when(adminService.suspendUsers(List.of(1L, 10L), 7L, "Suspended by admin")).thenReturn(
+                new BulkModerationResultDTO(1, List.of(
+                        new BulkModerationResultDTO.Entry(1L, BulkModerationResultDTO.Outcome.FORBIDDEN),
+                        new BulkModerationResultDTO.Entry(10L, BulkModerationResultDTO.Outcome.UPDATED))));
+
+        mockMvc.perform(post("/api/admin/users/bulk/suspend")
+                        .principal(new UsernamePasswordAuthenticationToken(7L, null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,10]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[0].outcome").value("FORBIDDEN"))
+                .andExpect(jsonPath("$.results[1].outcome").value("UPDATED"));
+    }
+
+    @Test
+    @DisplayName("POST /api/admin/users/bulk/delete - Should reject a null id")
+    void deleteUsers_rejectsNullId() throws Exception {
+        mockMvc.perform(post("/api/admin/users/bulk/delete")
+                        .principal(new UsernamePasswordAuthenticationToken(7L, null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[10,null]}"))
+                .andExpect(status().isBadRequest());
 
-        verify(adminService).getAllUsers();
+        verifyNoInteractions(adminService);
     }
 }
@@ -3,15 +3,21 @@ package gofish.pt.boundary;
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import gofish.pt.dto.AvailabilityCalendarDTO;
 import gofish.pt.dto.BookingRequestDTO;
 import gofish.pt.dto.BookingResponseDTO;
 import gofish.pt.dto.BookingStatusDTO;
+import gofish.pt.dto.CartBookingRequestDTO;
+import gofish.pt.dto.CursorPageDTO;
 import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingCart;
 import gofish.pt.entity.BookingStatus;
 import gofish.pt.entity.Item;
 import gofish.pt.entity.User;
 import gofish.pt.mapper.BookingMapper;
+import gofish.pt.repository.BookingRepository.OwnerBookingRow;
 import gofish.pt.security.TestSecurityContextHelper;
+import gofish.pt.service.AvailabilityVersions;
 import gofish.pt.service.BookingService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,6 +59,9 @@ class BookingControllerTest {
     @MockitoBean
     private BookingMapper bookingMapper;
 
+    @MockitoBean
+    private AvailabilityVersions availabilityVersions;
+
     private Booking testBooking;
     private BookingResponseDTO testResponseDTO;
     private User testUser;
@@ -94,6 +103,8 @@ class BookingControllerTest {
         testResponseDTO.setItemId(1L);
         testResponseDTO.setItemName("Test Item");
         testResponseDTO.setPrice(50.0);
+
+        when(availabilityVersions.etag(any())).thenReturn("\"v1\"");
     }
 
     @AfterEach
@@ -127,6 +138,71 @@ class BookingControllerTest {
         verify(bookingMapper).toDTO(testBooking);
     }
 
+    @Test
+    @DisplayName("POST /api/bookings/cart - Should book every item and return the cart with its total")
+    void createCartBooking_withValidRequest_returnsCreated() throws Exception {
+        TestSecurityContextHelper.setAuthenticatedUser(1L);
+
+        BookingCart cart = new BookingCart();
+        cart.setId(7L);
+        cart.setStartDate(startDate);
+        cart.setEndDate(endDate);
+        cart.setTotalCents(12550L);
+        testBooking.setCart(cart);
+
+        CartBookingRequestDTO request = new CartBookingRequestDTO();
+        request.setItemIds(List.of(2L, 1L));
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+
+        when(bookingService.createCartBooking(eq(1L), eq(List.of(2L, 1L)), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(testBooking));
+        when(bookingMapper.toDTO(testBooking)).thenReturn(testResponseDTO);
+
+        mockMvc.perform(post("/api/bookings/cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.cartId").value(7))
+                .andExpect(jsonPath("$.totalPrice").value(125.5))
+                .andExpect(jsonPath("$.bookings", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("POST /api/bookings/cart - Should return 409 when any item is taken")
+    void createCartBooking_whenItemTaken_returnsConflict() throws Exception {
+        TestSecurityContextHelper.setAuthenticatedUser(1L);
+
+        CartBookingRequestDTO request = new CartBookingRequestDTO();
+        request.setItemIds(List.of(1L, 2L));
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+
+        when(bookingService.createCartBooking(eq(1L), any(), any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new IllegalStateException("Itens não disponíveis nas datas selecionadas: [2]"));
+
+        mockMvc.perform(post("/api/bookings/cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("POST /api/bookings/cart - Should return 400 for an empty cart")
+    void createCartBooking_withNoItems_returnsBadRequest() throws Exception {
+        CartBookingRequestDTO request = new CartBookingRequestDTO();
+        request.setItemIds(List.of());
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+
+        mockMvc.perform(post("/api/bookings/cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     @DisplayName("GET /api/bookings/{id} - Should return booking when found")
     @Requirement("GF-95")
@@ -195,6 +271,50 @@ class BookingControllerTest {
         verify(bookingService).getBookingsByItemAndMonth(1L, 2024, 12);
     }
 
+    @Test
+    @DisplayName("GET /api/bookings/item/{itemId}/month - Should tag the response with the availability version")
+    void getBookingsByMonth_returnsETag() throws Exception {
+        when(bookingService.getBookingsByItemAndMonth(1L, 2024, 12)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/bookings/item/{itemId}/month", 1)
+                .param("year", "2024")
+                .param("month", "12"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""));
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/item/{itemId}/month - Should answer 304 without querying when the tag matches")
+    void getBookingsByMonth_whenTagMatches_returnsNotModified() throws Exception {
+        mockMvc.perform(get("/api/bookings/item/{itemId}/month", 1)
+                .param("year", "2024")
+                .param("month", "12")
+                .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(bookingService, bookingMapper);
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/item/{itemId}/month?format=runs - Should return the compact calendar")
+    void getBookingsByMonth_runsFormat_returnsCalendar() throws Exception {
+        LocalDate start = LocalDate.of(2024, 12, 1);
+        when(bookingService.getUnavailabilityCalendar(1L, start, LocalDate.of(2024, 12, 31)))
+                .thenReturn(new AvailabilityCalendarDTO(start, 31, new int[] { 4, 3, 24 }));
+
+        mockMvc.perform(get("/api/bookings/item/{itemId}/month", 1)
+                .param("year", "2024")
+                .param("month", "12")
+                .param("format", "runs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.start").value("2024-12-01"))
+                .andExpect(jsonPath("$.days").value(31))
+                .andExpect(jsonPath("$.runs", hasSize(3)));
+
+        verify(bookingService, never()).getBookingsByItemAndMonth(anyLong(), anyInt(), anyInt());
+    }
+
     @Test
     @DisplayName("GET /api/bookings/item/{itemId}/week - Should return bookings for week")
     @Requirement("GF-49")
@@ -245,6 +365,27 @@ class BookingControllerTest {
         verify(bookingService).getBookingsByItemOwnerId(1L);
     }
 
+    @Test
+    @DisplayName("GET /api/bookings/my-items/page - Should return one page of the owner's inbox")
+    @Requirement("GF-50")
+    void getBookingsOnMyItemsPage_returnsPageWithCursor() throws Exception {
+        TestSecurityContextHelper.setAuthenticatedUser(1L);
+        OwnerBookingRow row = mock(OwnerBookingRow.class);
+
+        when(bookingService.getOwnerInbox(1L, BookingStatus.PENDING, 1, null))
+                .thenReturn(new CursorPageDTO<>(List.of(row), "next", true));
+        when(bookingMapper.toInboxDTO(row)).thenReturn(testResponseDTO);
+
+        mockMvc.perform(get("/api/bookings/my-items/page")
+                        .param("status", "PENDING")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].itemName").value("Test Item"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
     @Test
     @DisplayName("GET /api/bookings/my - Should return user's bookings")
     @Requirement("GF-51")
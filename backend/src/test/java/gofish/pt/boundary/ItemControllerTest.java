@@ -3,12 +3,16 @@ package gofish.pt.boundary;
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import gofish.pt.dto.ItemDTO;
+import gofish.pt.dto.ItemFacetsDTO;
 import gofish.pt.dto.ItemFilter;
+import gofish.pt.dto.ItemPageDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.entity.Category;
 import gofish.pt.entity.Item;
 import gofish.pt.entity.Material;
 import gofish.pt.entity.User;
 import gofish.pt.repository.UserRepository; // Importar Repositório
+import gofish.pt.service.AvailabilityVersions;
 import gofish.pt.service.BookingService;
 import gofish.pt.service.ItemService;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +26,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.hamcrest.Matchers.*;
@@ -54,6 +59,9 @@ class ItemControllerTest {
     @MockitoBean 
     private UserRepository userRepository;
 
+    @MockitoBean
+    private AvailabilityVersions availabilityVersions;
+
     private Item testItem;
     private ItemDTO testDto;
     private User testOwner;
@@ -89,7 +97,8 @@ class ItemControllerTest {
     @Requirement("GF-44")
     void getItems_withFilter_returnsFilteredItems() throws Exception {
         ItemFilter filter = new ItemFilter("rod", null, null, null, null, null, null);
-        when(itemService.findAll(any(ItemFilter.class))).thenReturn(List.of(testItem));
+        when(itemService.findSummaries(any(ItemFilter.class)))
+                .thenReturn(List.of(ItemSummaryDTO.of(testItem, 4.5, 2)));
 
         mockMvc.perform(post("/api/items/filter")
                 .with(user("user"))
@@ -98,16 +107,19 @@ class ItemControllerTest {
                 .content(objectMapper.writeValueAsString(filter)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name").value("Test Rod"));
+                .andExpect(jsonPath("$[0].name").value("Test Rod"))
+                .andExpect(jsonPath("$[0].owner.username").value("testuser"))
+                .andExpect(jsonPath("$[0].owner.email").doesNotExist())
+                .andExpect(jsonPath("$[0].averageRating").value(4.5));
 
-        verify(itemService).findAll(any(ItemFilter.class));
+        verify(itemService).findSummaries(any(ItemFilter.class));
     }
 
     @Test
     @DisplayName("POST /api/items/filter - Should return all items when filter is null")
     @Requirement("GF-42")
     void getItems_withNullFilter_returnsAllItems() throws Exception {
-        when(itemService.findAll((ItemFilter) null)).thenReturn(List.of(testItem));
+        when(itemService.findSummaries(null)).thenReturn(List.of(ItemSummaryDTO.of(testItem, null, 0)));
 
         mockMvc.perform(post("/api/items/filter")
                 .with(user("user"))
@@ -115,7 +127,42 @@ class ItemControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        verify(itemService).findAll((ItemFilter) null);
+        verify(itemService).findSummaries(null);
+    }
+
+    @Test
+    @DisplayName("POST /api/items/filter/page - Should return a page with the next cursor")
+    void getItemPage_returnsPageWithCursor() throws Exception {
+        when(itemService.findPage(any(), eq(1), eq("abc"), eq(false)))
+                .thenReturn(new ItemPageDTO(List.of(ItemSummaryDTO.of(testItem, null, 0)), "next", true, null));
+
+        mockMvc.perform(post("/api/items/filter/page")
+                .param("size", "1")
+                .param("cursor", "abc")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].reviewCount").value(0))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.facets").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("POST /api/items/filter/page?facets=true - Should include facet counts")
+    void getItemPage_withFacets_returnsCounts() throws Exception {
+        ItemFacetsDTO facets = new ItemFacetsDTO();
+        facets.add(Category.RODS, Material.GRAPHITE, 25.99, 1);
+        when(itemService.findPage(any(), eq(20), any(), eq(true)))
+                .thenReturn(new ItemPageDTO(List.of(ItemSummaryDTO.of(testItem, null, 0)), null, false, facets));
+
+        mockMvc.perform(post("/api/items/filter/page")
+                .param("facets", "true")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets.total").value(1))
+                .andExpect(jsonPath("$.facets.categories.RODS").value(1))
+                .andExpect(jsonPath("$.facets.priceRanges['25-50']").value(1));
     }
 
     @Test
@@ -211,4 +258,35 @@ class ItemControllerTest {
 
         verify(itemService).getMaterials();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /api/items/{id}/unavailability - Should answer 304 without querying when the tag matches")
+    void checkAvailability_whenTagMatches_returnsNotModified() throws Exception {
+        when(availabilityVersions.etag(1L)).thenReturn("\"v1\"");
+
+        mockMvc.perform(get("/api/items/{id}/unavailability", 1)
+                .param("from", "2025-06-01")
+                .param("to", "2025-06-30")
+                .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""));
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @DisplayName("GET /api/items/{id}/unavailability - Should return the dates with a fresh tag when it changed")
+    void checkAvailability_whenTagIsStale_returnsDates() throws Exception {
+        when(availabilityVersions.etag(1L)).thenReturn("\"v2\"");
+        when(bookingService.getUnavailableDates(1L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)))
+                .thenReturn(List.of(LocalDate.of(2025, 6, 3)));
+
+        mockMvc.perform(get("/api/items/{id}/unavailability", 1)
+                .param("from", "2025-06-01")
+                .param("to", "2025-06-30")
+                .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""))
+                .andExpect(jsonPath("$[0]").value("2025-06-03"));
+    }
+}
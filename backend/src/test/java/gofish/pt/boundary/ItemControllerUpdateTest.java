@@ -9,6 +9,7 @@ import gofish.pt.entity.Material;
 import gofish.pt.entity.User;
 import gofish.pt.config.TestSecurityConfig;
 import gofish.pt.repository.UserRepository;
+import gofish.pt.service.AvailabilityVersions;
 import gofish.pt.service.BookingService;
 import gofish.pt.service.ItemService;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,6 +59,9 @@ class ItemControllerUpdateTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @MockitoBean
+    private AvailabilityVersions availabilityVersions;
+
     private Item testItem;
     private User testOwner;
 
@@ -0,0 +1,34 @@
+package gofish.pt.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTest {
+
+    @Test
+    void subCategoriesAreDirectChildren() {
+        assertThat(Category.REELS.subCategories())
+                .containsExactly(Category.REELS_SPINNING, Category.REELS_CASTING, Category.REELS_FLY,
+                        Category.REELS_SPECIALTY);
+        assertThat(Category.BAITCASTING_REELS.subCategories()).isEmpty();
+    }
+
+    @Test
+    void subtreeContainsAllDescendantsAndItself() {
+        assertThat(Category.REELS.subtree())
+                .contains(Category.REELS, Category.REELS_CASTING, Category.BAITCASTING_REELS)
+                .doesNotContain(Category.RODS, Category.CASTING_COMBOS);
+        assertThat(Category.BAITCASTING_REELS.subtree()).containsExactly(Category.BAITCASTING_REELS);
+    }
+
+    @Test
+    void everyCategoryIsInItsTopLevelSubtree() {
+        for (Category category : Category.values()) {
+            Category top = category;
+            while (!top.isTopLevel())
+                top = top.getParent();
+            assertThat(top.subtree()).contains(category);
+        }
+    }
+}
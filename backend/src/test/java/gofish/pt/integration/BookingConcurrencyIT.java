@@ -0,0 +1,238 @@
+package gofish.pt.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gofish.pt.config.TestSecurityConfig;
+import gofish.pt.dto.BookingRequestDTO;
+import gofish.pt.dto.BookingStatusDTO;
+import gofish.pt.dto.CartBookingRequestDTO;
+import gofish.pt.entity.*;
+import gofish.pt.repository.BookingCartRepository;
+import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.ItemRepository;
+import gofish.pt.repository.UserRepository;
+import gofish.pt.security.TestSecurityContextHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Stress test: thousands of parallel booking requests and owner confirmations on a few
+ * items. Not transactional, so every request commits and really competes for the item locks.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Slf4j
+class BookingConcurrencyIT {
+
+    private static final int ITEMS = 4;
+    private static final int RENTERS = 8;
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private BookingCartRepository bookingCartRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private UserRepository userRepository;
+
+    private User owner;
+    private final List<User> renters = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        bookingCartRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+
+        owner = userRepository.saveAndFlush(user("dono_frota"));
+        for (int i = 0; i < RENTERS; i++)
+            renters.add(userRepository.saveAndFlush(user("cliente_" + i)));
+
+        for (int i = 0; i < ITEMS; i++) {
+            Item kayak = new Item();
+            kayak.setName("Kayak " + i);
+            kayak.setDescription("Kayak da frota");
+            kayak.setPrice(20.0);
+            kayak.setCategory(Category.KAYAKS);
+            kayak.setMaterial(Material.ROTOMOLDED_POLYETHYLENE);
+            kayak.setOwner(owner);
+            items.add(itemRepository.saveAndFlush(kayak));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestSecurityContextHelper.clearContext();
+        bookingRepository.deleteAll();
+        bookingCartRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@gofish.pt");
+        user.setPassword("pass");
+        user.setLocation("Olhão");
+        user.setBalance(0.0);
+        return user;
+    }
+
+    @Test
+    @DisplayName("Pedidos em paralelo nunca deixam duas reservas confirmadas sobrepostas")
+    void parallelBookingsNeverDoubleBook() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tasks = new ArrayList<>();
+        long started = System.nanoTime();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            tasks.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Item item = items.get(random.nextInt(ITEMS));
+                LocalDate start = LocalDate.now().plusDays(1 + random.nextInt(60));
+
+                BookingRequestDTO request = new BookingRequestDTO();
+                request.setItemId(item.getId());
+                request.setStartDate(start);
+                request.setEndDate(start.plusDays(1 + random.nextInt(3)));
+
+                TestSecurityContextHelper.setAuthenticatedUser(renters.get(random.nextInt(RENTERS)).getId());
+                MvcResult creation = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))).andReturn();
+                if (creation.getResponse().getStatus() != 201) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+                created.incrementAndGet();
+
+                long bookingId = objectMapper.readTree(creation.getResponse().getContentAsString()).get("id").asLong();
+                BookingStatusDTO confirm = new BookingStatusDTO();
+                confirm.setStatus(BookingStatus.CONFIRMED);
+
+                TestSecurityContextHelper.setAuthenticatedUser(owner.getId());
+                int status = mockMvc.perform(patch("/api/bookings/{id}/status", bookingId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(confirm))).andReturn().getResponse().getStatus();
+                if (status == 200)
+                    confirmed.incrementAndGet();
+                else
+                    rejected.incrementAndGet();
+                return null;
+            }));
+        }
+        for (Future<?> task : tasks)
+            task.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Booking stress: {} created, {} confirmed, {} rejected in {}s ({} req/s)",
+                created.get(), confirmed.get(), rejected.get(), String.format("%.2f", seconds),
+                String.format("%.0f", (created.get() + confirmed.get() + rejected.get()) / seconds));
+
+        assertThat(created.get() + rejected.get()).isGreaterThanOrEqualTo(REQUESTS);
+        assertThat(confirmed.get()).isPositive();
+
+        assertNoOverlap(b -> b.getStatus() == BookingStatus.CONFIRMED);
+    }
+
+    @Test
+    @DisplayName("Carrinhos em paralelo com os mesmos itens por ordens diferentes não bloqueiam nem sobrepõem")
+    void parallelCartsNeverDeadlockOrDoubleBook() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS / 4; i++) {
+            tasks.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // Dois ou mais itens, pedidos por uma ordem qualquer
+                List<Long> itemIds = new ArrayList<>(items.stream().map(Item::getId).toList());
+                Collections.shuffle(itemIds, random);
+                LocalDate start = LocalDate.now().plusDays(1 + random.nextInt(30));
+
+                CartBookingRequestDTO request = new CartBookingRequestDTO();
+                request.setItemIds(itemIds.subList(0, 2 + random.nextInt(ITEMS - 1)));
+                request.setStartDate(start);
+                request.setEndDate(start.plusDays(1 + random.nextInt(3)));
+
+                TestSecurityContextHelper.setAuthenticatedUser(renters.get(random.nextInt(RENTERS)).getId());
+                int status = mockMvc.perform(post("/api/bookings/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))).andReturn().getResponse().getStatus();
+                if (status == 201)
+                    created.incrementAndGet();
+                else if (status == 409)
+                    conflicts.incrementAndGet();
+                else
+                    failures.incrementAndGet();
+                return null;
+            }));
+        }
+        for (Future<?> task : tasks)
+            task.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        // Um deadlock apareceria como erro 500 num dos pedidos
+        assertThat(failures.get()).isZero();
+        assertThat(created.get()).isPositive();
+        assertThat(created.get() + conflicts.get()).isEqualTo(REQUESTS / 4);
+
+        LocalDateTime now = LocalDateTime.now();
+        assertNoOverlap(b -> b.occupiesAt(now));
+    }
+
+    private void assertNoOverlap(Predicate<Booking> occupies) {
+        for (Item item : items) {
+            List<Booking> occupying = bookingRepository.findAllByItemId(item.getId()).stream()
+                    .filter(occupies)
+                    .toList();
+            for (int i = 0; i < occupying.size(); i++) {
+                for (int j = i + 1; j < occupying.size(); j++) {
+                    Booking a = occupying.get(i);
+                    Booking b = occupying.get(j);
+                    // Same rule as existsOverlappingBooking: check-out day may be the next check-in day
+                    boolean overlap = a.getStartDate().isBefore(b.getEndDate()) && a.getEndDate().isAfter(b.getStartDate());
+                    assertThat(overlap).as("bookings %d and %d overlap", a.getId(), b.getId()).isFalse();
+                }
+            }
+        }
+    }
+}
@@ -28,6 +28,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -166,6 +169,66 @@ class ItemControllerIT {
                 .andExpect(jsonPath("$.length()").isNotEmpty());
     }
 
+    @Test
+    @DisplayName("GET /api/items/unavailability - Deve devolver intervalos ocupados de vários items")
+    void checkAvailability_batch() throws Exception {
+        Item boat = new Item();
+        boat.setName("Barco Semirrígido");
+        boat.setDescription("Para pesca costeira");
+        boat.setPrice(80.0);
+        boat.setCategory(Category.BOATS);
+        boat.setMaterial(Material.FIBERGLASS_BOAT);
+        boat.setOwner(owner);
+        boat = itemRepository.saveAndFlush(boat);
+
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = LocalDate.now().plusDays(10);
+
+        Booking booking = new Booking();
+        booking.setItem(rod);
+        booking.setUser(nonOwner);
+        booking.setStartDate(from.plusDays(1));
+        booking.setEndDate(from.plusDays(2));
+        booking.setStatus(BookingStatus.CONFIRMED);
+        bookingRepository.saveAndFlush(booking);
+        blockedDateRepository.saveAndFlush(new BlockedDate(from.plusDays(3), to.plusDays(5), "Revisão", rod));
+
+        mockMvc.perform(get("/api/items/unavailability")
+                .param("ids", rod.getId() + "," + boat.getId())
+                .param("from", from.toString())
+                .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$." + rod.getId(), hasSize(1)))
+                .andExpect(jsonPath("$." + rod.getId() + "[0].start").value(from.plusDays(1).toString()))
+                .andExpect(jsonPath("$." + rod.getId() + "[0].end").value(to.toString()))
+                .andExpect(jsonPath("$." + boat.getId(), hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("GET /api/items/{id}/unavailability?format=runs - Deve devolver o calendário codificado por sequências")
+    void checkAvailability_runs() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = LocalDate.now().plusDays(10);
+
+        Booking booking = new Booking();
+        booking.setItem(rod);
+        booking.setUser(nonOwner);
+        booking.setStartDate(from.plusDays(1));
+        booking.setEndDate(from.plusDays(2));
+        booking.setStatus(BookingStatus.CONFIRMED);
+        bookingRepository.saveAndFlush(booking);
+        blockedDateRepository.saveAndFlush(new BlockedDate(from.plusDays(5), from.plusDays(5), "Revisão", rod));
+
+        mockMvc.perform(get("/api/items/{id}/unavailability", rod.getId())
+                .param("from", from.toString())
+                .param("to", to.toString())
+                .param("format", "runs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.start").value(from.toString()))
+                .andExpect(jsonPath("$.days").value(10))
+                .andExpect(jsonPath("$.runs", contains(1, 2, 2, 1, 4)));
+    }
+
     @Test
     @Requirement("GF-46")
     void getItemById() throws Exception {
@@ -278,6 +341,23 @@ class ItemControllerIT {
                     .andExpect(status().isNoContent());
         }
 
+        @Test
+        @WithMockUser(username = "ze_pescador")
+        @DisplayName("DELETE /items/{itemId}/blocked-dates - Should split the period around the freed days")
+        void unblockDates_splitsPeriod() throws Exception {
+            LocalDate start = LocalDate.now().plusDays(20);
+            blockedDateRepository.saveAndFlush(new BlockedDate(start, start.plusDays(6), "test", rod));
+
+            mockMvc.perform(delete("/api/items/{itemId}/blocked-dates", rod.getId())
+                            .param("startDate", start.plusDays(2).toString())
+                            .param("endDate", start.plusDays(3).toString()))
+                    .andExpect(status().isNoContent());
+
+            assertThat(blockedDateRepository.findAllByItemIdOrderByStartDateAsc(rod.getId()))
+                    .extracting(BlockedDate::getStartDate, BlockedDate::getEndDate)
+                    .containsExactly(tuple(start, start.plusDays(1)), tuple(start.plusDays(4), start.plusDays(6)));
+        }
+
         @Test
         @WithMockUser(username = "ze_pescador")
         @DisplayName("DELETE /items/blocked-dates/{blockedDateId} - Should return 403 when user is not owner")
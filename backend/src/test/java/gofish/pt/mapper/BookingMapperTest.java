@@ -118,6 +118,21 @@ class BookingMapperTest {
         assertThat(dto.getItemPhotoUrl()).isNull();
     }
 
+    @Test
+    @DisplayName("Deve usar o preço guardado na reserva em vez do preço atual do item")
+    void shouldUseStoredPrice_WhenPresent() {
+        Item item = new Item();
+        item.setPrice(100.0); // O dono entretanto subiu o preço
+
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setStartDate(LocalDate.of(2025, 1, 1));
+        booking.setEndDate(LocalDate.of(2025, 1, 3));
+        booking.setPriceCents(5099L);
+
+        assertThat(mapper.calculatePrice(booking)).isEqualTo(50.99);
+    }
+
     @Test
     @DisplayName("Deve devolver preço 0 se faltarem dados")
     void shouldReturnZeroPrice_WhenMissingData() {
@@ -2,14 +2,23 @@ package gofish.pt.repository;
 
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
 import gofish.pt.entity.*; // Importa as tuas entidades todas
+import gofish.pt.repository.BookingRepository.OwnerBookingRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,8 +34,16 @@ class BookingRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BookingCartRepository bookingCartRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Item fishingRod;
     private User zePescador;
+    // A coluna guarda microssegundos; com nanossegundos a fronteira da retenção arredondava
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 
     @BeforeEach
     void setup() {
@@ -61,7 +78,8 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 10),
-                LocalDate.of(2025, 1, 12)
+                LocalDate.of(2025, 1, 12),
+                now
         );
 
         // Assert
@@ -79,7 +97,8 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 12),
-                LocalDate.of(2025, 1, 15)
+                LocalDate.of(2025, 1, 15),
+                now
         );
 
         // Assert
@@ -97,7 +116,8 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 10),
-                LocalDate.of(2025, 1, 12)
+                LocalDate.of(2025, 1, 12),
+                now
         );
 
         // Assert
@@ -115,7 +135,8 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 10),
-                LocalDate.of(2025, 1, 15)
+                LocalDate.of(2025, 1, 15),
+                now
         );
 
         // Assert
@@ -140,7 +161,8 @@ class BookingRepositoryTest {
         List<Booking> found = bookingRepository.findBookingsInRange(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 1),
-                LocalDate.of(2025, 1, 31)
+                LocalDate.of(2025, 1, 31),
+                now
         );
 
         // Assert
@@ -161,16 +183,10 @@ class BookingRepositoryTest {
         b.setStartDate(start);
         b.setEndDate(end);
         b.setStatus(status);
-        b.setPrice(calculatePrice(start, end, fishingRod.getPrice()));
+        b.setPriceCents(Booking.priceCents(fishingRod, start, end));
         return bookingRepository.save(b);
     }
 
-    private Double calculatePrice(LocalDate start, LocalDate end, Double price){
-        long days = java.time.temporal.ChronoUnit.DAYS.between(start, end);
-        if (days == 0) days = 1;
-        return days * price;
-    }
-
     @Test
     void shouldFindAllByUserId() {
         createBooking(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 10), BookingStatus.CONFIRMED);
@@ -198,12 +214,103 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 10),
-                LocalDate.of(2025, 1, 12)
+                LocalDate.of(2025, 1, 12),
+                now
         );
 
         assertThat(exists).isFalse();
     }
 
+    @Test
+    @DisplayName("Uma reserva pendente com retenção válida ocupa as datas")
+    void shouldFindOverlap_WhenHoldIsLive() {
+        Booking hold = createBooking(LocalDate.of(2025, 1, 10), LocalDate.of(2025, 1, 12), BookingStatus.PENDING);
+        hold.setHoldExpiresAt(now.plusMinutes(10));
+        bookingRepository.save(hold);
+
+        assertThat(bookingRepository.existsOverlappingBooking(
+                fishingRod.getId(), LocalDate.of(2025, 1, 11), LocalDate.of(2025, 1, 14), now)).isTrue();
+        assertThat(bookingRepository.findBookingsInRange(
+                fishingRod.getId(), LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), now)).hasSize(1);
+
+        // Quando a retenção expira, as datas voltam a estar livres
+        assertThat(bookingRepository.existsOverlappingBooking(
+                fishingRod.getId(), LocalDate.of(2025, 1, 11), LocalDate.of(2025, 1, 14), now.plusMinutes(10)))
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Expira as retenções vencidas por blocos, sem tocar nas outras")
+    void shouldExpireLapsedHoldsInChunks() {
+        for (int day = 1; day <= 3; day++) {
+            Booking lapsed = createBooking(LocalDate.of(2025, 2, day), LocalDate.of(2025, 2, day),
+                    BookingStatus.PENDING);
+            lapsed.setHoldExpiresAt(now.minusMinutes(day));
+            bookingRepository.save(lapsed);
+        }
+        Booking live = createBooking(LocalDate.of(2025, 2, 10), LocalDate.of(2025, 2, 11), BookingStatus.PENDING);
+        live.setHoldExpiresAt(now.plusMinutes(5));
+        bookingRepository.save(live);
+        createBooking(LocalDate.of(2025, 2, 20), LocalDate.of(2025, 2, 21), BookingStatus.PENDING);
+
+        List<BookingRepository.HoldRef> chunk = bookingRepository.findExpiredHolds(now, PageRequest.of(0, 2));
+        assertThat(chunk).hasSize(2).allMatch(ref -> ref.getItemId().equals(fishingRod.getId()));
+
+        int expired = bookingRepository.expireHolds(chunk.stream().map(BookingRepository.HoldRef::getId).toList());
+        assertThat(expired).isEqualTo(2);
+        assertThat(bookingRepository.findExpiredHolds(now, PageRequest.of(0, 2))).hasSize(1);
+
+        entityManager.clear();
+        assertThat(bookingRepository.findAllByItemId(fishingRod.getId()))
+                .extracting(Booking::getStatus)
+                .containsExactlyInAnyOrder(BookingStatus.CANCELLED, BookingStatus.CANCELLED, BookingStatus.PENDING,
+                        BookingStatus.PENDING, BookingStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Só muda o estado de uma reserva que ainda esteja pendente")
+    void shouldUpdateStatusOnlyWhilePending() {
+        Booking pending = createBooking(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 2), BookingStatus.PENDING);
+        Booking expired = createBooking(LocalDate.of(2025, 2, 5), LocalDate.of(2025, 2, 6), BookingStatus.CANCELLED);
+
+        assertThat(bookingRepository.updateStatusIfPending(pending.getId(), BookingStatus.CONFIRMED)).isEqualTo(1);
+        assertThat(bookingRepository.updateStatusIfPending(expired.getId(), BookingStatus.CONFIRMED)).isZero();
+
+        entityManager.clear();
+        assertThat(bookingRepository.findById(pending.getId())).get()
+                .extracting(Booking::getStatus).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(bookingRepository.findById(expired.getId())).get()
+                .extracting(Booking::getStatus).isEqualTo(BookingStatus.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Ativa no dia de início e conclui depois do fim, um dia de cada vez")
+    void shouldAdvanceLifecycleByDate() {
+        LocalDate today = LocalDate.of(2025, 3, 10);
+        createBooking(today.minusDays(2), today.plusDays(1), BookingStatus.CONFIRMED);
+        createBooking(today, today.plusDays(2), BookingStatus.CONFIRMED);
+        createBooking(today.plusDays(1), today.plusDays(3), BookingStatus.CONFIRMED);
+        createBooking(today.minusDays(5), today.minusDays(1), BookingStatus.ACTIVE);
+        createBooking(today.minusDays(5), today, BookingStatus.ACTIVE);
+
+        assertThat(bookingRepository.findOldestStartToActivate(today)).isEqualTo(today.minusDays(2));
+        assertThat(bookingRepository.activateStartingOn(today.minusDays(2))).isEqualTo(1);
+        assertThat(bookingRepository.findOldestStartToActivate(today)).isEqualTo(today);
+        assertThat(bookingRepository.activateStartingOn(today)).isEqualTo(1);
+        assertThat(bookingRepository.findOldestStartToActivate(today)).isNull();
+
+        // O fim de hoje ainda não passou
+        assertThat(bookingRepository.findOldestEndToComplete(today)).isEqualTo(today.minusDays(1));
+        assertThat(bookingRepository.completeEndingOn(today.minusDays(1))).isEqualTo(1);
+        assertThat(bookingRepository.findOldestEndToComplete(today)).isNull();
+
+        entityManager.clear();
+        assertThat(bookingRepository.findAllByItemId(fishingRod.getId()))
+                .extracting(Booking::getStatus)
+                .containsExactlyInAnyOrder(BookingStatus.ACTIVE, BookingStatus.ACTIVE, BookingStatus.CONFIRMED,
+                        BookingStatus.COMPLETED, BookingStatus.ACTIVE);
+    }
+
     @Test
     void shouldNotFindOverlap_WhenBookingIsCompleted() {
         createBooking(LocalDate.of(2025, 1, 10), LocalDate.of(2025, 1, 12), BookingStatus.COMPLETED);
@@ -211,7 +318,8 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 10),
-                LocalDate.of(2025, 1, 12)
+                LocalDate.of(2025, 1, 12),
+                now
         );
 
         assertThat(exists).isFalse();
@@ -224,7 +332,8 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 12),
-                LocalDate.of(2025, 1, 20)
+                LocalDate.of(2025, 1, 20),
+                now
         );
 
         assertThat(exists).isTrue();
@@ -237,9 +346,98 @@ class BookingRepositoryTest {
         boolean exists = bookingRepository.existsOverlappingBooking(
                 fishingRod.getId(),
                 LocalDate.of(2025, 1, 5),
-                LocalDate.of(2025, 1, 12)
+                LocalDate.of(2025, 1, 12),
+                now
         );
 
         assertThat(exists).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAggregateCountAndPricePerStatus() {
+        // fishingRod custa 10.0/dia: 20.00, 30.00, 10.00, 50.00 e 40.00
+        createBooking(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 3), BookingStatus.CONFIRMED);
+        createBooking(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 8), BookingStatus.CONFIRMED);
+        createBooking(LocalDate.of(2025, 1, 9), LocalDate.of(2025, 1, 10), BookingStatus.COMPLETED);
+        createBooking(LocalDate.of(2025, 1, 11), LocalDate.of(2025, 1, 16), BookingStatus.PENDING);
+        createBooking(LocalDate.of(2025, 1, 20), LocalDate.of(2025, 1, 24), BookingStatus.CANCELLED);
+
+        Map<BookingStatus, BookingRepository.StatusTotals> totals = bookingRepository.getStatusTotals().stream()
+                .collect(Collectors.toMap(BookingRepository.StatusTotals::getStatus, Function.identity()));
+
+        assertThat(totals).containsOnlyKeys(BookingStatus.CONFIRMED, BookingStatus.COMPLETED, BookingStatus.PENDING,
+                BookingStatus.CANCELLED);
+        assertThat(totals.get(BookingStatus.CONFIRMED).getCount()).isEqualTo(2);
+        assertThat(totals.get(BookingStatus.CONFIRMED).getPriceCents()).isEqualTo(5000L);
+        assertThat(totals.get(BookingStatus.COMPLETED).getPriceCents()).isEqualTo(1000L);
+        assertThat(totals.get(BookingStatus.PENDING).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnNoStatusTotals_WhenThereAreNoBookings() {
+        assertThat(bookingRepository.getStatusTotals()).isEmpty();
+    }
+
+    @Test
+    void shouldInsertCartBookingsInOneBatch_AndFindThemByCart() {
+        BookingCart cart = new BookingCart();
+        cart.setUser(zePescador);
+        cart.setStartDate(LocalDate.of(2025, 3, 1));
+        cart.setEndDate(LocalDate.of(2025, 3, 3));
+        cart.setTotalCents(4000L);
+        bookingCartRepository.save(cart);
+
+        Booking first = new Booking(null, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), BookingStatus.PENDING,
+                2000L, fishingRod, zePescador, now.plusMinutes(15), cart);
+        Booking second = new Booking(null, LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 12), BookingStatus.PENDING,
+                2000L, fishingRod, zePescador, now.plusMinutes(15), cart);
+        bookingRepository.insertAll(List.of(first, second));
+
+        List<Booking> inCart = bookingRepository.findAllByCartIdOrderByItemIdAsc(cart.getId());
+
+        assertThat(inCart).hasSize(2).allSatisfy(b -> {
+            assertThat(b.getId()).isNotNull();
+            assertThat(b.getPriceCents()).isEqualTo(2000L);
+            assertThat(b.getCart().getId()).isEqualTo(cart.getId());
+        });
+        assertThat(bookingRepository.findItemIdsWithOverlappingBooking(List.of(fishingRod.getId()),
+                LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 5), now)).containsExactly(fishingRod.getId());
+        // O dia de saída pode ser o de entrada de outra reserva
+        assertThat(bookingRepository.findItemIdsWithOverlappingBooking(List.of(fishingRod.getId()),
+                LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 10), now)).isEmpty();
+    }
+
+    @Test
+    void shouldPageOwnerInboxByStartDateDescending_AndFilterByStatus() {
+        fishingRod.getPhotoUrls().add("https://img/b.jpg");
+        fishingRod.getPhotoUrls().add("https://img/a.jpg");
+        itemRepository.save(fishingRod);
+        Booking oldest = createBooking(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 2), BookingStatus.CONFIRMED);
+        Booking sameDayA = createBooking(LocalDate.of(2025, 4, 5), LocalDate.of(2025, 4, 6), BookingStatus.PENDING);
+        Booking sameDayB = createBooking(LocalDate.of(2025, 4, 5), LocalDate.of(2025, 4, 7), BookingStatus.CONFIRMED);
+        Booking latest = createBooking(LocalDate.of(2025, 4, 9), LocalDate.of(2025, 4, 10), BookingStatus.CONFIRMED);
+        entityManager.flush();
+        entityManager.clear();
+        var all = EnumSet.allOf(BookingStatus.class);
+
+        List<OwnerBookingRow> first = bookingRepository.findOwnerInbox(
+                zePescador.getId(), all, PageRequest.of(0, 2));
+        OwnerBookingRow last = first.get(1);
+        List<OwnerBookingRow> second = bookingRepository.findOwnerInboxAfter(
+                zePescador.getId(), all, last.getStartDate(), last.getId(), PageRequest.of(0, 2));
+
+        assertThat(first).extracting(OwnerBookingRow::getId)
+                .containsExactly(latest.getId(), sameDayB.getId());
+        assertThat(second).extracting(OwnerBookingRow::getId)
+                .containsExactly(sameDayA.getId(), oldest.getId());
+        assertThat(first.get(0).getItemName()).isEqualTo("Cana XPTO");
+        assertThat(first.get(0).getItemPhotoUrl()).isEqualTo("https://img/a.jpg");
+        assertThat(first.get(0).getUserName()).isEqualTo("Zé do Pipo");
+        assertThat(first.get(0).getPriceCents()).isEqualTo(1000L);
+        assertThat(first.get(0).getCartId()).isNull();
+
+        assertThat(bookingRepository.findOwnerInbox(zePescador.getId(), EnumSet.of(BookingStatus.PENDING),
+                PageRequest.of(0, 10))).extracting(OwnerBookingRow::getId)
+                .containsExactly(sameDayA.getId());
+    }
+}
@@ -0,0 +1,142 @@
+package gofish.pt.repository;
+
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemSummaryDTO;
+import gofish.pt.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static gofish.pt.repository.ItemSpecifications.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private User owner;
+    private Item surfRod;
+
+    @BeforeEach
+    void setup() {
+        owner = new User();
+        owner.setUsername("Zé do Pipo");
+        owner.setEmail("ze@peixe.pt");
+        owner.setPassword("segredo123");
+        owner.setLocation("Faro");
+        userRepository.save(owner);
+
+        save("Light Rod", Category.RODS, Material.GRAPHITE, 8.0, true);
+        save("Heavy Rod", Category.RODS, Material.GRAPHITE, 8.0, true);
+        surfRod = save("Surf Rod", Category.RODS, Material.FIBERGLASS, 30.0, true);
+        save("Reel", Category.REELS, Material.ALUMINUM, 120.0, true);
+        save("Old Reel", Category.REELS, Material.ALUMINUM, 5.0, false);
+    }
+
+    private Item save(String name, Category category, Material material, double price, boolean active) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setCategory(category);
+        item.setMaterial(material);
+        item.setPrice(price);
+        item.setActive(active);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+
+    private void review(Item item, int rating) {
+        Review review = new Review();
+        review.setItem(item);
+        review.setUser(owner);
+        review.setRating(rating);
+        reviewRepository.save(review);
+    }
+
+    @Test
+    void countFacetsGroupsMatchingItems() {
+        ItemFacetsDTO facets = itemRepository.countFacets(activeIs(true));
+
+        assertThat(facets.getTotal()).isEqualTo(4);
+        assertThat(facets.getCategories()).containsEntry(Category.RODS, 3L).containsEntry(Category.REELS, 1L);
+        assertThat(facets.getMaterials()).containsEntry(Material.GRAPHITE, 2L)
+                .containsEntry(Material.FIBERGLASS, 1L)
+                .containsEntry(Material.ALUMINUM, 1L);
+        assertThat(facets.getPriceRanges()).containsEntry("0-10", 2L)
+                .containsEntry("25-50", 1L)
+                .containsEntry("100+", 1L)
+                .containsEntry("10-25", 0L);
+    }
+
+    @Test
+    void countFacetsPutsBoundaryPricesInTheUpperRangeLikeTheSnapshot() {
+        save("Net", Category.NETS, Material.NYLON, 10.0, true);
+        save("Big Net", Category.NETS, Material.NYLON, 100.0, true);
+
+        ItemFacetsDTO fromDatabase = itemRepository.countFacets(categoryIs(Category.NETS));
+        ItemFacetsDTO inMemory = new ItemFacetsDTO();
+        inMemory.add(Category.NETS, Material.NYLON, 10.0, 1);
+        inMemory.add(Category.NETS, Material.NYLON, 100.0, 1);
+
+        assertThat(fromDatabase.getPriceRanges()).containsEntry("10-25", 1L).containsEntry("100+", 1L)
+                .isEqualTo(inMemory.getPriceRanges());
+    }
+
+    @Test
+    void countFacetsAppliesSpecification() {
+        ItemFacetsDTO facets = itemRepository.countFacets(categoryIs(Category.REELS));
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getCategories()).containsOnlyKeys(Category.REELS);
+    }
+
+    @Test
+    void findSummariesReturnsCoverPhotoOwnerAndRating() {
+        surfRod.setPhotoUrls(new ArrayList<>(List.of("side.jpg", "cover.jpg", "detail.jpg")));
+        itemRepository.save(surfRod);
+        review(surfRod, 4);
+
+        List<ItemSummaryDTO> summaries = itemRepository.findSummaries(categoryIs(Category.RODS),
+                Sort.by(Sort.Direction.DESC, "price"));
+
+        assertThat(summaries).extracting(ItemSummaryDTO::name)
+                .containsExactly("Surf Rod", "Light Rod", "Heavy Rod");
+
+        ItemSummaryDTO first = summaries.get(0);
+        assertThat(first.photoUrls()).containsExactly("cover.jpg");
+        assertThat(first.owner().username()).isEqualTo("Zé do Pipo");
+        assertThat(first.averageRating()).isEqualTo(4.0);
+        assertThat(first.reviewCount()).isEqualTo(1);
+
+        assertThat(summaries.get(1).photoUrls()).isEmpty();
+        assertThat(summaries.get(1).averageRating()).isNull();
+        assertThat(summaries.get(1).reviewCount()).isZero();
+    }
+
+    @Test
+    void findSummariesWithoutSpecificationIncludesInactiveItems() {
+        assertThat(itemRepository.findSummaries(null, Sort.by("id"))).hasSize(5);
+        assertThat(itemRepository.findSummaries(ownerIs(owner.getId()), Sort.by("id"))).hasSize(5);
+    }
+
+    @Test
+    void findSummariesWithLimitStopsAfterThatManyRows() {
+        List<ItemSummaryDTO> summaries = itemRepository.findSummaries(categoryIs(Category.RODS),
+                Sort.by(Sort.Direction.DESC, "price"), 2);
+
+        assertThat(summaries).extracting(ItemSummaryDTO::name).containsExactly("Surf Rod", "Light Rod");
+    }
+}
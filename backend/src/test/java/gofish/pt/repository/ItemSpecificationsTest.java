@@ -1,10 +1,8 @@
 package gofish.pt.repository;
 
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
-import gofish.pt.entity.Category;
-import gofish.pt.entity.Item;
-import gofish.pt.entity.Material;
-import gofish.pt.entity.User;
+import gofish.pt.dto.ItemCursor;
+import gofish.pt.entity.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +10,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +30,16 @@ class ItemSpecificationsTest {
     @Autowired
     private UserRepository userRepository; // <--- 1. PRECISAS DISTO AQUI
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BlockedDateRepository blockedDateRepository;
+
+    @Autowired
+    private BlockedDateRuleRepository blockedDateRuleRepository;
+
+    private User zePescador;
     private Item rod;
     private Item reel;
 
@@ -39,7 +49,7 @@ class ItemSpecificationsTest {
         userRepository.deleteAll(); // Limpa a casa toda
 
         // 2. CRIA UM DONO (USER) PRIMEIRO
-        User zePescador = new User();
+        zePescador = new User();
         zePescador.setUsername("Zé do Pipo");
         zePescador.setEmail("ze@peixe.pt");
         zePescador.setPassword("segredo123");
@@ -83,6 +93,18 @@ class ItemSpecificationsTest {
         assertThat(result.get(0).getCategory()).isEqualTo(Category.RODS);
     }
 
+    @Test
+    void filterByCategorySubtree() {
+        reel.setCategory(Category.BAITCASTING_REELS);
+        itemRepository.save(reel);
+
+        assertThat(itemRepository.findAll(categoryIs(Category.REELS))).isEmpty();
+
+        result = itemRepository.findAll(categoryWithin(Category.REELS));
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getName()).isEqualTo("Fishing Reel");
+    }
+
     @Test
     @Requirement("GF-44")
     void filterByName() {
@@ -97,6 +119,19 @@ class ItemSpecificationsTest {
 
     }
 
+    @Test
+    void filterByTextMatchesNameOrDescription() {
+        result = itemRepository.findAll(textContains("smooth"));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Reel");
+
+        // Every word has to match, each in either field
+        result = itemRepository.findAll(textContains("Fishing, strong"));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Rod");
+
+        assertThat(itemRepository.findAll(textContains("strong reel"))).isEmpty();
+        assertThat(itemRepository.findAll(textContains(" - "))).hasSize(2);
+    }
+
     @Test
     @Requirement("GF-45")
     void filterByMaterial() {
@@ -201,4 +236,131 @@ class ItemSpecificationsTest {
         assertThat(result).hasSize(2);
     }
 
-}
\ No newline at end of file
+    @Test
+    void seekAfterByPriceAscending() {
+        ItemCursor cursor = ItemCursor.after(reel, "price", Sort.Direction.ASC);
+
+        spec = seekAfter(cursor);
+        result = itemRepository.findAll(spec, Sort.by(Sort.Direction.ASC, "price", "id"));
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getName()).isEqualTo("Fishing Rod");
+    }
+
+    @Test
+    void seekAfterByPriceDescending() {
+        ItemCursor cursor = ItemCursor.after(rod, "price", Sort.Direction.DESC);
+
+        spec = seekAfter(cursor);
+        result = itemRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "price", "id"));
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getName()).isEqualTo("Fishing Reel");
+    }
+
+    @Test
+    void seekAfterBreaksTiesById() {
+        reel.setCategory(Category.RODS);
+        itemRepository.save(reel);
+        Item first = rod.getId() < reel.getId() ? rod : reel;
+
+        spec = seekAfter(ItemCursor.after(first, "category", Sort.Direction.ASC));
+        result = itemRepository.findAll(spec);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    void seekAfterWithNull() {
+        spec = seekAfter(null);
+        result = itemRepository.findAll(spec);
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void freeBetweenExcludesConfirmedBookings() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        bookingRepository.save(new Booking(null, start, start.plusDays(2), BookingStatus.CONFIRMED, 3000L, rod,
+                zePescador, null, null));
+
+        result = itemRepository.findAll(freeBetween(start.plusDays(2), start.plusDays(5)));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Reel");
+
+        result = itemRepository.findAll(freeBetween(start.plusDays(3), start.plusDays(5)));
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void freeBetweenExcludesLiveHolds() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        bookingRepository.save(new Booking(null, start, start.plusDays(2), BookingStatus.PENDING, 3000L, rod,
+                zePescador, LocalDateTime.now().plusMinutes(10), null));
+
+        result = itemRepository.findAll(freeBetween(start, start.plusDays(2)));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Reel");
+    }
+
+    @Test
+    void freeBetweenIgnoresLapsedHolds() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        bookingRepository.save(new Booking(null, start, start.plusDays(2), BookingStatus.PENDING, 3000L, rod,
+                zePescador, LocalDateTime.now().minusMinutes(1), null));
+
+        result = itemRepository.findAll(freeBetween(start, start.plusDays(2)));
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void freeBetweenExcludesBlockedDates() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        blockedDateRepository.save(new BlockedDate(start, start.plusDays(4), "Manutenção", reel));
+
+        result = itemRepository.findAll(freeBetween(start.minusDays(3), start));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Rod");
+
+        // A single bound means a single day
+        result = itemRepository.findAll(freeBetween(start.plusDays(4), null));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Rod");
+    }
+
+    @Test
+    void freeBetweenExcludesRecurringWeekdayRules() {
+        // Reel: every Saturday; 1 July 2030 is a Monday
+        blockedDateRuleRepository.save(new BlockedDateRule(1 << 5, null, null, "Torneio", reel));
+        LocalDate monday = LocalDate.of(2030, 7, 1);
+
+        result = itemRepository.findAll(freeBetween(monday, monday.plusDays(4)));
+        assertThat(result).hasSize(2);
+
+        result = itemRepository.findAll(freeBetween(monday.plusDays(4), monday.plusDays(5)));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Rod");
+    }
+
+    @Test
+    void freeBetweenExcludesSeasonalRules() {
+        // Rod: closed all week over the winter (wraps over the new year) and on summer Sundays
+        blockedDateRuleRepository.save(new BlockedDateRule(0x7F, 1101, 228, "Inverno", rod));
+        blockedDateRuleRepository.save(new BlockedDateRule(1 << 6, 601, 831, "Domingos", rod));
+
+        result = itemRepository.findAll(freeBetween(LocalDate.of(2030, 12, 20), LocalDate.of(2030, 12, 22)));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Reel");
+        result = itemRepository.findAll(freeBetween(LocalDate.of(2031, 1, 5), null));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Reel");
+
+        // Monday to Saturday in July, then a range that takes in a Sunday
+        result = itemRepository.findAll(freeBetween(LocalDate.of(2030, 7, 1), LocalDate.of(2030, 7, 6)));
+        assertThat(result).hasSize(2);
+        result = itemRepository.findAll(freeBetween(LocalDate.of(2030, 7, 6), LocalDate.of(2030, 7, 7)));
+        assertThat(result).extracting(Item::getName).containsExactly("Fishing Reel");
+
+        // 1 September is a Sunday, but outside the summer season
+        result = itemRepository.findAll(freeBetween(LocalDate.of(2030, 9, 1), null));
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void freeBetweenWithNull() {
+        spec = freeBetween(null, null);
+        result = itemRepository.findAll(spec);
+        assertThat(result).hasSize(2);
+    }
+
+}
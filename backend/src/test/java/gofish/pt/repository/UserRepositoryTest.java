@@ -0,0 +1,174 @@
+package gofish.pt.repository;
+
+import gofish.pt.dto.AdminUserDTO;
+import gofish.pt.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserRoleRepository userRoleRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User admin;
+    private User owner;
+    private User renter;
+    private User banned;
+
+    @BeforeEach
+    void setup() {
+        admin = user("Admin", "admin@peixe.pt");
+        owner = user("Zé do Pipo", "ze@peixe.pt");
+        renter = user("Ana", "ana@peixe.pt");
+        banned = user("Bruno", "bruno@peixe.pt");
+
+        userRoleRepository.save(new UserRole(admin.getId(), UserRole.ROLE_ADMIN));
+        userRoleRepository.save(new UserRole(owner.getId(), UserRole.ROLE_USER));
+        userStatusRepository.save(new UserStatus(owner.getId(), UserStatus.STATUS_ACTIVE));
+        UserStatus suspended = new UserStatus(banned.getId(), UserStatus.STATUS_SUSPENDED);
+        suspended.setReason("Spam");
+        userStatusRepository.save(suspended);
+
+        Item rod = item("Rod");
+        item("Reel");
+        item("Net");
+        booking(rod, LocalDate.of(2025, 1, 1));
+        booking(rod, LocalDate.of(2025, 2, 1));
+    }
+
+    private User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("segredo123");
+        user.setLocation("Faro");
+        return userRepository.save(user);
+    }
+
+    private Item item(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setCategory(Category.RODS);
+        item.setMaterial(Material.GRAPHITE);
+        item.setPrice(10.0);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+
+    private void booking(Item item, LocalDate start) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setUser(renter);
+        booking.setStartDate(start);
+        booking.setEndDate(start.plusDays(2));
+        booking.setStatus(BookingStatus.COMPLETED);
+        bookingRepository.save(booking);
+    }
+
+    @Test
+    void findAdminUsersDefaultsMissingRoleAndStatusAndCountsItemsAndBookings() {
+        Page<AdminUserDTO> page = userRepository.findAdminUsers(null, null, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent()).extracting(AdminUserDTO::getId)
+                .containsExactly(admin.getId(), owner.getId(), renter.getId(), banned.getId());
+
+        AdminUserDTO ownerRow = page.getContent().get(1);
+        assertThat(ownerRow.getRole()).isEqualTo(UserRole.ROLE_USER);
+        assertThat(ownerRow.getItemCount()).isEqualTo(3);
+        assertThat(ownerRow.getBookingCount()).isZero();
+
+        AdminUserDTO renterRow = page.getContent().get(2);
+        assertThat(renterRow.getRole()).isEqualTo(UserRole.ROLE_USER);
+        assertThat(renterRow.getStatus()).isEqualTo(UserStatus.STATUS_ACTIVE);
+        assertThat(renterRow.getItemCount()).isZero();
+        assertThat(renterRow.getBookingCount()).isEqualTo(2);
+
+        AdminUserDTO bannedRow = page.getContent().get(3);
+        assertThat(bannedRow.getStatus()).isEqualTo(UserStatus.STATUS_SUSPENDED);
+        assertThat(bannedRow.getStatusReason()).isEqualTo("Spam");
+    }
+
+    @Test
+    void findAdminUsersFiltersByRoleAndStatus() {
+        assertThat(userRepository.findAdminUsers(UserRole.ROLE_ADMIN, null, PageRequest.of(0, 10)).getContent())
+                .extracting(AdminUserDTO::getId).containsExactly(admin.getId());
+        assertThat(userRepository.findAdminUsers(UserRole.ROLE_USER, UserStatus.STATUS_ACTIVE, PageRequest.of(0, 10))
+                .getContent())
+                .extracting(AdminUserDTO::getId).containsExactly(owner.getId(), renter.getId());
+        assertThat(userRepository.findAdminUsers(null, UserStatus.STATUS_SUSPENDED, PageRequest.of(0, 10))
+                .getContent())
+                .extracting(AdminUserDTO::getId).containsExactly(banned.getId());
+    }
+
+    @Test
+    void findAdminUsersSortsByCountsAndPages() {
+        Page<AdminUserDTO> first = userRepository.findAdminUsers(null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "itemCount")));
+        Page<AdminUserDTO> second = userRepository.findAdminUsers(null, null,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "itemCount")));
+
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first.getContent()).extracting(AdminUserDTO::getId).containsExactly(owner.getId(), admin.getId());
+        // Ties are broken by id
+        assertThat(second.getContent()).extracting(AdminUserDTO::getId)
+                .containsExactly(renter.getId(), banned.getId());
+    }
+
+    @Test
+    void findAdminUsersSortsByDefaultedRole() {
+        Page<AdminUserDTO> page = userRepository.findAdminUsers(null, null,
+                PageRequest.of(0, 1, Sort.by("role")));
+
+        assertThat(page.getContent()).extracting(AdminUserDTO::getId).containsExactly(admin.getId());
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void bulkLookupsAndStatusUpdateTouchOnlyTheGivenUsers() {
+        long missing = banned.getId() + 100;
+        List<Long> ids = List.of(admin.getId(), owner.getId(), banned.getId(), missing);
+
+        assertThat(userRepository.findExistingIds(ids))
+                .containsExactlyInAnyOrder(admin.getId(), owner.getId(), banned.getId());
+        assertThat(userRoleRepository.findUserIdsWithRole(ids, UserRole.ROLE_ADMIN)).containsExactly(admin.getId());
+
+        int updated = userStatusRepository.updateStatus(List.of(owner.getId(), banned.getId()),
+                UserStatus.STATUS_DELETED, "Cleanup", LocalDateTime.now());
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(userStatusRepository.findStatusesByUserIdIn(ids))
+                .extracting(UserStatusRepository.StatusRef::getUserId, UserStatusRepository.StatusRef::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(owner.getId(), UserStatus.STATUS_DELETED),
+                        tuple(banned.getId(), UserStatus.STATUS_DELETED));
+        assertThat(userStatusRepository.findByUserId(owner.getId())).get()
+                .extracting(UserStatus::getReason).isEqualTo("Cleanup");
+    }
+}
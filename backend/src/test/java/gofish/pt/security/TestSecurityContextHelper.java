@@ -4,6 +4,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 
 import java.util.Collections;
 
@@ -14,7 +15,9 @@ public class TestSecurityContextHelper {
     }
 
     /**
-     * Set authenticated user in SecurityContext for testing
+     * Set authenticated user in SecurityContext for testing.
+     * MockMvc reads the context from TestSecurityContextHolder, which keeps the first one it
+     * saw on a thread, so both holders are set to let a thread switch users between requests.
      * @param userId the user ID to set as authenticated
      */
     public static void setAuthenticatedUser(Long userId) {
@@ -26,13 +29,13 @@ public class TestSecurityContextHelper {
         
         SecurityContext context = SecurityContextHolder.createEmptyContext();
         context.setAuthentication(auth);
-        SecurityContextHolder.setContext(context);
+        TestSecurityContextHolder.setContext(context);
     }
 
     /**
      * Clear the SecurityContext
      */
     public static void clearContext() {
-        SecurityContextHolder.clearContext();
+        TestSecurityContextHolder.clearContext();
     }
 }
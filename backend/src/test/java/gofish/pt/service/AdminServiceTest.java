@@ -2,6 +2,8 @@ package gofish.pt.service;
 
 import gofish.pt.dto.AdminDashboardDTO;
 import gofish.pt.dto.AdminUserDTO;
+import gofish.pt.dto.BulkModerationResultDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.entity.*;
 import gofish.pt.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +14,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
@@ -44,6 +51,15 @@ class AdminServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private CatalogSnapshotService catalogSnapshot;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -85,21 +101,44 @@ class AdminServiceTest {
     class UserManagementTests {
 
         @Test
-        @DisplayName("Should return all users with their role and status")
-        void shouldGetAllUsers() {
-            // Arrange
-            when(userRepository.findAll()).thenReturn(List.of(regularUser, adminUser));
-            when(userRoleRepository.findByUserId(10L)).thenReturn(Optional.of(userRole));
-            when(userRoleRepository.findByUserId(1L)).thenReturn(Optional.of(adminRole));
-            when(userStatusRepository.findByUserId(anyLong())).thenReturn(Optional.of(activeStatus));
+        @DisplayName("Should return a page of users from the listing query")
+        void shouldGetUsersPage() {
+            AdminUserDTO row = new AdminUserDTO(10L, "regular_user", "user@test.com", "Test Location",
+                    UserRole.ROLE_USER, UserStatus.STATUS_SUSPENDED, "Spam", 2, 3);
+            Pageable pageable = PageRequest.of(0, 20, Sort.by("username"));
+            when(userRepository.findAdminUsers(UserRole.ROLE_USER, UserStatus.STATUS_SUSPENDED, pageable))
+                    .thenReturn(new PageImpl<>(List.of(row), pageable, 1));
+
+            Page<AdminUserDTO> result = adminService.getUsers("user", " suspended ", pageable);
+
+            assertThat(result.getContent()).containsExactly(row);
+            verify(userRepository, never()).findAll();
+            verifyNoInteractions(userRoleRepository, userStatusRepository);
+        }
 
-            // Act
-            List<AdminUserDTO> result = adminService.getAllUsers();
+        @Test
+        @DisplayName("Should cap the page size")
+        void shouldCapUserPageSize() {
+            when(userRepository.findAdminUsers(isNull(), isNull(), any())).thenReturn(Page.empty());
 
-            // Assert
-            assertThat(result).hasSize(2);
-            assertThat(result.get(0).getUsername()).isEqualTo("regular_user");
-            assertThat(result.get(0).getRole()).isEqualTo(UserRole.ROLE_USER);
+            adminService.getUsers(null, "", PageRequest.of(2, 5000));
+
+            verify(userRepository).findAdminUsers(null, null, PageRequest.of(2, AdminService.MAX_USER_PAGE_SIZE));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown filters and sort properties")
+        void shouldRejectUnknownUserFilters() {
+            assertThatThrownBy(() -> adminService.getUsers("owner", null, PageRequest.of(0, 20)))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("Unknown role");
+            assertThatThrownBy(() -> adminService.getUsers(null, "BANNED", PageRequest.of(0, 20)))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("Unknown status");
+            assertThatThrownBy(() -> adminService.getUsers(null, null, PageRequest.of(0, 20, Sort.by("password"))))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("Cannot sort users by password");
+            verifyNoInteractions(userRepository);
         }
 
         @Test
@@ -119,6 +158,7 @@ class AdminServiceTest {
             assertThat(activeStatus.getReason()).isEqualTo("Terms violation");
             verify(auditLogService).log(eq(1L), eq(AuditLog.ACTION_SUSPEND_USER), eq(AuditLog.TARGET_USER), eq(10L),
                     anyString());
+            verify(dashboardCounters).userStatusChanged(UserStatus.STATUS_ACTIVE, UserStatus.STATUS_SUSPENDED);
         }
 
         @Test
@@ -198,13 +238,15 @@ class AdminServiceTest {
             inactiveItem.setId(101L);
             inactiveItem.setActive(false);
 
-            when(itemRepository.findAll()).thenReturn(List.of(item, inactiveItem));
+            when(itemRepository.findSummaries(isNull(), any(Sort.class))).thenReturn(List.of(
+                    ItemSummaryDTO.of(item, null, 0), ItemSummaryDTO.of(inactiveItem, null, 0)));
 
             // Act
-            List<Item> result = adminService.getAllItems();
+            List<ItemSummaryDTO> result = adminService.getAllItems();
 
             // Assert
             assertThat(result).hasSize(2);
+            assertThat(result).extracting(ItemSummaryDTO::active).containsExactly(true, false);
         }
 
         @Test
@@ -220,6 +262,7 @@ class AdminServiceTest {
             // Assert
             assertThat(item.getActive()).isFalse();
             assertThat(item.getDeactivationReason()).isEqualTo("Violates policy");
+            verify(dashboardCounters).itemActiveChanged(true, false);
             verify(auditLogService).log(eq(1L), eq(AuditLog.ACTION_DEACTIVATE_ITEM), eq(AuditLog.TARGET_ITEM), eq(100L),
                     anyString());
         }
@@ -257,58 +300,137 @@ class AdminServiceTest {
     }
 
     @Nested
-    @DisplayName("Dashboard Tests")
-    class DashboardTests {
+    @DisplayName("Bulk Moderation Tests")
+    class BulkModerationTests {
+
+        private UserStatusRepository.StatusRef statusOf(Long userId, String status) {
+            return new UserStatusRepository.StatusRef() {
+                @Override
+                public Long getUserId() {
+                    return userId;
+                }
+
+                @Override
+                public String getStatus() {
+                    return status;
+                }
+            };
+        }
+
+        private Item itemWithId(Long id, boolean active) {
+            Item each = new Item();
+            each.setId(id);
+            each.setActive(active);
+            return each;
+        }
 
         @Test
-        @DisplayName("Should calculate dashboard statistics correctly")
-        void shouldGetDashboardStats() {
-            // Arrange
-            when(userRepository.count()).thenReturn(10L);
-            when(userStatusRepository.findAllByStatus(UserStatus.STATUS_SUSPENDED))
-                    .thenReturn(List.of(new UserStatus(5L, UserStatus.STATUS_SUSPENDED)));
+        @DisplayName("Should suspend users set-based and report an outcome per id")
+        void shouldSuspendUsersInBulk() {
+            // 1 admin, 10 active with a row, 11 already suspended, 12 without a status row, 99 missing
+            List<Long> ids = List.of(1L, 10L, 11L, 12L, 99L, 10L);
+            when(userRepository.findExistingIds(any())).thenReturn(List.of(1L, 10L, 11L, 12L));
+            when(userRoleRepository.findUserIdsWithRole(any(), eq(UserRole.ROLE_ADMIN))).thenReturn(List.of(1L));
+            when(userStatusRepository.findStatusesByUserIdIn(any())).thenReturn(List.of(
+                    statusOf(1L, UserStatus.STATUS_ACTIVE),
+                    statusOf(10L, UserStatus.STATUS_ACTIVE),
+                    statusOf(11L, UserStatus.STATUS_SUSPENDED)));
+
+            BulkModerationResultDTO result = adminService.suspendUsers(ids, 7L, "Spam wave");
+
+            assertThat(result.getUpdated()).isEqualTo(2);
+            assertThat(result.getResults()).containsExactly(
+                    new BulkModerationResultDTO.Entry(1L, BulkModerationResultDTO.Outcome.FORBIDDEN),
+                    new BulkModerationResultDTO.Entry(10L, BulkModerationResultDTO.Outcome.UPDATED),
+                    new BulkModerationResultDTO.Entry(11L, BulkModerationResultDTO.Outcome.UNCHANGED),
+                    new BulkModerationResultDTO.Entry(12L, BulkModerationResultDTO.Outcome.UPDATED),
+                    new BulkModerationResultDTO.Entry(99L, BulkModerationResultDTO.Outcome.NOT_FOUND));
+            verify(userStatusRepository).updateStatus(eq(List.of(10L)), eq(UserStatus.STATUS_SUSPENDED),
+                    eq("Spam wave"), any());
+            verify(userStatusRepository).saveAll(argThat((List<UserStatus> rows) -> rows.size() == 1
+                    && rows.get(0).getUserId() == 12L
+                    && UserStatus.STATUS_SUSPENDED.equals(rows.get(0).getStatus())));
+            verify(dashboardCounters).usersMoved(UserStatus.STATUS_ACTIVE, UserStatus.STATUS_SUSPENDED, 2);
+            verify(auditLogService).logAll(7L, AuditLog.ACTION_SUSPEND_USER, AuditLog.TARGET_USER,
+                    List.of(10L, 12L), "{\"reason\":\"Spam wave\"}");
+            verify(auditLogService, never()).log(anyLong(), anyString(), anyString(), anyLong(), any());
+            verify(userStatusRepository, never()).findByUserId(anyLong());
+        }
 
-            Item activeItem = new Item();
-            activeItem.setActive(true);
-            Item inactiveItem = new Item();
-            inactiveItem.setActive(false);
-            when(itemRepository.findAll()).thenReturn(List.of(activeItem, inactiveItem));
+        @Test
+        @DisplayName("Should reactivate users without checking roles or writing when nothing changes")
+        void shouldReactivateUsersInBulk() {
+            when(userRepository.findExistingIds(any())).thenReturn(List.of(10L));
+            when(userStatusRepository.findStatusesByUserIdIn(any()))
+                    .thenReturn(List.of(statusOf(10L, UserStatus.STATUS_ACTIVE)));
+
+            BulkModerationResultDTO result = adminService.reactivateUsers(List.of(10L), 7L);
+
+            assertThat(result.getUpdated()).isZero();
+            assertThat(result.getResults()).extracting(BulkModerationResultDTO.Entry::outcome)
+                    .containsExactly(BulkModerationResultDTO.Outcome.UNCHANGED);
+            verifyNoInteractions(userRoleRepository, auditLogService, dashboardCounters);
+            verify(userStatusRepository, never()).updateStatus(any(), any(), any(), any());
+        }
 
-            Booking confirmedBooking = new Booking();
-            confirmedBooking.setStatus(BookingStatus.CONFIRMED);
-            confirmedBooking.setPrice(100.0);
-            Booking pendingBooking = new Booking();
-            pendingBooking.setStatus(BookingStatus.PENDING);
-            when(bookingRepository.findAll()).thenReturn(List.of(confirmedBooking, pendingBooking));
+        @Test
+        @DisplayName("Should reject more ids than one request may carry")
+        void shouldRejectTooManyIds() {
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= AdminService.MAX_BULK_IDS + 1; id++)
+                ids.add(id);
 
-            // Act
-            AdminDashboardDTO result = adminService.getDashboardStats();
+            assertThatThrownBy(() -> adminService.softDeleteUsers(ids, 7L, "Spam"))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("At most");
+            verifyNoInteractions(userRepository);
+        }
 
-            // Assert
-            assertThat(result.getTotalUsers()).isEqualTo(10);
-            assertThat(result.getSuspendedUsers()).isEqualTo(1);
-            assertThat(result.getTotalItems()).isEqualTo(2);
-            assertThat(result.getInactiveItems()).isEqualTo(1);
-            assertThat(result.getActiveBookings()).isEqualTo(1);
-            assertThat(result.getPendingBookings()).isEqualTo(1);
-            assertThat(result.getTotalRevenue()).isEqualTo(100.0);
+        @Test
+        @DisplayName("Should deactivate items with one update and publish them once")
+        void shouldDeactivateItemsInBulk() {
+            Item reloaded = itemWithId(100L, false);
+            when(itemRepository.findAllByIdForUpdate(any()))
+                    .thenReturn(List.of(itemWithId(100L, true), itemWithId(101L, false)));
+            when(itemRepository.findAllWithPhotosByIdIn(List.of(100L))).thenReturn(List.of(reloaded));
+
+            BulkModerationResultDTO result = adminService.deactivateItems(List.of(100L, 101L, 102L), "Spam", 7L);
+
+            assertThat(result.getResults()).extracting(BulkModerationResultDTO.Entry::outcome).containsExactly(
+                    BulkModerationResultDTO.Outcome.UPDATED,
+                    BulkModerationResultDTO.Outcome.UNCHANGED,
+                    BulkModerationResultDTO.Outcome.NOT_FOUND);
+            verify(itemRepository).updateActive(List.of(100L), false, "Spam");
+            verify(itemRepository, never()).save(any(Item.class));
+            verify(dashboardCounters).itemsActiveChanged(false, 1);
+            verify(catalogSnapshot).publishAll(List.of(reloaded));
+            verify(searchIndex).index(reloaded);
+            verify(auditLogService).logAll(7L, AuditLog.ACTION_DEACTIVATE_ITEM, AuditLog.TARGET_ITEM, List.of(100L),
+                    "{\"reason\":\"Spam\"}");
         }
 
         @Test
-        @DisplayName("Should handle empty data for dashboard")
-        void shouldHandleEmptyDashboard() {
-            // Arrange
-            when(userRepository.count()).thenReturn(0L);
-            when(userStatusRepository.findAllByStatus(anyString())).thenReturn(List.of());
-            when(itemRepository.findAll()).thenReturn(List.of());
-            when(bookingRepository.findAll()).thenReturn(List.of());
+        @DisplayName("Should require a reason to deactivate items")
+        void shouldRequireReasonForBulkDeactivation() {
+            assertThatThrownBy(() -> adminService.deactivateItems(List.of(100L), " ", 7L))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("reason is required");
+            verifyNoInteractions(itemRepository);
+        }
+    }
 
-            // Act
-            AdminDashboardDTO result = adminService.getDashboardStats();
+    @Nested
+    @DisplayName("Dashboard Tests")
+    class DashboardTests {
 
-            // Assert
-            assertThat(result.getTotalUsers()).isEqualTo(0);
-            assertThat(result.getTotalRevenue()).isEqualTo(0.0);
+        @Test
+        @DisplayName("Should serve the dashboard from the running totals")
+        void shouldGetDashboardStatsFromCounters() {
+            AdminDashboardDTO totals = new AdminDashboardDTO(1, 1, 10, 1, 2, 1, 100.0);
+            when(dashboardCounters.snapshot()).thenReturn(totals);
+
+            assertThat(adminService.getDashboardStats()).isSameAs(totals);
+            verifyNoInteractions(userRepository, itemRepository, bookingRepository);
         }
     }
 }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,7 +15,6 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +23,9 @@ class AuditLogServiceTest {
     @Mock
     private AuditLogRepository auditLogRepository;
 
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
     @InjectMocks
     private AuditLogService auditLogService;
 
@@ -35,22 +38,39 @@ class AuditLogServiceTest {
     }
 
     @Test
-    @DisplayName("Should log admin action and save to repository")
+    @DisplayName("Should hand the admin action to the writer instead of saving it")
+    @SuppressWarnings("unchecked")
     void shouldLogAction() {
-        // Arrange
-        when(auditLogRepository.save(any(AuditLog.class))).thenAnswer(i -> i.getArguments()[0]);
-
         // Act
-        AuditLog result = auditLogService.log(1L, AuditLog.ACTION_SUSPEND_USER, AuditLog.TARGET_USER, 10L,
-                "{\"reason\":\"Test\"}");
+        auditLogService.log(1L, AuditLog.ACTION_SUSPEND_USER, AuditLog.TARGET_USER, 10L, "{\"reason\":\"Test\"}");
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getAdminId()).isEqualTo(1L);
-        assertThat(result.getAction()).isEqualTo(AuditLog.ACTION_SUSPEND_USER);
-        assertThat(result.getTargetType()).isEqualTo(AuditLog.TARGET_USER);
-        assertThat(result.getTargetId()).isEqualTo(10L);
-        verify(auditLogRepository, times(1)).save(any(AuditLog.class));
+        ArgumentCaptor<List<AuditLog>> entries = ArgumentCaptor.forClass(List.class);
+        verify(auditLogWriter).submit(entries.capture());
+        assertThat(entries.getValue()).singleElement().satisfies(entry -> {
+            assertThat(entry.getAdminId()).isEqualTo(1L);
+            assertThat(entry.getAction()).isEqualTo(AuditLog.ACTION_SUSPEND_USER);
+            assertThat(entry.getTargetType()).isEqualTo(AuditLog.TARGET_USER);
+            assertThat(entry.getTargetId()).isEqualTo(10L);
+            assertThat(entry.getCreatedAt()).isNotNull();
+        });
+        verifyNoInteractions(auditLogRepository);
+    }
+
+    @Test
+    @DisplayName("Should log one action on several targets as one submission")
+    @SuppressWarnings("unchecked")
+    void shouldLogAllAsOneBatch() {
+        auditLogService.logAll(1L, AuditLog.ACTION_DEACTIVATE_ITEM, AuditLog.TARGET_ITEM, List.of(5L, 6L), null);
+
+        ArgumentCaptor<List<AuditLog>> batch = ArgumentCaptor.forClass(List.class);
+        verify(auditLogWriter).submit(batch.capture());
+        assertThat(batch.getValue()).extracting(AuditLog::getTargetId).containsExactly(5L, 6L);
+        assertThat(batch.getValue()).allSatisfy(entry -> {
+            assertThat(entry.getAction()).isEqualTo(AuditLog.ACTION_DEACTIVATE_ITEM);
+            assertThat(entry.getCreatedAt()).isNotNull();
+        });
+        verifyNoInteractions(auditLogRepository);
     }
 
     @Test
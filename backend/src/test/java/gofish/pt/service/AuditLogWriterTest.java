@@ -0,0 +1,166 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.AuditLog;
+import gofish.pt.repository.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLogWriter writer;
+    private final List<Long> written = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null)
+            writer.stop();
+    }
+
+    private AuditLogWriter writer(int capacity, int batchSize, long flushIntervalMillis) {
+        return new AuditLogWriter(auditLogRepository, transactionManager, meterRegistry, capacity, batchSize,
+                flushIntervalMillis, 10);
+    }
+
+    private void recordInserts() {
+        lenient().doAnswer(invocation -> {
+            List<AuditLog> batch = invocation.getArgument(0);
+            batch.forEach(entry -> written.add(entry.getTargetId()));
+            return null;
+        }).when(auditLogRepository).insertAll(anyList());
+    }
+
+    private static List<AuditLog> entries(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(targetId -> {
+                    AuditLog entry = new AuditLog(1L, AuditLog.ACTION_SUSPEND_USER, AuditLog.TARGET_USER, targetId,
+                            null);
+                    entry.setCreatedAt(LocalDateTime.now());
+                    return entry;
+                })
+                .toList();
+    }
+
+    @Test
+    void insertsStraightAwayWhenNotRunning() {
+        recordInserts();
+        writer = writer(10, 10, 50);
+
+        writer.submit(entries(1, 2));
+
+        assertThat(written).containsExactly(1L, 2L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void flushesAPartialBatchAfterTheInterval() {
+        recordInserts();
+        writer = writer(10, 100, 50);
+        writer.start();
+
+        writer.submit(entries(1, 1));
+
+        // Far below the batch size, so only the interval can have flushed it
+        verify(auditLogRepository, timeout(2000)).insertAll(anyList());
+        assertThat(writer.isRunning()).isTrue();
+        assertThat(written).containsExactly(1L);
+    }
+
+    @Test
+    void keepsBatchesWithinSizeAndDrainsOnStop() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<AuditLog> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            batch.forEach(entry -> written.add(entry.getTargetId()));
+            return null;
+        }).when(auditLogRepository).insertAll(anyList());
+        writer = writer(100, 4, 50);
+        writer.start();
+
+        writer.submit(entries(1, 10));
+        writer.submit(entries(11, 25));
+        writer.stop();
+
+        assertThat(written).containsExactlyElementsOf(LongStream.rangeClosed(1, 25).boxed().toList());
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, 4));
+        assertThat(meterRegistry.get("audit.writer.queue").gauge().value()).isZero();
+        assertThat(meterRegistry.get("audit.writer.flush").timer().count()).isEqualTo(batchSizes.size());
+    }
+
+    @Test
+    void insertsOnTheCallerWhenTheQueueStaysFull() throws InterruptedException {
+        CountDownLatch workerInserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<AuditLog> batch = invocation.getArgument(0);
+            if (Thread.currentThread().getName().equals("audit-log-writer") && workerInserting.getCount() > 0) {
+                workerInserting.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            batch.forEach(entry -> written.add(entry.getTargetId()));
+            return null;
+        }).when(auditLogRepository).insertAll(anyList());
+        writer = writer(1, 1, 50);
+        writer.start();
+
+        writer.submit(entries(1, 1));
+        assertThat(workerInserting.await(2, TimeUnit.SECONDS)).isTrue();
+
+        // 2 takes the only slot, 3 and 4 do not fit while the worker is stuck
+        writer.submit(entries(2, 4));
+
+        assertThat(written).containsExactly(3L, 4L);
+        assertThat(meterRegistry.get("audit.writer.overflow").counter().count()).isEqualTo(2);
+
+        release.countDown();
+        writer.stop();
+        assertThat(written).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void retriesAFailedBatch() {
+        doThrow(new IllegalStateException("connection reset"))
+                .doAnswer(invocation -> {
+                    List<AuditLog> batch = invocation.getArgument(0);
+                    batch.forEach(entry -> written.add(entry.getTargetId()));
+                    return null;
+                })
+                .when(auditLogRepository).insertAll(anyList());
+        writer = writer(10, 10, 50);
+
+        writer.submit(entries(1, 2));
+
+        assertThat(written).containsExactly(1L, 2L);
+        assertThat(meterRegistry.get("audit.writer.failures").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,65 @@
+package gofish.pt.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityVersionsTest {
+
+    private final AvailabilityVersions versions = new AvailabilityVersions();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void tagIsStableUntilTheItemChanges() {
+        String before = versions.etag(1L);
+
+        assertThat(versions.etag(1L)).isEqualTo(before);
+        assertThat(before).startsWith("\"").endsWith(LocalDate.now() + "\"");
+
+        versions.bump(1L);
+
+        assertThat(versions.etag(1L)).isNotEqualTo(before);
+    }
+
+    @Test
+    void bumpOnlyChangesThatItem() {
+        String other = versions.etag(2L);
+
+        versions.bump(1L);
+
+        assertThat(versions.etag(2L)).isEqualTo(other);
+    }
+
+    @Test
+    void bumpAllChangesEveryItem() {
+        String first = versions.etag(1L);
+        String second = versions.etag(2L);
+
+        versions.bumpAll();
+
+        assertThat(versions.etag(1L)).isNotEqualTo(first);
+        assertThat(versions.etag(2L)).isNotEqualTo(second);
+    }
+
+    @Test
+    void bumpWaitsForCommit() {
+        String before = versions.etag(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        versions.bump(1L);
+        assertThat(versions.etag(1L)).isEqualTo(before);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(versions.etag(1L)).isNotEqualTo(before);
+    }
+}
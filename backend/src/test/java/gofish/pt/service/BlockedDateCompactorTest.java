@@ -0,0 +1,89 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.BlockedDate;
+import gofish.pt.entity.Item;
+import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockedDateCompactorTest {
+
+    @Mock
+    private BlockedDateRepository blockedDateRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private AvailabilityVersions availabilityVersions;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BlockedDateCompactor compactor;
+    private final Item rod = new Item();
+    private final LocalDate day = LocalDate.of(2026, 3, 10);
+
+    @BeforeEach
+    void setUp() {
+        compactor = new BlockedDateCompactor(blockedDateRepository, itemRepository, availabilityVersions,
+                transactionManager, false);
+    }
+
+    private BlockedDate blocked(int start, int end) {
+        return new BlockedDate(day.plusDays(start), day.plusDays(end), null, rod);
+    }
+
+    @Test
+    void foldsOverlappingAndAdjacentPeriodsIntoTheEarliest() {
+        BlockedDate first = blocked(0, 2);
+        BlockedDate adjacent = blocked(3, 3);
+        BlockedDate inside = blocked(1, 2);
+        BlockedDate overlapping = blocked(3, 6);
+        BlockedDate apart = blocked(10, 12);
+        when(blockedDateRepository.findItemIdsWithSeveralBlockedDates()).thenReturn(List.of(5L));
+        when(blockedDateRepository.findAllByItemIdOrderByStartDateAsc(5L))
+                .thenReturn(List.of(first, inside, adjacent, overlapping, apart));
+
+        assertThat(compactor.compactAll()).isEqualTo(3);
+
+        assertThat(first.getStartDate()).isEqualTo(day);
+        assertThat(first.getEndDate()).isEqualTo(day.plusDays(6));
+        verify(blockedDateRepository).deleteAllInBatch(List.of(inside, adjacent, overlapping));
+        verify(itemRepository).findByIdForUpdate(5L);
+        verify(availabilityVersions).bump(5L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void disjointPeriodsAreLeftAlone() {
+        when(blockedDateRepository.findItemIdsWithSeveralBlockedDates()).thenReturn(List.of(5L));
+        when(blockedDateRepository.findAllByItemIdOrderByStartDateAsc(5L))
+                .thenReturn(List.of(blocked(0, 1), blocked(3, 4)));
+
+        assertThat(compactor.compactAll()).isZero();
+
+        verify(blockedDateRepository, never()).deleteAllInBatch(any());
+        verifyNoInteractions(availabilityVersions);
+    }
+
+    @Test
+    void startupRunIsOffByDefault() {
+        compactor.run(null);
+
+        verifyNoInteractions(blockedDateRepository);
+    }
+}
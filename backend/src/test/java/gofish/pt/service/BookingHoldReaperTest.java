@@ -0,0 +1,99 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.BookingRepository.HoldRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingHoldReaperTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ItemOccupancyCache occupancy;
+
+    @Mock
+    private AvailabilityVersions availabilityVersions;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingHoldReaper reaper;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        reaper = new BookingHoldReaper(bookingRepository, occupancy, availabilityVersions, dashboardCounters,
+                transactionManager, 2);
+    }
+
+    private HoldRef hold(Long id, Long itemId) {
+        return new HoldRef() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+        };
+    }
+
+    @Test
+    void expiresChunksUntilOneComesBackShort() {
+        when(bookingRepository.findExpiredHolds(eq(now), any()))
+                .thenReturn(List.of(hold(1L, 5L), hold(2L, 5L)))
+                .thenReturn(List.of(hold(3L, 6L)));
+        when(bookingRepository.expireHolds(any())).thenReturn(2, 1);
+
+        assertThat(reaper.expireHolds(now)).isEqualTo(3);
+
+        verify(bookingRepository).expireHolds(List.of(1L, 2L));
+        verify(bookingRepository).expireHolds(List.of(3L));
+        verify(occupancy, times(1)).evict(5L);
+        verify(occupancy, times(1)).evict(6L);
+        verify(availabilityVersions, times(1)).bump(5L);
+        verify(availabilityVersions, times(1)).bump(6L);
+        verify(transactionManager, times(2)).commit(any());
+        verify(dashboardCounters).bookingsMoved(BookingStatus.PENDING, BookingStatus.CANCELLED, 2, 0);
+        verify(dashboardCounters).bookingsMoved(BookingStatus.PENDING, BookingStatus.CANCELLED, 1, 0);
+    }
+
+    @Test
+    void nothingToExpireRunsOneQuery() {
+        when(bookingRepository.findExpiredHolds(eq(now), any())).thenReturn(List.of());
+
+        assertThat(reaper.expireHolds(now)).isZero();
+
+        verify(bookingRepository, never()).expireHolds(any());
+        verifyNoInteractions(occupancy);
+    }
+
+    @Test
+    void holdsConfirmedMeanwhileAreNotCounted() {
+        when(bookingRepository.findExpiredHolds(eq(now), any())).thenReturn(List.of(hold(1L, 5L)));
+        when(bookingRepository.expireHolds(List.of(1L))).thenReturn(0);
+
+        assertThat(reaper.expireHolds(now)).isZero();
+    }
+}
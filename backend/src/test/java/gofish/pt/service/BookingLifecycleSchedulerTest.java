@@ -0,0 +1,95 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingLifecycleSchedulerTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityVersions availabilityVersions;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingLifecycleScheduler scheduler;
+    private final LocalDate today = LocalDate.of(2025, 6, 10);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new BookingLifecycleScheduler(bookingRepository, availabilityVersions, dashboardCounters,
+                transactionManager, meterRegistry);
+    }
+
+    @Test
+    void catchesUpOneDateAtATimeOldestFirst() {
+        when(bookingRepository.findOldestStartToActivate(today))
+                .thenReturn(today.minusDays(3)).thenReturn(today).thenReturn(null);
+        when(bookingRepository.activateStartingOn(today.minusDays(3))).thenReturn(2);
+        when(bookingRepository.activateStartingOn(today)).thenReturn(5);
+        when(bookingRepository.findOldestEndToComplete(today))
+                .thenReturn(today.minusDays(1)).thenReturn(null);
+        when(bookingRepository.completeEndingOn(today.minusDays(1))).thenReturn(4);
+
+        BookingLifecycleScheduler.Transitions done = scheduler.advance(today);
+
+        assertThat(done.activated()).isEqualTo(7);
+        assertThat(done.completed()).isEqualTo(4);
+
+        var inOrder = inOrder(bookingRepository);
+        inOrder.verify(bookingRepository).activateStartingOn(today.minusDays(3));
+        inOrder.verify(bookingRepository).activateStartingOn(today);
+        inOrder.verify(bookingRepository).completeEndingOn(today.minusDays(1));
+        verify(transactionManager, times(3)).commit(any());
+        verify(availabilityVersions).bumpAll();
+        verify(dashboardCounters).bookingsMoved(BookingStatus.CONFIRMED, BookingStatus.ACTIVE, 7, 0);
+        verify(dashboardCounters).bookingsMoved(BookingStatus.ACTIVE, BookingStatus.COMPLETED, 4, 0);
+    }
+
+    @Test
+    void recordsTransitionsAndRunTime() {
+        when(bookingRepository.findOldestStartToActivate(today)).thenReturn(today).thenReturn(null);
+        when(bookingRepository.activateStartingOn(today)).thenReturn(3);
+        when(bookingRepository.findOldestEndToComplete(today)).thenReturn(null);
+
+        scheduler.advance(today);
+        scheduler.advance(today);
+
+        assertThat(meterRegistry.get("bookings.lifecycle.transitions").tag("to", "ACTIVE").counter().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("bookings.lifecycle.transitions").tag("to", "COMPLETED").counter().count())
+                .isZero();
+        assertThat(meterRegistry.get("bookings.lifecycle.run").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void stopsWhenADateHasNothingLeftToUpdate() {
+        when(bookingRepository.findOldestStartToActivate(today)).thenReturn(today);
+        when(bookingRepository.activateStartingOn(today)).thenReturn(0);
+        when(bookingRepository.findOldestEndToComplete(today)).thenReturn(null);
+
+        assertThat(scheduler.advance(today).activated()).isZero();
+        verify(bookingRepository, times(1)).activateStartingOn(today);
+        verifyNoInteractions(availabilityVersions);
+    }
+}
@@ -1,27 +1,42 @@
 package gofish.pt.service;
 
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
+import gofish.pt.dto.BookingCursor;
+import gofish.pt.dto.CursorPageDTO;
+import gofish.pt.dto.DateRange;
+import gofish.pt.dto.ItemDateRange;
 import gofish.pt.entity.*;
 import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.BlockedDateRuleRepository;
+import gofish.pt.repository.BookingCartRepository;
 import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.BookingRepository.OwnerBookingRow;
 import gofish.pt.repository.ItemRepository;
 import gofish.pt.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class) // <--- Liga o Mockito
@@ -42,6 +57,15 @@ class BookingServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private BookingCartRepository bookingCartRepository;
+
+    @Mock
+    private BlockedDateRuleRepository blockedDateRuleRepository;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -54,7 +78,9 @@ class BookingServiceTest {
     @BeforeEach
     void setup() {
         bookingService = new BookingService(bookingRepository, itemRepository, userRepository, blockedDateRepository,
-                userService);
+                userService, new ItemOccupancyCache(bookingRepository, blockedDateRepository, blockedDateRuleRepository,
+                        400, 100),
+                new AvailabilityVersions(), bookingCartRepository, blockedDateRuleRepository, dashboardCounters);
         renter = new User();
         renter.setId(10L);
         renter.setUsername("ze_aluga");
@@ -87,13 +113,15 @@ class BookingServiceTest {
         // Arrange (Preparar o terreno)
         LocalDate start = LocalDate.now().plusDays(5);
         LocalDate end = LocalDate.now().plusDays(7);
+        fishingRod.setPrice(12.5);
 
         when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
-        when(itemRepository.findById(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
+        when(itemRepository.findByIdForUpdate(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
         // User is active (not suspended)
         when(userService.isUserActive(renter.getId())).thenReturn(true);
         // O repositório diz que NÃO há sobreposição (false)
-        when(bookingRepository.existsOverlappingBooking(fishingRod.getId(), start, end)).thenReturn(false);
+        when(bookingRepository.existsOverlappingBooking(eq(fishingRod.getId()), eq(start), eq(end), any()))
+                .thenReturn(false);
         // Quando salvar, devolve a reserva criada
         when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
 
@@ -104,6 +132,11 @@ class BookingServiceTest {
         assertThat(created).isNotNull();
         assertThat(created.getStatus()).isEqualTo(BookingStatus.PENDING);
         assertThat(created.getUser()).isEqualTo(renter);
+        // Fica a segurar as datas enquanto o pagamento é feito
+        assertThat(created.getHoldExpiresAt()).isAfter(LocalDateTime.now());
+        assertThat(created.occupiesAt(LocalDateTime.now())).isTrue();
+        // O preço fica guardado em cêntimos: 2 dias * 12.5
+        assertThat(created.getPriceCents()).isEqualTo(2500L);
 
         // Garante que o método save() foi chamado uma vez
         verify(bookingRepository, times(1)).save(any(Booking.class));
@@ -117,12 +150,13 @@ class BookingServiceTest {
         LocalDate end = LocalDate.now().plusDays(7);
 
         when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
-        when(itemRepository.findById(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
+        when(itemRepository.findByIdForUpdate(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
         // User is active (not suspended)
         when(userService.isUserActive(renter.getId())).thenReturn(true);
 
         // O repositório diz que SIM, há sobreposição (true)
-        when(bookingRepository.existsOverlappingBooking(fishingRod.getId(), start, end)).thenReturn(true);
+        when(bookingRepository.existsOverlappingBooking(eq(fishingRod.getId()), eq(start), eq(end), any()))
+                .thenReturn(true);
 
         // Act & Assert
         assertThatThrownBy(() -> bookingService.createBooking(renter.getId(), fishingRod.getId(), start, end))
@@ -133,6 +167,30 @@ class BookingServiceTest {
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Deve recusar reserva em dias bloqueados por uma regra recorrente")
+    void shouldThrowError_WhenRecurringRuleBlocksANight() {
+        LocalDate start = LocalDate.of(2030, 6, 3); // Segunda
+        LocalDate end = start.plusDays(7);
+        BlockedDateRule sundays = new BlockedDateRule(RecurringBlocks.weekdayBit(DayOfWeek.SUNDAY), null, null,
+                "Folga", fishingRod);
+
+        when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
+        when(itemRepository.findByIdForUpdate(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
+        when(userService.isUserActive(renter.getId())).thenReturn(true);
+        when(blockedDateRuleRepository.findAllByItemId(fishingRod.getId())).thenReturn(List.of(sundays));
+
+        assertThatThrownBy(() -> bookingService.createBooking(renter.getId(), fishingRod.getId(), start, end))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Item não disponível");
+        verify(bookingRepository, never()).save(any());
+
+        // A saída ao domingo não conta: de segunda a domingo só há noites de semana
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
+        assertThat(bookingService.createBooking(renter.getId(), fishingRod.getId(), start, start.plusDays(6)))
+                .isNotNull();
+    }
+
     // --- TESTES DE APROVAR/ATUALIZAR (updateBookingStatus) ---
 
     @Test
@@ -141,7 +199,7 @@ class BookingServiceTest {
     void ownerShouldConfirmBooking() {
         // Arrange
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(bookingRepository.updateStatusIfPending(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(1);
 
         // Act
         Booking updated = bookingService.updateBookingStatus(booking.getId(), BookingStatus.CONFIRMED, owner.getId());
@@ -150,6 +208,52 @@ class BookingServiceTest {
         assertThat(updated.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
     }
 
+    @Test
+    @DisplayName("Não deve confirmar uma reserva que sobrepõe outra já confirmada")
+    void shouldNotConfirmOverlappingBooking() {
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.existsOverlappingBooking(eq(fishingRod.getId()), eq(booking.getStartDate()),
+                eq(booking.getEndDate()), any())).thenReturn(true);
+
+        assertThatThrownBy(
+                () -> bookingService.updateBookingStatus(booking.getId(), BookingStatus.CONFIRMED, owner.getId()))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(itemRepository).findByIdForUpdate(fishingRod.getId());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Confirmar uma retenção ainda válida não volta a verificar as datas")
+    void shouldConfirmLiveHoldWithoutRecheck() {
+        booking.setHoldExpiresAt(LocalDateTime.now().plusMinutes(10));
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusIfPending(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(1);
+
+        Booking updated = bookingService.updateBookingStatus(booking.getId(), BookingStatus.CONFIRMED, owner.getId());
+
+        assertThat(updated.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        verify(itemRepository, never()).findByIdForUpdate(any());
+        verify(bookingRepository, never()).existsOverlappingBooking(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Não deve confirmar uma retenção que o reaper cancelou entretanto")
+    void shouldNotConfirmHoldExpiredByReaperMeanwhile() {
+        booking.setHoldExpiresAt(LocalDateTime.now().plusMinutes(10));
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        // Na base de dados já está CANCELLED, por isso o UPDATE condicional não apanha nada
+        when(bookingRepository.updateStatusIfPending(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(0);
+
+        assertThatThrownBy(
+                () -> bookingService.updateBookingStatus(booking.getId(), BookingStatus.CONFIRMED, owner.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("já foi tratada");
+
+        verify(bookingRepository, never()).save(any());
+        verifyNoInteractions(dashboardCounters);
+    }
+
     @Test
     @DisplayName("Deve lançar erro se quem tenta confirmar não for o dono")
     @Requirement("GF-48")
@@ -196,7 +300,7 @@ class BookingServiceTest {
         existing.setEndDate(today.plusDays(2)); // Reserva de 1 dia
         existing.setStatus(BookingStatus.CONFIRMED);
 
-        when(bookingRepository.findBookingsInRange(eq(fishingRod.getId()), any(), any()))
+        when(bookingRepository.findBookingsInRange(eq(fishingRod.getId()), any(), any(), any()))
                 .thenReturn(List.of(existing));
 
         when(blockedDateRepository.findBlockedDatesInRange(eq(fishingRod.getId()), any(), any()))
@@ -251,7 +355,7 @@ class BookingServiceTest {
         LocalDate end = LocalDate.now().plusDays(7);
 
         when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
-        when(itemRepository.findById(999L)).thenReturn(Optional.empty());
+        when(itemRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.createBooking(renter.getId(), 999L, start, end))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -267,7 +371,7 @@ class BookingServiceTest {
         LocalDate end = LocalDate.now().plusDays(7);
 
         when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        when(itemRepository.findById(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
+        when(itemRepository.findByIdForUpdate(fishingRod.getId())).thenReturn(Optional.of(fishingRod));
         // User is active (not suspended) - this check happens before the "own item"
         // check
         when(userService.isUserActive(owner.getId())).thenReturn(true);
@@ -279,6 +383,130 @@ class BookingServiceTest {
         verify(bookingRepository, never()).save(any());
     }
 
+    // --- TESTES DO CARRINHO (createCartBooking) ---
+
+    private Item reel() {
+        Item reel = new Item();
+        reel.setId(3L);
+        reel.setName("Carreto");
+        reel.setOwner(owner);
+        reel.setActive(true);
+        reel.setPrice(5.0);
+        return reel;
+    }
+
+    @Test
+    @DisplayName("Deve reservar o carrinho todo, trancando os itens por ordem de id e inserindo tudo de uma vez")
+    @SuppressWarnings("unchecked")
+    void shouldCreateCart_LockingItemsInIdOrder() {
+        LocalDate start = LocalDate.now().plusDays(5);
+        LocalDate end = LocalDate.now().plusDays(7);
+        fishingRod.setPrice(10.0);
+        Item reel = reel();
+
+        when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
+        when(userService.isUserActive(renter.getId())).thenReturn(true);
+        when(itemRepository.findAllByIdForUpdate(any())).thenReturn(List.of(reel, fishingRod));
+        when(bookingRepository.findItemIdsWithOverlappingBooking(any(), eq(start), eq(end), any())).thenReturn(List.of());
+        when(bookingCartRepository.save(any(BookingCart.class))).thenAnswer(i -> {
+            BookingCart cart = i.getArgument(0);
+            cart.setId(7L);
+            return cart;
+        });
+        when(bookingRepository.findAllByCartIdOrderByItemIdAsc(7L)).thenReturn(List.of(booking));
+
+        List<Booking> created = bookingService.createCartBooking(renter.getId(), List.of(5L, 3L, 5L), start, end);
+
+        assertThat(created).containsExactly(booking);
+
+        ArgumentCaptor<Collection<Long>> locked = ArgumentCaptor.forClass(Collection.class);
+        verify(itemRepository).findAllByIdForUpdate(locked.capture());
+        assertThat(locked.getValue()).containsExactly(3L, 5L);
+
+        ArgumentCaptor<List<Booking>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bookingRepository).insertAll(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Booking::getItem).containsExactly(reel, fishingRod);
+        assertThat(inserted.getValue()).extracting(Booking::getPriceCents).containsExactly(1000L, 2000L);
+        assertThat(inserted.getValue()).allSatisfy(b -> {
+            assertThat(b.getStatus()).isEqualTo(BookingStatus.PENDING);
+            assertThat(b.getCart().getId()).isEqualTo(7L);
+            assertThat(b.getHoldExpiresAt()).isAfter(LocalDateTime.now());
+        });
+        assertThat(inserted.getValue().get(0).getCart().getTotalCents()).isEqualTo(3000L);
+
+        verify(bookingRepository, never()).save(any());
+        verify(bookingRepository, never()).existsOverlappingBooking(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Não deve reservar nada do carrinho se algum item estiver ocupado")
+    void shouldRejectWholeCart_WhenOneItemIsTaken() {
+        LocalDate start = LocalDate.now().plusDays(5);
+        LocalDate end = LocalDate.now().plusDays(7);
+
+        when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
+        when(userService.isUserActive(renter.getId())).thenReturn(true);
+        when(itemRepository.findAllByIdForUpdate(any())).thenReturn(List.of(reel(), fishingRod));
+        when(bookingRepository.findItemIdsWithOverlappingBooking(any(), eq(start), eq(end), any()))
+                .thenReturn(List.of(5L));
+
+        assertThatThrownBy(() -> bookingService.createCartBooking(renter.getId(), List.of(3L, 5L), start, end))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("5");
+
+        verify(bookingCartRepository, never()).save(any());
+        verify(bookingRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("Não deve reservar o carrinho se uma regra recorrente bloquear um dos itens")
+    void shouldRejectCart_WhenRuleBlocksOneItem() {
+        LocalDate start = LocalDate.of(2030, 1, 10);
+        LocalDate end = start.plusDays(2);
+        Item reel = reel();
+
+        when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
+        when(userService.isUserActive(renter.getId())).thenReturn(true);
+        when(itemRepository.findAllByIdForUpdate(any())).thenReturn(List.of(reel, fishingRod));
+        when(bookingRepository.findItemIdsWithOverlappingBooking(any(), eq(start), eq(end), any()))
+                .thenReturn(List.of());
+        when(blockedDateRuleRepository.findAllByItemIdIn(any())).thenReturn(List.of(
+                new BlockedDateRule(RecurringBlocks.ALL_WEEKDAYS, 1101, 228, "Defeso", reel)));
+
+        assertThatThrownBy(() -> bookingService.createCartBooking(renter.getId(), List.of(3L, 5L), start, end))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[3]");
+        verify(bookingRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro se algum item do carrinho não existir")
+    void shouldRejectCart_WhenItemNotFound() {
+        LocalDate start = LocalDate.now().plusDays(5);
+        LocalDate end = LocalDate.now().plusDays(7);
+
+        when(userRepository.findById(renter.getId())).thenReturn(Optional.of(renter));
+        when(userService.isUserActive(renter.getId())).thenReturn(true);
+        when(itemRepository.findAllByIdForUpdate(any())).thenReturn(List.of(fishingRod));
+
+        assertThatThrownBy(() -> bookingService.createCartBooking(renter.getId(), List.of(5L, 999L), start, end))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Item não encontrado");
+
+        verify(bookingRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro com o carrinho vazio")
+    void shouldRejectEmptyCart() {
+        LocalDate start = LocalDate.now().plusDays(5);
+
+        assertThatThrownBy(() -> bookingService.createCartBooking(renter.getId(), List.of(), start, start.plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     @DisplayName("Deve lançar erro quando booking não encontrado")
     void shouldThrowError_WhenBookingNotFoundForUpdate() {
@@ -388,7 +616,7 @@ class BookingServiceTest {
 
         BlockedDate blockedDate = new BlockedDate(today.plusDays(1), today.plusDays(2), "Manutenção", fishingRod);
 
-        when(bookingRepository.findBookingsInRange(eq(fishingRod.getId()), any(), any()))
+        when(bookingRepository.findBookingsInRange(eq(fishingRod.getId()), any(), any(), any()))
                 .thenReturn(List.of());
         when(blockedDateRepository.findBlockedDatesInRange(eq(fishingRod.getId()), any(), any()))
                 .thenReturn(List.of(blockedDate));
@@ -397,4 +625,130 @@ class BookingServiceTest {
 
         assertThat(unavailableDates).contains(today.plusDays(1), today.plusDays(2));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Fora do horizonte da cache deve calcular os dias a partir da base de dados")
+    void shouldComputeUnavailableDatesBeyondCacheHorizon() {
+        LocalDate queryStart = LocalDate.now().plusDays(395);
+        LocalDate queryEnd = queryStart.plusDays(10);
+
+        Booking first = new Booking();
+        first.setStartDate(queryStart.minusDays(2));
+        first.setEndDate(queryStart.plusDays(1));
+        Booking second = new Booking();
+        second.setStartDate(queryStart.plusDays(8));
+        second.setEndDate(queryEnd.plusDays(3));
+        BlockedDate blockedDate = new BlockedDate(queryStart.plusDays(1), queryStart.plusDays(2), "Manutenção",
+                fishingRod);
+
+        when(bookingRepository.findBookingsInRange(eq(fishingRod.getId()), eq(queryStart), eq(queryEnd), any()))
+                .thenReturn(List.of(second, first));
+        when(blockedDateRepository.findBlockedDatesInRange(fishingRod.getId(), queryStart, queryEnd))
+                .thenReturn(List.of(blockedDate));
+
+        List<LocalDate> unavailableDates = bookingService.getUnavailableDates(fishingRod.getId(), queryStart, queryEnd);
+
+        assertThat(unavailableDates).containsExactly(queryStart, queryStart.plusDays(1), queryStart.plusDays(2),
+                queryStart.plusDays(8), queryStart.plusDays(9), queryEnd);
+    }
+
+    @Test
+    @DisplayName("Deve devolver intervalos indisponíveis de vários items com duas queries")
+    void shouldReturnUnavailableRangesForSeveralItems() {
+        LocalDate today = LocalDate.now();
+        LocalDate queryStart = today.minusDays(2);
+        LocalDate queryEnd = today.plusDays(10);
+        List<Long> ids = List.of(5L, 6L, 7L);
+
+        when(bookingRepository.findBookingRangesForItems(eq(ids), eq(queryStart), eq(queryEnd), any())).thenReturn(List.of(
+                new ItemDateRange(5L, today.plusDays(1), today.plusDays(2)),
+                new ItemDateRange(6L, today.plusDays(8), today.plusDays(20))));
+        when(blockedDateRepository.findBlockedRangesForItems(ids, queryStart, queryEnd)).thenReturn(List.of(
+                new ItemDateRange(5L, today.plusDays(3), today.plusDays(4))));
+
+        Map<Long, List<DateRange>> ranges = bookingService.getUnavailableRanges(ids, queryStart, queryEnd);
+
+        assertThat(ranges).containsOnlyKeys(5L, 6L, 7L);
+        assertThat(ranges.get(5L)).containsExactly(new DateRange(queryStart, today.minusDays(1)),
+                new DateRange(today.plusDays(1), today.plusDays(4)));
+        assertThat(ranges.get(6L)).containsExactly(new DateRange(queryStart, today.minusDays(1)),
+                new DateRange(today.plusDays(8), queryEnd));
+        assertThat(ranges.get(7L)).containsExactly(new DateRange(queryStart, today.minusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Os intervalos em lote incluem as regras recorrentes de cada item")
+    void shouldIncludeRecurringRulesInUnavailableRanges() {
+        LocalDate monday = LocalDate.of(2030, 6, 3);
+        int weekend = RecurringBlocks.weekdayBit(DayOfWeek.SATURDAY) | RecurringBlocks.weekdayBit(DayOfWeek.SUNDAY);
+        when(blockedDateRuleRepository.findAllByItemIdIn(List.of(5L, 6L))).thenReturn(List.of(
+                new BlockedDateRule(weekend, null, null, null, fishingRod)));
+
+        Map<Long, List<DateRange>> ranges = bookingService.getUnavailableRanges(List.of(5L, 6L), monday,
+                monday.plusDays(9));
+
+        assertThat(ranges.get(5L)).containsExactly(new DateRange(monday.plusDays(5), monday.plusDays(6)));
+        assertThat(ranges.get(6L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve recusar pedidos em lote vazios")
+    void shouldRejectEmptyBatch() {
+        LocalDate today = LocalDate.now();
+
+        assertThatThrownBy(() -> bookingService.getUnavailableRanges(List.of(), today, today.plusDays(1)))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(bookingRepository, blockedDateRepository);
+    }
+
+    private OwnerBookingRow inboxRow(Long id, LocalDate startDate) {
+        OwnerBookingRow row = mock(OwnerBookingRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getStartDate()).thenReturn(startDate);
+        return row;
+    }
+
+    @Test
+    @DisplayName("Caixa do dono: pede uma linha a mais e devolve o cursor da última")
+    void shouldPageOwnerInboxWithCursor() {
+        LocalDate day = LocalDate.of(2025, 5, 1);
+        List<OwnerBookingRow> rows = List.of(inboxRow(9L, day.plusDays(2)), inboxRow(7L, day.plusDays(1)),
+                inboxRow(3L, day));
+        when(bookingRepository.findOwnerInbox(eq(20L), eq(EnumSet.allOf(BookingStatus.class)), any()))
+                .thenReturn(rows);
+
+        CursorPageDTO<OwnerBookingRow> page = bookingService.getOwnerInbox(20L, null, 2, null);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(BookingCursor.decode(page.getNextCursor())).isEqualTo(new BookingCursor(day.plusDays(1), 7L));
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookingRepository).findOwnerInbox(eq(20L), any(), pageable.capture());
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Caixa do dono: continua a partir do cursor e filtra por estado")
+    void shouldContinueOwnerInboxFromCursor() {
+        LocalDate day = LocalDate.of(2025, 5, 1);
+        String cursor = new BookingCursor(day, 7L).encode();
+        List<OwnerBookingRow> rows = List.of(inboxRow(3L, day));
+        when(bookingRepository.findOwnerInboxAfter(eq(20L), eq(EnumSet.of(BookingStatus.PENDING)), eq(day), eq(7L),
+                any())).thenReturn(rows);
+
+        CursorPageDTO<OwnerBookingRow> page = bookingService.getOwnerInbox(20L, BookingStatus.PENDING, 20, cursor);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        verify(bookingRepository, never()).findOwnerInbox(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Caixa do dono: cursor inválido dá 400")
+    void shouldRejectMalformedInboxCursor() {
+        assertThatThrownBy(() -> bookingService.getOwnerInbox(20L, null, 20, "nope"))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(bookingRepository);
+    }
+}
@@ -0,0 +1,173 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.ItemFilter;
+import gofish.pt.entity.Category;
+import gofish.pt.entity.Item;
+import gofish.pt.entity.Material;
+import gofish.pt.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private CatalogSnapshotService catalogSnapshot;
+
+    private Item rod;
+    private Item reel;
+    private Item kayak;
+
+    @BeforeEach
+    void setUp() {
+        catalogSnapshot = new CatalogSnapshotService(itemRepository, true);
+
+        rod = item(1L, "Rod", Category.RODS, Material.GRAPHITE, 15.0);
+        reel = item(2L, "Reel", Category.REELS, Material.ALUMINUM, 8.0);
+        kayak = item(3L, "Kayak", Category.KAYAKS, Material.ROTOMOLDED_POLYETHYLENE, 40.0);
+
+        when(itemRepository.findAll()).thenReturn(List.of(kayak, rod, reel));
+        catalogSnapshot.rebuild();
+    }
+
+    private Item item(Long id, String name, Category category, Material material, double price) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(name);
+        item.setPhotoUrls(new ArrayList<>());
+        item.setCategory(category);
+        item.setMaterial(material);
+        item.setPrice(price);
+        return item;
+    }
+
+    private ItemFilter filter(Category category, Double min, Double max, String sortBy, Sort.Direction direction) {
+        return new ItemFilter(null, category, null, min, max, sortBy, direction);
+    }
+
+    @Test
+    void queryDefaultsToIdOrder() {
+        assertThat(catalogSnapshot.query(filter(null, null, null, null, null)))
+                .containsExactly(rod, reel, kayak);
+    }
+
+    @Test
+    void queryFiltersByCategoryAndPrice() {
+        assertThat(catalogSnapshot.query(filter(Category.RODS, null, null, null, null))).containsExactly(rod);
+        assertThat(catalogSnapshot.query(filter(null, 10.0, 20.0, null, null))).containsExactly(rod);
+    }
+
+    @Test
+    void queryMatchesCategorySubtree() {
+        ItemFilter boats = new ItemFilter(null, Category.BOATS, null, null, null, null, null, true, null, null);
+
+        assertThat(catalogSnapshot.query(filter(Category.BOATS, null, null, null, null))).isEmpty();
+        assertThat(catalogSnapshot.query(boats)).containsExactly(kayak);
+    }
+
+    @Test
+    void querySortsByPriceDescending() {
+        assertThat(catalogSnapshot.query(filter(null, null, null, "price", Sort.Direction.DESC)))
+                .containsExactly(kayak, rod, reel);
+    }
+
+    @Test
+    void publishReplacesRowAndHidesInactiveItems() {
+        rod.setActive(false);
+        catalogSnapshot.publish(rod);
+
+        assertThat(catalogSnapshot.query(filter(null, null, null, null, null))).containsExactly(reel, kayak);
+    }
+
+    @Test
+    void publishAddsNewItemAndEvictRemovesIt() {
+        Item net = item(4L, "Net", Category.NETS, Material.RUBBER_MESH, 3.0);
+        catalogSnapshot.publish(net);
+        assertThat(catalogSnapshot.query(filter(null, null, null, "price", Sort.Direction.ASC)))
+                .containsExactly(net, reel, rod, kayak);
+
+        catalogSnapshot.evict(4L);
+        assertThat(catalogSnapshot.query(filter(null, null, null, null, null))).doesNotContain(net);
+    }
+
+    @Test
+    void publishAllReplacesAndAddsRowsInOneCopy() {
+        Item net = item(4L, "Net", Category.NETS, Material.RUBBER_MESH, 3.0);
+        rod.setActive(false);
+        catalogSnapshot.publishAll(List.of(net, rod));
+
+        assertThat(catalogSnapshot.query(filter(null, null, null, null, null))).containsExactly(reel, kayak, net);
+    }
+
+    @Test
+    void rebuildKeepsChangesPublishedWhileLoading() {
+        Item net = item(4L, "Net", Category.NETS, Material.RUBBER_MESH, 3.0);
+        // Both changes commit after the load has read the catalog
+        when(itemRepository.findAll()).thenAnswer(invocation -> {
+            catalogSnapshot.publish(net);
+            catalogSnapshot.evict(3L);
+            return List.of(kayak, rod, reel);
+        });
+
+        catalogSnapshot.rebuild();
+
+        assertThat(catalogSnapshot.query(filter(null, null, null, null, null))).containsExactly(rod, reel, net);
+
+        // A later rebuild does not replay them again
+        doReturn(List.of(kayak, rod, reel)).when(itemRepository).findAll();
+        catalogSnapshot.rebuild();
+        assertThat(catalogSnapshot.query(filter(null, null, null, null, null))).containsExactly(rod, reel, kayak);
+    }
+
+    @Test
+    void textSearchIsNotSupported() {
+        assertThat(catalogSnapshot.supports(new ItemFilter("rod", null, null, null, null, null, null))).isFalse();
+        assertThat(catalogSnapshot.supports(filter(Category.RODS, null, null, "price", null))).isTrue();
+    }
+
+    @Test
+    void dateRangeIsNotSupported() {
+        ItemFilter range = new ItemFilter(null, null, null, null, null, null, null, null, LocalDate.now(), null);
+
+        assertThat(catalogSnapshot.supports(range)).isFalse();
+    }
+
+    @Test
+    void nothingIsSupportedBeforeTheFirstRebuild() {
+        CatalogSnapshotService fresh = new CatalogSnapshotService(itemRepository, true);
+        assertThat(fresh.supports(filter(null, null, null, null, null))).isFalse();
+
+        // A failed load keeps the database answering
+        when(itemRepository.findAll()).thenThrow(new IllegalStateException("connection refused"));
+        assertThatThrownBy(fresh::rebuild).isInstanceOf(IllegalStateException.class);
+        assertThat(fresh.supports(filter(null, null, null, null, null))).isFalse();
+
+        doReturn(List.of(rod)).when(itemRepository).findAll();
+        fresh.rebuild();
+        assertThat(fresh.supports(filter(null, null, null, null, null))).isTrue();
+    }
+
+    @Test
+    void disabledEngineIgnoresWrites() {
+        CatalogSnapshotService disabled = new CatalogSnapshotService(itemRepository, false);
+        disabled.publish(rod);
+
+        assertThat(disabled.supports(filter(null, null, null, null, null))).isFalse();
+        assertThat(disabled.query(filter(null, null, null, null, null))).isEmpty();
+    }
+}
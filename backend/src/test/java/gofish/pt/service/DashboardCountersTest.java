@@ -0,0 +1,209 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.AdminDashboardDTO;
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.entity.PaymentStatus;
+import gofish.pt.entity.UserStatus;
+import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.ItemRepository;
+import gofish.pt.repository.PaymentRepository;
+import gofish.pt.repository.UserRepository;
+import gofish.pt.repository.UserStatusRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCountersTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserStatusRepository userStatusRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DashboardCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counters = new DashboardCounters(userRepository, userStatusRepository, itemRepository, bookingRepository,
+                paymentRepository, transactionManager, meterRegistry);
+    }
+
+    private void databaseHas(long users, long suspended, long items, long inactive, long confirmed, long pending,
+            long revenueCents) {
+        when(userRepository.count()).thenReturn(users);
+        when(userStatusRepository.countByStatus(UserStatus.STATUS_SUSPENDED)).thenReturn(suspended);
+        when(userStatusRepository.countByStatus(UserStatus.STATUS_DELETED)).thenReturn(0L);
+        when(itemRepository.count()).thenReturn(items);
+        when(itemRepository.countByActiveFalse()).thenReturn(inactive);
+        when(bookingRepository.getStatusTotals()).thenReturn(List.of(
+                bookings(BookingStatus.CONFIRMED, confirmed, revenueCents),
+                bookings(BookingStatus.PENDING, pending, 0),
+                bookings(BookingStatus.CANCELLED, 1, 99900)));
+        when(paymentRepository.getStatusCounts()).thenReturn(List.of());
+    }
+
+    private BookingRepository.StatusTotals bookings(BookingStatus status, long count, long priceCents) {
+        return new BookingRepository.StatusTotals() {
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public long getPriceCents() {
+                return priceCents;
+            }
+        };
+    }
+
+    private double gauge(String name, String status) {
+        return meterRegistry.get(name).tag("status", status).gauge().value();
+    }
+
+    @Test
+    void firstReadLoadsTheAggregatesOnce() {
+        databaseHas(10, 1, 2, 1, 4, 2, 12345);
+
+        AdminDashboardDTO first = counters.snapshot();
+        AdminDashboardDTO second = counters.snapshot();
+
+        assertThat(first.getTotalUsers()).isEqualTo(10);
+        assertThat(first.getSuspendedUsers()).isEqualTo(1);
+        assertThat(first.getTotalItems()).isEqualTo(2);
+        assertThat(first.getInactiveItems()).isEqualTo(1);
+        assertThat(first.getActiveBookings()).isEqualTo(4);
+        assertThat(first.getPendingBookings()).isEqualTo(2);
+        assertThat(first.getTotalRevenue()).isEqualTo(123.45);
+        assertThat(second.getTotalRevenue()).isEqualTo(123.45);
+        verify(bookingRepository, times(1)).getStatusTotals();
+        verify(bookingRepository, never()).findAll();
+        verify(itemRepository, never()).findAll();
+    }
+
+    @Test
+    void writePathsMoveTheTotals() {
+        databaseHas(0, 0, 0, 0, 0, 0, 0);
+        counters.reconcile();
+
+        counters.userAdded();
+        counters.userStatusChanged(UserStatus.STATUS_ACTIVE, UserStatus.STATUS_SUSPENDED);
+        counters.itemAdded(true);
+        counters.itemActiveChanged(true, false);
+        counters.bookingsAdded(BookingStatus.PENDING, 3, 9000);
+        counters.bookingsMoved(BookingStatus.PENDING, BookingStatus.CONFIRMED, 1, 2500);
+        counters.bookingsMoved(BookingStatus.PENDING, BookingStatus.CANCELLED, 1, 0);
+        counters.bookingsMoved(BookingStatus.CONFIRMED, BookingStatus.ACTIVE, 1, 0);
+
+        AdminDashboardDTO result = counters.snapshot();
+
+        assertThat(result.getTotalUsers()).isEqualTo(1);
+        assertThat(result.getSuspendedUsers()).isEqualTo(1);
+        assertThat(result.getTotalItems()).isEqualTo(1);
+        assertThat(result.getInactiveItems()).isEqualTo(1);
+        assertThat(result.getPendingBookings()).isEqualTo(1);
+        assertThat(result.getActiveBookings()).isZero();
+        // An ACTIVE booking is still paid
+        assertThat(result.getTotalRevenue()).isEqualTo(25.0);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        databaseHas(5, 0, 0, 0, 0, 0, 0);
+        counters.reconcile();
+        counters.userAdded();
+        counters.userAdded();
+
+        // Only one of the two registrations reached this database (e.g. the other rolled back elsewhere)
+        databaseHas(6, 0, 0, 0, 0, 0, 0);
+        counters.reconcile();
+
+        assertThat(counters.snapshot().getTotalUsers()).isEqualTo(6);
+    }
+
+    @Test
+    void gaugesReadTheTotalsWithoutQuerying() {
+        counters.userAdded();
+        counters.userAdded();
+        counters.userStatusChanged(UserStatus.STATUS_ACTIVE, UserStatus.STATUS_SUSPENDED);
+        counters.itemAdded(false);
+        counters.bookingsAdded(BookingStatus.PENDING, 2, 4000);
+        counters.bookingsMoved(BookingStatus.PENDING, BookingStatus.CONFIRMED, 1, 1500);
+        counters.paymentAdded(PaymentStatus.PENDING);
+        counters.paymentMoved(PaymentStatus.PENDING, PaymentStatus.SUCCEEDED);
+
+        assertThat(gauge("kpi.bookings", "PENDING")).isEqualTo(1);
+        assertThat(gauge("kpi.bookings", "CONFIRMED")).isEqualTo(1);
+        assertThat(gauge("kpi.payments", "PENDING")).isZero();
+        assertThat(gauge("kpi.payments", "SUCCEEDED")).isEqualTo(1);
+        assertThat(gauge("kpi.users", "ACTIVE")).isEqualTo(1);
+        assertThat(gauge("kpi.users", "SUSPENDED")).isEqualTo(1);
+        assertThat(gauge("kpi.items", "ACTIVE")).isZero();
+        assertThat(gauge("kpi.items", "INACTIVE")).isEqualTo(1);
+        assertThat(meterRegistry.get("kpi.revenue").gauge().value()).isEqualTo(1500);
+        assertThat(meterRegistry.get("kpi.bookings.transitions").tag("to", "PENDING").counter().count())
+                .isEqualTo(2);
+        verifyNoInteractions(userRepository, userStatusRepository, itemRepository, bookingRepository,
+                paymentRepository);
+    }
+
+    @Test
+    void reconcileLoadsEveryStatus() {
+        when(userRepository.count()).thenReturn(3L);
+        when(userStatusRepository.countByStatus(UserStatus.STATUS_SUSPENDED)).thenReturn(0L);
+        when(userStatusRepository.countByStatus(UserStatus.STATUS_DELETED)).thenReturn(1L);
+        when(bookingRepository.getStatusTotals()).thenReturn(List.of(
+                bookings(BookingStatus.COMPLETED, 2, 5000),
+                bookings(BookingStatus.CANCELLED, 1, 99900)));
+        when(paymentRepository.getStatusCounts()).thenReturn(List.of(new PaymentRepository.StatusCount() {
+            @Override
+            public PaymentStatus getStatus() {
+                return PaymentStatus.FAILED;
+            }
+
+            @Override
+            public long getCount() {
+                return 4;
+            }
+        }));
+
+        counters.reconcile();
+
+        assertThat(counters.get(BookingStatus.COMPLETED)).isEqualTo(2);
+        assertThat(counters.get(BookingStatus.CANCELLED)).isEqualTo(1);
+        assertThat(counters.get(PaymentStatus.FAILED)).isEqualTo(4);
+        assertThat(gauge("kpi.users", "ACTIVE")).isEqualTo(2);
+        assertThat(gauge("kpi.users", "DELETED")).isEqualTo(1);
+        // Cancelled bookings keep their price but are not revenue
+        assertThat(counters.get(DashboardCounters.Total.REVENUE_CENTS)).isEqualTo(5000);
+    }
+}
@@ -0,0 +1,76 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateIntervalsTest {
+
+    private final LocalDate day = LocalDate.of(2026, 3, 10);
+
+    private DateRange range(int start, int end) {
+        return new DateRange(day.plusDays(start), day.plusDays(end));
+    }
+
+    @Test
+    void mergeJoinsOverlappingAndAdjacentRanges() {
+        List<DateRange> merged = DateIntervals.merge(List.of(range(10, 12), range(0, 3), range(2, 5), range(6, 6),
+                range(11, 11), range(20, 21)));
+
+        assertThat(merged).containsExactly(range(0, 6), range(10, 12), range(20, 21));
+    }
+
+    @Test
+    void mergeOfNothingIsEmpty() {
+        assertThat(DateIntervals.merge(List.of())).isEmpty();
+    }
+
+    @Test
+    void minusTrimsSplitsOrRemovesTheRange() {
+        DateRange range = range(0, 9);
+
+        assertThat(DateIntervals.minus(range, day.plusDays(3), day.plusDays(4)))
+                .containsExactly(range(0, 2), range(5, 9));
+        assertThat(DateIntervals.minus(range, day.minusDays(2), day.plusDays(1))).containsExactly(range(2, 9));
+        assertThat(DateIntervals.minus(range, day.plusDays(9), day.plusDays(12))).containsExactly(range(0, 8));
+        assertThat(DateIntervals.minus(range, day.minusDays(1), day.plusDays(10))).isEmpty();
+        assertThat(DateIntervals.minus(range, day.plusDays(10), day.plusDays(11))).containsExactly(range);
+    }
+
+    @Test
+    void daysAreClippedToTheQueryRange() {
+        List<DateRange> merged = List.of(range(-5, 1), range(4, 5), range(9, 30));
+
+        assertThat(DateIntervals.days(merged, day, day.plusDays(10))).containsExactly(day, day.plusDays(1),
+                day.plusDays(4), day.plusDays(5), day.plusDays(9), day.plusDays(10));
+    }
+
+    @Test
+    void daysOutsideEveryRangeAreFree() {
+        assertThat(DateIntervals.days(List.of(range(0, 2)), day.plusDays(3), day.plusDays(9))).isEmpty();
+    }
+
+    @Test
+    void runsAlternateFreeAndCoveredDaysClippedToTheQueryRange() {
+        List<DateRange> merged = List.of(range(-5, 1), range(4, 5), range(9, 30));
+
+        // 0..1 covered, 2..3 free, 4..5 covered, 6..8 free, 9..10 covered
+        assertThat(DateIntervals.runs(merged, day, day.plusDays(10))).containsExactly(0, 2, 2, 2, 3, 2);
+    }
+
+    @Test
+    void runsJoinTouchingRangesAndEndWithTheFreeTail() {
+        List<DateRange> ranges = List.of(range(-3, -1), range(0, 2), range(5, 5));
+
+        assertThat(DateIntervals.runs(ranges, day.minusDays(2), day.plusDays(9))).containsExactly(0, 5, 2, 1, 4);
+    }
+
+    @Test
+    void runsOfAFreeRangeIsOneRun() {
+        assertThat(DateIntervals.runs(List.of(), day, day.plusDays(29))).containsExactly(30);
+    }
+}
@@ -0,0 +1,60 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.ItemFacetsDTO;
+import gofish.pt.dto.ItemFilter;
+import gofish.pt.entity.Item;
+import gofish.pt.repository.ItemRepository;
+import gofish.pt.repository.ItemSpecifications;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemFacetServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshot;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemFacetService facetService;
+
+    private final ItemFilter filter = new ItemFilter(null, null, null, null, null, null, null);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        facetService = new ItemFacetService(itemRepository, catalogSnapshot, meterRegistry);
+    }
+
+    @Test
+    void usesSnapshotWhenItCanAnswer() {
+        ItemFacetsDTO facets = new ItemFacetsDTO();
+        when(catalogSnapshot.supports(filter)).thenReturn(true);
+        when(catalogSnapshot.facets(filter)).thenReturn(facets);
+
+        assertThat(facetService.countFacets(filter, null)).isSameAs(facets);
+        verify(itemRepository, never()).countFacets(any());
+        assertThat(meterRegistry.get("catalog.facets").tag("engine", "snapshot").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToGroupedQuery() {
+        ItemFacetsDTO facets = new ItemFacetsDTO();
+        Specification<Item> spec = ItemSpecifications.activeIs(true);
+        when(catalogSnapshot.supports(filter)).thenReturn(false);
+        when(itemRepository.countFacets(spec)).thenReturn(facets);
+
+        assertThat(facetService.countFacets(filter, spec)).isSameAs(facets);
+        assertThat(meterRegistry.get("catalog.facets").tag("engine", "database").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,156 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import gofish.pt.entity.BlockedDate;
+import gofish.pt.entity.BlockedDateRule;
+import gofish.pt.entity.Booking;
+import gofish.pt.entity.BookingStatus;
+import gofish.pt.entity.Item;
+import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.BlockedDateRuleRepository;
+import gofish.pt.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemOccupancyCacheTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BlockedDateRepository blockedDateRepository;
+
+    @Mock
+    private BlockedDateRuleRepository blockedDateRuleRepository;
+
+    private ItemOccupancyCache cache;
+    private Item rod;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemOccupancyCache(bookingRepository, blockedDateRepository, blockedDateRuleRepository, 30, 1);
+        rod = new Item();
+        rod.setId(5L);
+        today = LocalDate.now();
+    }
+
+    private Booking booking(LocalDate start, LocalDate end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(rod);
+        booking.setStartDate(start);
+        booking.setEndDate(end);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    @Test
+    void answersFromBitmapAfterFirstLoad() {
+        when(bookingRepository.findBookingsInRange(eq(5L), any(), any(), any()))
+                .thenReturn(List.of(booking(today.plusDays(2), today.plusDays(3), BookingStatus.CONFIRMED)));
+        when(blockedDateRepository.findBlockedDatesInRange(eq(5L), any(), any()))
+                .thenReturn(List.of(new BlockedDate(today.plusDays(6), today.plusDays(6), "Manutenção", rod)));
+
+        assertThat(cache.unavailableDates(5L, today.minusDays(1), today.plusDays(7)))
+                .containsExactly(today.minusDays(1), today.plusDays(2), today.plusDays(3), today.plusDays(6));
+        assertThat(cache.unavailableDates(5L, today.plusDays(3), today.plusDays(5)))
+                .containsExactly(today.plusDays(3));
+
+        verify(bookingRepository, times(1)).findBookingsInRange(eq(5L), any(), any(), any());
+        verify(blockedDateRepository, times(1)).findBlockedDatesInRange(eq(5L), any(), any());
+    }
+
+    @Test
+    void rangesAreReadOffTheBitmap() {
+        when(bookingRepository.findBookingsInRange(eq(5L), any(), any(), any()))
+                .thenReturn(List.of(booking(today.plusDays(2), today.plusDays(3), BookingStatus.CONFIRMED)));
+        when(blockedDateRepository.findBlockedDatesInRange(eq(5L), any(), any()))
+                .thenReturn(List.of(new BlockedDate(today.plusDays(4), today.plusDays(9), "Manutenção", rod)));
+
+        assertThat(cache.unavailableRanges(5L, today.minusDays(1), today.plusDays(7))).containsExactly(
+                new DateRange(today.minusDays(1), today.minusDays(1)),
+                new DateRange(today.plusDays(2), today.plusDays(7)));
+        assertThat(cache.unavailableRanges(5L, today.minusDays(3), today.minusDays(2)))
+                .containsExactly(new DateRange(today.minusDays(3), today.minusDays(2)));
+    }
+
+    @Test
+    void recurringRulesAreExpandedIntoTheBitmap() {
+        LocalDate nextSunday = today.with(TemporalAdjusters.next(DayOfWeek.SUNDAY));
+        when(blockedDateRuleRepository.findAllByItemId(5L)).thenReturn(List.of(
+                new BlockedDateRule(RecurringBlocks.weekdayBit(DayOfWeek.SUNDAY), null, null, "Folga", rod)));
+
+        assertThat(cache.unavailableDates(5L, today.plusDays(1), today.plusDays(14)))
+                .containsExactly(nextSunday, nextSunday.plusDays(7));
+    }
+
+    @Test
+    void pastRangeNeverLoads() {
+        assertThat(cache.unavailableDates(5L, today.minusDays(2), today.minusDays(1)))
+                .containsExactly(today.minusDays(2), today.minusDays(1));
+        verifyNoInteractions(bookingRepository, blockedDateRepository);
+    }
+
+    @Test
+    void confirmedBookingsAndLiveHoldsSetBitsInPlace() {
+        cache.unavailableDates(5L, today, today.plusDays(10));
+
+        Booking hold = booking(today.plusDays(4), today.plusDays(5), BookingStatus.PENDING);
+        hold.setHoldExpiresAt(LocalDateTime.now().plusMinutes(10));
+        cache.bookingChanged(hold);
+        cache.bookingChanged(booking(today.plusDays(1), today.plusDays(2), BookingStatus.CONFIRMED));
+
+        assertThat(cache.unavailableDates(5L, today, today.plusDays(10)))
+                .containsExactly(today.plusDays(1), today.plusDays(2), today.plusDays(4), today.plusDays(5));
+        verify(bookingRepository, times(1)).findBookingsInRange(eq(5L), any(), any(), any());
+    }
+
+    @Test
+    void bookingThatStopsHoldingDatesEvicts() {
+        cache.unavailableDates(5L, today, today.plusDays(10));
+
+        cache.bookingChanged(booking(today.plusDays(4), today.plusDays(5), BookingStatus.CANCELLED));
+        cache.unavailableDates(5L, today, today.plusDays(10));
+
+        verify(bookingRepository, times(2)).findBookingsInRange(eq(5L), any(), any(), any());
+    }
+
+    @Test
+    void evictReloadsFromDatabase() {
+        cache.unavailableDates(5L, today, today.plusDays(10));
+        cache.evict(5L);
+        cache.unavailableDates(5L, today, today.plusDays(10));
+
+        verify(bookingRepository, times(2)).findBookingsInRange(eq(5L), any(), any(), any());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedItem() {
+        cache.unavailableDates(5L, today, today.plusDays(1));
+        cache.unavailableDates(6L, today, today.plusDays(1));
+        cache.unavailableDates(5L, today, today.plusDays(1));
+
+        verify(bookingRepository, times(2)).findBookingsInRange(eq(5L), any(), any(), any());
+    }
+
+    @Test
+    void coversOnlyTheHorizon() {
+        assertThat(cache.covers(today.plusDays(29))).isTrue();
+        assertThat(cache.covers(today.plusDays(30))).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package gofish.pt.service;
+
+import gofish.pt.entity.Item;
+import gofish.pt.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex searchIndex;
+
+    private Item rod;
+    private Item reel;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ItemSearchIndex(itemRepository);
+
+        rod = item(1L, "Cana de Pesca Carbono", "Leve e resistente");
+        reel = item(2L, "Carreto Shimano", "Ideal para cana de pesca ao robalo");
+
+        when(itemRepository.findAll()).thenReturn(List.of(rod, reel));
+        searchIndex.rebuild();
+    }
+
+    private Item item(Long id, String name, String description) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        return item;
+    }
+
+    @Test
+    void tokenizeFoldsCaseAndAccents() {
+        assertThat(ItemSearchIndex.tokenize("Arpão  de-Mergulho, Ação!"))
+                .containsExactly("arpao", "de", "mergulho", "acao");
+    }
+
+    @Test
+    void searchRanksNameMatchesFirst() {
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("cana pesca").keySet()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchMatchesPrefixesAndRequiresEveryTerm() {
+        assertThat(searchIndex.search("carb").keySet()).containsExactly(1L);
+        assertThat(searchIndex.search("cana shimano").keySet()).containsExactly(2L);
+        assertThat(searchIndex.search("kayak")).isEmpty();
+    }
+
+    @Test
+    void indexReplacesTermsAndDropsInactiveItems() {
+        rod.setName("Cana Fibra");
+        searchIndex.index(rod);
+        assertThat(searchIndex.search("carbono")).isEmpty();
+        assertThat(searchIndex.search("fibra").keySet()).containsExactly(1L);
+
+        rod.setActive(false);
+        searchIndex.index(rod);
+        assertThat(searchIndex.search("fibra")).isEmpty();
+    }
+
+    @Test
+    void evictRemovesItem() {
+        searchIndex.evict(2L);
+        assertThat(searchIndex.search("shimano")).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsChangesPublishedWhileLoading() {
+        Item kayak = item(3L, "Kayak Rotomoldado", "Dois lugares");
+        // Both changes commit after the load has read the items
+        when(itemRepository.findAll()).thenAnswer(invocation -> {
+            searchIndex.index(kayak);
+            searchIndex.evict(2L);
+            return List.of(rod, reel);
+        });
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("kayak").keySet()).containsExactly(3L);
+        assertThat(searchIndex.search("shimano")).isEmpty();
+
+        // A later rebuild does not replay them again
+        doReturn(List.of(rod, reel)).when(itemRepository).findAll();
+        searchIndex.rebuild();
+        assertThat(searchIndex.search("kayak")).isEmpty();
+        assertThat(searchIndex.search("shimano").keySet()).containsExactly(2L);
+    }
+}
@@ -1,19 +1,27 @@
 package gofish.pt.service;
 
 import gofish.pt.dto.BlockDateRequestDTO;
+import gofish.pt.dto.BlockedDateRuleRequestDTO;
+import gofish.pt.dto.ItemCursor;
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
 import gofish.pt.dto.ItemDTO;
+import gofish.pt.dto.ItemFacetsDTO;
 import gofish.pt.dto.ItemFilter;
+import gofish.pt.dto.ItemPageDTO;
+import gofish.pt.dto.ItemSummaryDTO;
 import gofish.pt.dto.ItemUpdateDTO;
 import gofish.pt.entity.*;
 import gofish.pt.mapper.ItemMapper;
 import gofish.pt.repository.BlockedDateRepository;
+import gofish.pt.repository.BlockedDateRuleRepository;
 import gofish.pt.repository.BookingRepository;
 import gofish.pt.repository.ItemRepository;
+import gofish.pt.repository.ReviewRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -22,10 +30,14 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -48,9 +60,33 @@ class ItemServiceTest {
     @Mock
     BookingRepository bookingRepository;
 
+    @Mock
+    ReviewRepository reviewRepository;
+
     @Mock
     ItemMapper itemMapper;
 
+    @Mock
+    CatalogSnapshotService catalogSnapshot;
+
+    @Mock
+    ItemSearchIndex searchIndex;
+
+    @Mock
+    ItemFacetService facetService;
+
+    @Mock
+    ItemOccupancyCache occupancy;
+
+    @Mock
+    AvailabilityVersions availabilityVersions;
+
+    @Mock
+    BlockedDateRuleRepository blockedDateRuleRepository;
+
+    @Mock
+    DashboardCounters dashboardCounters;
+
     @InjectMocks
     ItemService itemService;
 
@@ -181,6 +217,147 @@ class ItemServiceTest {
         assertThat(result.get(0).getPrice()).isEqualTo(i1.getPrice());
     }
 
+    @Test
+    void findAllUsesSearchIndexAndSortsByRelevance() {
+        ItemFilter filter = new ItemFilter("rod", null, null, null, null, "relevance", null);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("rod")).thenReturn(Map.of(1L, 1.0, 2L, 4.0));
+        when(itemRepository.findAll(any(Specification.class), eq(Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(i1, i2));
+
+        assertThat(itemService.findAll(filter)).containsExactly(i2, i1);
+    }
+
+    @Test
+    void findAllSkipsDatabaseWhenIndexHasNoMatch() {
+        ItemFilter filter = new ItemFilter("kayak", null, null, null, null, null, null);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("kayak")).thenReturn(Map.of());
+
+        assertThat(itemService.findAll(filter)).isEmpty();
+        verify(itemRepository, never()).findAll(any(Specification.class), any(Sort.class));
+    }
+
+    @Test
+    void findAllFallsBackToLikeWhenIndexMatchesTooMany() {
+        ItemFilter filter = new ItemFilter("rod", null, null, null, null, "relevance", null);
+        Map<Long, Double> matches = new HashMap<>();
+        for (long id = 1; id <= ItemService.MAX_TEXT_CANDIDATES + 1; id++)
+            matches.put(id, id == 1 ? 4.0 : 1.0);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("rod")).thenReturn(matches);
+        when(itemRepository.findAll(any(Specification.class), eq(Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(i2, i1));
+
+        // The rows come from LIKE but are still ranked with the index scores
+        assertThat(itemService.findAll(filter)).containsExactly(i1, i2);
+    }
+
+    @Test
+    void findSummariesUsesSortAndRelevance() {
+        ItemFilter filter = new ItemFilter("rod", null, null, null, null, "relevance", null);
+        ItemSummaryDTO s1 = ItemSummaryDTO.of(i1, null, 0);
+        ItemSummaryDTO s2 = ItemSummaryDTO.of(i2, 5.0, 3);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("rod")).thenReturn(Map.of(1L, 1.0, 2L, 4.0));
+        when(itemRepository.findSummaries(any(Specification.class), eq(Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(s1, s2));
+
+        assertThat(itemService.findSummaries(filter)).containsExactly(s2, s1);
+        verify(itemRepository, never()).findAll(any(Specification.class), any(Sort.class));
+    }
+
+    @Test
+    void findSummariesFromSnapshotLoadsRatingsInOneQuery() {
+        ItemFilter filter = new ItemFilter(null, Category.RODS, null, null, null, null, null);
+        ReviewRepository.RatingSummary rating = mock(ReviewRepository.RatingSummary.class);
+        when(rating.getItemId()).thenReturn(2L);
+        when(rating.getAverageRating()).thenReturn(4.5);
+        when(rating.getReviewCount()).thenReturn(2L);
+        when(catalogSnapshot.supports(filter)).thenReturn(true);
+        when(catalogSnapshot.query(filter)).thenReturn(List.of(i1, i2));
+        when(reviewRepository.summarizeByItemIds(List.of(1L, 2L))).thenReturn(List.of(rating));
+
+        List<ItemSummaryDTO> result = itemService.findSummaries(filter);
+
+        assertThat(result).extracting(ItemSummaryDTO::id).containsExactly(1L, 2L);
+        assertThat(result.get(0).reviewCount()).isZero();
+        assertThat(result.get(1).averageRating()).isEqualTo(4.5);
+        assertThat(result.get(1).owner().username()).isEqualTo("owner");
+        verify(itemRepository, never()).findSummaries(any(), any());
+    }
+
+    @Test
+    void findPageReturnsCursorWhenMoreRowsExist() {
+        ItemSummaryDTO s1 = ItemSummaryDTO.of(i1, null, 0);
+        when(itemRepository.findSummaries(any(Specification.class), any(Sort.class), eq(2)))
+                .thenReturn(List.of(s1, ItemSummaryDTO.of(i2, null, 0)));
+
+        ItemPageDTO page = itemService.findPage(null, 1, null, false);
+
+        assertThat(page.getItems()).containsExactly(s1);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(ItemCursor.decode(page.getNextCursor(), "id", Sort.Direction.ASC).id()).isEqualTo(1L);
+    }
+
+    @Test
+    void findPageLastPageHasNoCursor() {
+        ItemFilter filter = new ItemFilter(null, null, null, null, null, "price", Sort.Direction.DESC);
+        String cursor = ItemCursor.after(i2, "price", Sort.Direction.DESC).encode();
+        ItemSummaryDTO s1 = ItemSummaryDTO.of(i1, null, 0);
+        when(itemRepository.findSummaries(any(Specification.class), any(Sort.class), eq(11))).thenReturn(List.of(s1));
+
+        ItemPageDTO page = itemService.findPage(filter, 10, cursor, false);
+
+        assertThat(page.getItems()).containsExactly(s1);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findPageCountsFacetsOnlyWhenRequested() {
+        ItemFacetsDTO facets = new ItemFacetsDTO();
+        when(itemRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+                .thenReturn(List.of(ItemSummaryDTO.of(i1, null, 0)));
+        when(facetService.countFacets(any(), any())).thenReturn(facets);
+
+        assertThat(itemService.findPage(null, 10, null, false).getFacets()).isNull();
+        verify(facetService, never()).countFacets(any(), any());
+
+        assertThat(itemService.findPage(null, 10, null, true).getFacets()).isSameAs(facets);
+    }
+
+    @Test
+    void findPageRejectsCursorFromAnotherSort() {
+        ItemFilter filter = new ItemFilter(null, null, null, null, null, "name", Sort.Direction.ASC);
+        String cursor = ItemCursor.after(i1, "price", Sort.Direction.ASC).encode();
+
+        assertThatThrownBy(() -> itemService.findPage(filter, 10, cursor, false))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Cursor does not match");
+    }
+
+    @Test
+    void findPageRejectsUnsortableField() {
+        ItemFilter filter = new ItemFilter(null, null, null, null, null, "owner", Sort.Direction.ASC);
+
+        assertThatThrownBy(() -> itemService.findPage(filter, 10, null, false))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Cannot paginate by owner");
+        verify(itemRepository, never()).findSummaries(any(Specification.class), any(Sort.class), anyInt());
+    }
+
+    @Test
+    void findAllRejectsInvertedDateRange() {
+        LocalDate today = LocalDate.now();
+        ItemFilter filter = new ItemFilter(null, null, null, null, null, null, null, null, today, today.minusDays(1));
+
+        assertThatThrownBy(() -> itemService.findAll(filter))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Start date cannot be after end date");
+        verify(itemRepository, never()).findAll(any(Specification.class), any(Sort.class));
+    }
+
     @Nested
     @DisplayName("Tests for blockDateRange method")
     class BlockDateRangeTests {
@@ -192,8 +369,8 @@ class ItemServiceTest {
             request.setEndDate(LocalDate.now().plusDays(5));
             request.setReason("Maintenance");
 
-            when(itemRepository.findById(1L)).thenReturn(Optional.of(i1));
-            when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any())).thenReturn(false);
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
+            when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any(), any())).thenReturn(false);
             when(blockedDateRepository.save(any(BlockedDate.class)))
                     .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -203,12 +380,41 @@ class ItemServiceTest {
             assertThat(result.getReason()).isEqualTo("Maintenance");
             assertThat(result.getItem()).isEqualTo(i1);
             verify(blockedDateRepository, times(1)).save(any(BlockedDate.class));
+            verify(occupancy).occupy(1L, request.getStartDate(), request.getEndDate());
+        }
+
+        @Test
+        void whenRangeOverlapsOrTouchesBlockedPeriods_thenMergeIntoOneRow() {
+            LocalDate today = LocalDate.now();
+            BlockDateRequestDTO request = new BlockDateRequestDTO();
+            request.setStartDate(today.plusDays(3));
+            request.setEndDate(today.plusDays(5));
+            BlockedDate before = new BlockedDate(today, today.plusDays(2), "Maintenance", i1);
+            before.setId(7L);
+            BlockedDate overlapping = new BlockedDate(today.plusDays(5), today.plusDays(9), "Holidays", i1);
+            overlapping.setId(8L);
+
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
+            when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any(), any())).thenReturn(false);
+            when(blockedDateRepository.findBlockedDatesInRange(1L, today.plusDays(2), today.plusDays(6)))
+                    .thenReturn(List.of(overlapping, before));
+
+            BlockedDate result = itemService.blockDateRange(1L, request, 1L);
+
+            assertThat(result).isSameAs(before);
+            assertThat(result.getStartDate()).isEqualTo(today);
+            assertThat(result.getEndDate()).isEqualTo(today.plusDays(9));
+            assertThat(result.getReason()).isEqualTo("Maintenance");
+            verify(blockedDateRepository).deleteAllInBatch(List.of(overlapping));
+            verify(blockedDateRepository, never()).save(any(BlockedDate.class));
         }
 
         @Test
         void whenUserIsNotOwner_thenThrowForbidden() {
             BlockDateRequestDTO request = new BlockDateRequestDTO();
-            when(itemRepository.findById(1L)).thenReturn(Optional.of(i1));
+            request.setStartDate(LocalDate.now());
+            request.setEndDate(LocalDate.now().plusDays(1));
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
 
             assertThatThrownBy(() -> itemService.blockDateRange(1L, request, 99L)) // Different owner ID
                     .isInstanceOf(ResponseStatusException.class)
@@ -218,7 +424,9 @@ class ItemServiceTest {
         @Test
         void whenItemNotFound_thenThrowNotFound() {
             BlockDateRequestDTO request = new BlockDateRequestDTO();
-            when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+            request.setStartDate(LocalDate.now());
+            request.setEndDate(LocalDate.now().plusDays(1));
+            when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> itemService.blockDateRange(1L, request, 1L))
                     .isInstanceOf(ResponseStatusException.class)
@@ -231,8 +439,8 @@ class ItemServiceTest {
             request.setStartDate(LocalDate.now());
             request.setEndDate(LocalDate.now().plusDays(5));
 
-            when(itemRepository.findById(1L)).thenReturn(Optional.of(i1));
-            when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any())).thenReturn(true);
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
+            when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any(), any())).thenReturn(true);
 
             assertThatThrownBy(() -> itemService.blockDateRange(1L, request, 1L))
                     .isInstanceOf(ResponseStatusException.class)
@@ -253,6 +461,7 @@ class ItemServiceTest {
             itemService.unblockDateRange(1L, 1L);
 
             verify(blockedDateRepository, times(1)).delete(blockedDate);
+            verify(occupancy).evict(i1.getId());
         }
 
         @Test
@@ -265,6 +474,53 @@ class ItemServiceTest {
                     .hasFieldOrPropertyWithValue("statusCode", HttpStatus.FORBIDDEN);
         }
 
+        @Test
+        void whenRangeIsInsideAPeriod_thenSplitIt() {
+            LocalDate today = LocalDate.now();
+            BlockedDate period = new BlockedDate(today, today.plusDays(9), "Holidays", i1);
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
+            when(blockedDateRepository.findBlockedDatesInRange(1L, today.plusDays(3), today.plusDays(4)))
+                    .thenReturn(List.of(period));
+
+            itemService.unblockDates(1L, today.plusDays(3), today.plusDays(4), 1L);
+
+            assertThat(period.getStartDate()).isEqualTo(today);
+            assertThat(period.getEndDate()).isEqualTo(today.plusDays(2));
+            ArgumentCaptor<BlockedDate> tail = ArgumentCaptor.forClass(BlockedDate.class);
+            verify(blockedDateRepository).save(tail.capture());
+            assertThat(tail.getValue().getStartDate()).isEqualTo(today.plusDays(5));
+            assertThat(tail.getValue().getEndDate()).isEqualTo(today.plusDays(9));
+            assertThat(tail.getValue().getReason()).isEqualTo("Holidays");
+            verify(occupancy).evict(1L);
+        }
+
+        @Test
+        void whenRangeCoversAndCrossesPeriods_thenDeleteAndTrimThem() {
+            LocalDate today = LocalDate.now();
+            BlockedDate inside = new BlockedDate(today.plusDays(2), today.plusDays(3), "A", i1);
+            BlockedDate crossing = new BlockedDate(today.plusDays(5), today.plusDays(8), "B", i1);
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
+            when(blockedDateRepository.findBlockedDatesInRange(1L, today, today.plusDays(6)))
+                    .thenReturn(List.of(inside, crossing));
+
+            itemService.unblockDates(1L, today, today.plusDays(6), 1L);
+
+            verify(blockedDateRepository).deleteAllInBatch(List.of(inside));
+            assertThat(crossing.getStartDate()).isEqualTo(today.plusDays(7));
+            assertThat(crossing.getEndDate()).isEqualTo(today.plusDays(8));
+            verify(blockedDateRepository, never()).save(any(BlockedDate.class));
+        }
+
+        @Test
+        void whenUnblockingRangeOfAnotherOwnersItem_thenThrowForbidden() {
+            when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(i1));
+
+            assertThatThrownBy(() -> itemService.unblockDates(1L, LocalDate.now(), LocalDate.now(), 99L))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasFieldOrPropertyWithValue("statusCode", HttpStatus.FORBIDDEN);
+            verifyNoInteractions(blockedDateRepository);
+        }
+
         @Test
         void whenBlockedDateNotFound_thenThrowNotFound() {
             when(blockedDateRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -275,6 +531,58 @@ class ItemServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tests for recurring blocked date rules")
+    class BlockedDateRuleTests {
+
+        @Test
+        void whenValidRequest_thenStoreWeekdayMaskAndSeason() {
+            BlockedDateRuleRequestDTO request = new BlockedDateRuleRequestDTO();
+            request.setDaysOfWeek(Set.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+            request.setSeasonStart(MonthDay.of(11, 1));
+            request.setSeasonEnd(MonthDay.of(2, 28));
+            request.setReason("Off-season");
+
+            when(itemRepository.findById(1L)).thenReturn(Optional.of(i1));
+            when(blockedDateRuleRepository.save(any(BlockedDateRule.class)))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            BlockedDateRule rule = itemService.addBlockedDateRule(1L, request, 1L);
+
+            assertThat(rule.getWeekdays()).isEqualTo(0b10001);
+            assertThat(rule.getSeasonStart()).isEqualTo(1101);
+            assertThat(rule.getSeasonEnd()).isEqualTo(228);
+            assertThat(rule.getItem()).isEqualTo(i1);
+            verify(occupancy).evict(1L);
+            verify(availabilityVersions).bump(1L);
+        }
+
+        @Test
+        void whenSeasonHasOnlyOneEnd_thenThrowBadRequest() {
+            BlockedDateRuleRequestDTO request = new BlockedDateRuleRequestDTO();
+            request.setDaysOfWeek(Set.of(DayOfWeek.SUNDAY));
+            request.setSeasonStart(MonthDay.of(11, 1));
+
+            when(itemRepository.findById(1L)).thenReturn(Optional.of(i1));
+
+            assertThatThrownBy(() -> itemService.addBlockedDateRule(1L, request, 1L))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasFieldOrPropertyWithValue("statusCode", HttpStatus.BAD_REQUEST);
+            verify(blockedDateRuleRepository, never()).save(any());
+        }
+
+        @Test
+        void whenUserIsNotOwner_thenThrowForbiddenOnRemove() {
+            BlockedDateRule rule = new BlockedDateRule(RecurringBlocks.ALL_WEEKDAYS, null, null, null, i1);
+            when(blockedDateRuleRepository.findById(2L)).thenReturn(Optional.of(rule));
+
+            assertThatThrownBy(() -> itemService.removeBlockedDateRule(2L, 99L))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasFieldOrPropertyWithValue("statusCode", HttpStatus.FORBIDDEN);
+            verify(blockedDateRuleRepository, never()).delete(any());
+        }
+    }
+
     @Test
     void testGetCategories_ReturnsOnlyTopLevelCategories() {
         List<Category> categories = itemService.getCategories();
@@ -323,12 +631,12 @@ class ItemServiceTest {
         request.setStartDate(LocalDate.now().plusDays(10));
         request.setEndDate(LocalDate.now()); // End before start
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(i1));
-
         assertThatThrownBy(() -> itemService.blockDateRange(1L, request, 1L))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasFieldOrPropertyWithValue("statusCode", HttpStatus.BAD_REQUEST)
                 .hasMessageContaining("Start date cannot be after end date");
+        // Rejected before the item row is locked
+        verify(itemRepository, never()).findByIdForUpdate(anyLong());
     }
 
     @Test
@@ -1,14 +1,21 @@
 package gofish.pt.service;
 
 import app.getxray.xray.junit.customjunitxml.annotations.Requirement;
+import com.stripe.exception.ApiConnectionException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
 import gofish.pt.dto.ConfirmPaymentDTO;
+import gofish.pt.dto.CreateCartPaymentIntentDTO;
 import gofish.pt.dto.CreatePaymentIntentDTO;
 import gofish.pt.dto.PaymentIntentResponseDTO;
 import gofish.pt.entity.*;
+import gofish.pt.repository.BookingCartRepository;
 import gofish.pt.repository.BookingRepository;
+import gofish.pt.repository.ItemRepository;
 import gofish.pt.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,11 +28,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +47,21 @@ class PaymentServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemOccupancyCache occupancy;
+
+    @Mock
+    private AvailabilityVersions availabilityVersions;
+
+    @Mock
+    private BookingCartRepository bookingCartRepository;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -110,10 +135,25 @@ class PaymentServiceTest {
         verify(paymentRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Should throw error when the booking hold has expired")
+    void createPaymentIntent_WhenHoldExpired_ShouldThrowError() {
+        booking.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        CreatePaymentIntentDTO dto = new CreatePaymentIntentDTO(booking.getId(), 5000L, "eur");
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(dto))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Booking hold has expired");
+
+        verify(paymentRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Should create PaymentIntent successfully for valid pending booking")
     @Requirement("GF-69")
     void createPaymentIntent_WithValidPendingBooking_ShouldSucceed() {
+        booking.setPriceCents(5000L);
         CreatePaymentIntentDTO dto = new CreatePaymentIntentDTO(booking.getId(), 5000L, "eur");
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> i.getArguments()[0]);
@@ -136,6 +176,30 @@ class PaymentServiceTest {
             assertThat(response.getCurrency()).isEqualTo("eur");
 
             verify(paymentRepository, times(1)).save(any(Payment.class));
+            verify(dashboardCounters).paymentAdded(PaymentStatus.PENDING);
+        }
+    }
+
+    @Test
+    @DisplayName("Should charge the stored booking price, not the amount the client sent")
+    void createPaymentIntent_ShouldChargeStoredPrice() {
+        booking.setPriceCents(7500L);
+        CreatePaymentIntentDTO dto = new CreatePaymentIntentDTO(booking.getId(), 1L, "eur");
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getId()).thenReturn("pi_test_123");
+            mockedPaymentIntent.when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)))
+                    .thenReturn(mockIntent);
+
+            PaymentIntentResponseDTO response = paymentService.createPaymentIntent(dto);
+
+            assertThat(response.getAmount()).isEqualTo(7500L);
+            mockedPaymentIntent.verify(() -> PaymentIntent.create(
+                    argThat((PaymentIntentCreateParams params) -> params.getAmount() == 7500L)));
+            verify(paymentRepository).save(argThat(p -> p.getAmount() == 7500L));
         }
     }
 
@@ -206,7 +270,7 @@ class PaymentServiceTest {
         ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
         when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
         when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(bookingRepository.updateStatusIfPending(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(1);
 
         try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class)) {
             PaymentIntent mockIntent = mock(PaymentIntent.class);
@@ -225,7 +289,288 @@ class PaymentServiceTest {
             assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
 
             verify(paymentRepository, times(1)).save(payment);
-            verify(bookingRepository, times(1)).save(booking);
+            verify(bookingRepository).updateStatusIfPending(booking.getId(), BookingStatus.CONFIRMED);
+            verify(occupancy).bookingChanged(booking);
+            verify(dashboardCounters).bookingsMoved(eq(BookingStatus.PENDING), eq(BookingStatus.CONFIRMED), eq(1),
+                    anyLong());
+            verify(dashboardCounters).paymentMoved(PaymentStatus.PENDING, PaymentStatus.SUCCEEDED);
+        }
+    }
+
+    // --- Cart payments ---
+
+    private BookingCart cartOf(Booking... bookings) {
+        BookingCart cart = new BookingCart();
+        cart.setId(7L);
+        cart.setTotalCents(9000L);
+        for (Booking each : bookings) {
+            each.setCart(cart);
+            each.setHoldExpiresAt(LocalDateTime.now().plusMinutes(10));
+        }
+        return cart;
+    }
+
+    private Booking secondBooking() {
+        Item reel = new Item();
+        reel.setId(2L);
+        reel.setPrice(20.0);
+        reel.setOwner(owner);
+
+        Booking second = new Booking();
+        second.setId(101L);
+        second.setUser(renter);
+        second.setItem(reel);
+        second.setStatus(BookingStatus.PENDING);
+        second.setStartDate(booking.getStartDate());
+        second.setEndDate(booking.getEndDate());
+        return second;
+    }
+
+    @Test
+    @DisplayName("Should create one PaymentIntent for the whole cart, charging the cart total")
+    void createCartPaymentIntent_ShouldChargeCartTotalOnce() {
+        Booking second = secondBooking();
+        BookingCart cart = cartOf(booking, second);
+        when(bookingCartRepository.findById(7L)).thenReturn(Optional.of(cart));
+        when(bookingRepository.findAllByCartIdOrderByItemIdAsc(7L)).thenReturn(List.of(booking, second));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getId()).thenReturn("pi_cart");
+            mockedPaymentIntent.when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)))
+                    .thenReturn(mockIntent);
+
+            PaymentIntentResponseDTO response = paymentService.createCartPaymentIntent(
+                    new CreateCartPaymentIntentDTO(7L, null));
+
+            assertThat(response.getAmount()).isEqualTo(9000L);
+            assertThat(response.getCurrency()).isEqualTo("eur");
+            mockedPaymentIntent.verify(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)), times(1));
+            verify(paymentRepository).save(argThat(p -> p.getBooking() == booking && p.getAmount() == 9000L));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to charge a cart whose hold has expired")
+    void createCartPaymentIntent_WhenHoldExpired_ShouldConflict() {
+        Booking second = secondBooking();
+        BookingCart cart = cartOf(booking, second);
+        second.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(bookingCartRepository.findById(7L)).thenReturn(Optional.of(cart));
+        when(bookingRepository.findAllByCartIdOrderByItemIdAsc(7L)).thenReturn(List.of(booking, second));
+
+        assertThatThrownBy(() -> paymentService.createCartPaymentIntent(new CreateCartPaymentIntentDTO(7L, "eur")))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("expired");
+
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse a single-booking intent for a booking that belongs to a cart")
+    void createPaymentIntent_ForCartBooking_ShouldPointAtCartIntent() {
+        cartOf(booking, secondBooking());
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class)) {
+            assertThatThrownBy(() -> paymentService.createPaymentIntent(
+                    new CreatePaymentIntentDTO(booking.getId(), 2000L, "eur")))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("create-cart-intent");
+
+            mockedPaymentIntent.verifyNoInteractions();
+            verify(paymentRepository, never()).save(any());
+        }
+    }
+
+    @Test
+    @DisplayName("Should confirm every booking of the cart when its payment succeeds")
+    void confirmPayment_ForCart_ShouldConfirmAllBookings() {
+        Booking second = secondBooking();
+        cartOf(booking, second);
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+        when(bookingRepository.findAllByCartIdOrderByItemIdAsc(7L)).thenReturn(List.of(booking, second));
+        when(bookingRepository.updateStatusIfPending(anyLong(), eq(BookingStatus.CONFIRMED))).thenReturn(1);
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+
+            paymentService.confirmPayment(dto);
+
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+            assertThat(second.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+            verify(occupancy).bookingChanged(booking);
+            verify(occupancy).bookingChanged(second);
+            verify(availabilityVersions).bump(1L);
+            verify(availabilityVersions).bump(2L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the payment and refund it when a lapsed hold lost its dates")
+    void confirmPayment_WhenHoldExpiredAndDatesTaken_ShouldRefund() {
+        booking.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+        when(bookingRepository.existsOverlappingBooking(eq(item.getId()), eq(booking.getStartDate()),
+                eq(booking.getEndDate()), any())).thenReturn(true);
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class);
+                MockedStatic<Refund> mockedRefund = mockStatic(Refund.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+
+            PaymentIntentResponseDTO response = paymentService.confirmPayment(dto);
+
+            assertThat(response.getStatus()).isEqualTo("refunded");
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+            assertThat(payment.getRefundDue()).isFalse();
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+            verify(itemRepository).findByIdForUpdate(item.getId());
+            verify(paymentRepository).save(payment);
+            mockedRefund.verify(() -> Refund.create(any(RefundCreateParams.class), any(RequestOptions.class)));
+            verify(dashboardCounters).paymentMoved(PaymentStatus.PENDING, PaymentStatus.SUCCEEDED);
+            verify(dashboardCounters).paymentMoved(PaymentStatus.SUCCEEDED, PaymentStatus.REFUNDED);
+            verify(dashboardCounters, never()).bookingsMoved(any(), eq(BookingStatus.CONFIRMED), anyInt(),
+                    anyLong());
+        }
+    }
+
+    @Test
+    @DisplayName("Should flag the payment for a manual refund when Stripe refuses the refund")
+    void confirmPayment_WhenRefundFails_ShouldFlagRefundDue() {
+        booking.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+        when(bookingRepository.existsOverlappingBooking(eq(item.getId()), eq(booking.getStartDate()),
+                eq(booking.getEndDate()), any())).thenReturn(true);
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class);
+                MockedStatic<Refund> mockedRefund = mockStatic(Refund.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+            mockedRefund.when(() -> Refund.create(any(RefundCreateParams.class), any(RequestOptions.class)))
+                    .thenThrow(new ApiConnectionException("Stripe unreachable"));
+
+            PaymentIntentResponseDTO response = paymentService.confirmPayment(dto);
+
+            assertThat(response.getStatus()).isEqualTo("refund_pending");
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+            assertThat(payment.getRefundDue()).isTrue();
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+            verify(paymentRepository).save(payment);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not resurrect a cart booking the owner cancelled")
+    void confirmPayment_ForCartWithCancelledBooking_ShouldRefundInsteadOfConfirming() {
+        Booking second = secondBooking();
+        cartOf(booking, second);
+        second.setStatus(BookingStatus.CANCELLED);
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+        when(bookingRepository.findAllByCartIdOrderByItemIdAsc(7L)).thenReturn(List.of(booking, second));
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class);
+                MockedStatic<Refund> mockedRefund = mockStatic(Refund.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+
+            paymentService.confirmPayment(dto);
+
+            assertThat(second.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+            // The still-pending booking gives its dates back
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+            verify(bookingRepository).save(booking);
+            verify(bookingRepository, never()).save(second);
+            verify(availabilityVersions).bump(1L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the payment for a booking the owner confirmed before it was paid")
+    void confirmPayment_WhenOwnerAlreadyConfirmed_ShouldKeepPayment() {
+        booking.setStatus(BookingStatus.CONFIRMED);
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class);
+                MockedStatic<Refund> mockedRefund = mockStatic(Refund.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+
+            assertThat(paymentService.confirmPayment(dto).getStatus()).isEqualTo("succeeded");
+
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+            verify(paymentRepository).save(payment);
+            verify(bookingRepository, never()).updateStatusIfPending(any(), any());
+            verify(dashboardCounters, never()).bookingsMoved(any(), any(), anyInt(), anyLong());
+            mockedRefund.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refund when the reaper expired the hold while the payment was confirmed")
+    void confirmPayment_WhenReaperExpiredHoldMeanwhile_ShouldRefund() {
+        booking.setHoldExpiresAt(LocalDateTime.now().plusMinutes(1));
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+        // Already CANCELLED in the database, so the conditional update matches nothing
+        when(bookingRepository.updateStatusIfPending(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(0);
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class);
+                MockedStatic<Refund> mockedRefund = mockStatic(Refund.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+
+            assertThat(paymentService.confirmPayment(dto).getStatus()).isEqualTo("refunded");
+
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+            // The reaper has counted the cancellation already
+            verify(dashboardCounters, never()).bookingsMoved(any(), any(), anyInt(), anyLong());
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave bookings alone when a succeeded payment is confirmed again")
+    void confirmPayment_WhenAlreadySucceeded_ShouldNotTouchBookings() {
+        payment.setStatus(PaymentStatus.SUCCEEDED);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        ConfirmPaymentDTO dto = new ConfirmPaymentDTO("pi_test_123", booking.getId());
+        when(paymentRepository.findByStripePaymentIntentId("pi_test_123")).thenReturn(Optional.of(payment));
+
+        try (MockedStatic<PaymentIntent> mockedPaymentIntent = mockStatic(PaymentIntent.class);
+                MockedStatic<Refund> mockedRefund = mockStatic(Refund.class)) {
+            PaymentIntent mockIntent = mock(PaymentIntent.class);
+            when(mockIntent.getStatus()).thenReturn("succeeded");
+            mockedPaymentIntent.when(() -> PaymentIntent.retrieve("pi_test_123"))
+                    .thenReturn(mockIntent);
+
+            assertThat(paymentService.confirmPayment(dto).getStatus()).isEqualTo("succeeded");
+
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+            verifyNoInteractions(bookingRepository, dashboardCounters);
+            verify(paymentRepository, never()).save(any());
+            mockedRefund.verifyNoInteractions();
         }
     }
 
@@ -250,6 +595,7 @@ class PaymentServiceTest {
 
             assertThat(payment.getStatus()).isEqualTo(PaymentStatus.FAILED);
             verify(paymentRepository, times(1)).save(payment);
+            verify(dashboardCounters).paymentMoved(PaymentStatus.PENDING, PaymentStatus.FAILED);
         }
     }
 
@@ -301,6 +647,15 @@ class PaymentServiceTest {
         assertThat(amount).isEqualTo(2500L); // 25 * 100 * 1 = 2500 cents (minimum 1 day)
     }
 
+    @Test
+    @DisplayName("Should charge the price stored at booking time, not the current item price")
+    void calculateBookingAmount_WhenPriceStored_ShouldUseIt() {
+        booking.setPriceCents(4000L);
+        item.setPrice(99.0);
+
+        assertThat(paymentService.calculateBookingAmount(booking)).isEqualTo(4000L);
+    }
+
     @Test
     @DisplayName("Should return 0 when item has no price")
     @Requirement("GF-69")
@@ -0,0 +1,68 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import gofish.pt.entity.BlockedDateRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurringBlocksTest {
+
+    // A Monday
+    private final LocalDate monday = LocalDate.of(2026, 3, 9);
+
+    private BlockedDateRule rule(int weekdays, Integer seasonStart, Integer seasonEnd) {
+        return new BlockedDateRule(weekdays, seasonStart, seasonEnd, null, null);
+    }
+
+    @Test
+    void weekdayMaskBlocksThoseDaysEveryWeek() {
+        int weekend = RecurringBlocks.weekdayBit(DayOfWeek.SATURDAY) | RecurringBlocks.weekdayBit(DayOfWeek.SUNDAY);
+
+        List<DateRange> ranges = RecurringBlocks.ranges(List.of(rule(weekend, null, null)),
+                monday.plusDays(2), monday.plusDays(13));
+
+        assertThat(ranges).containsExactly(new DateRange(monday.plusDays(5), monday.plusDays(6)),
+                new DateRange(monday.plusDays(12), monday.plusDays(13)));
+    }
+
+    @Test
+    void seasonWrapsOverTheNewYear() {
+        BlockedDateRule offSeason = rule(RecurringBlocks.ALL_WEEKDAYS, 1101, 228);
+
+        assertThat(RecurringBlocks.ranges(List.of(offSeason), LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31)))
+                .containsExactly(new DateRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 28)),
+                        new DateRange(LocalDate.of(2026, 11, 1), LocalDate.of(2026, 12, 31)));
+    }
+
+    @Test
+    void weekdaysAndSeasonCombine() {
+        // Mondays in March only
+        BlockedDateRule rule = rule(RecurringBlocks.weekdayBit(DayOfWeek.MONDAY), 301, 331);
+
+        assertThat(RecurringBlocks.ranges(List.of(rule), LocalDate.of(2026, 2, 20), LocalDate.of(2026, 4, 10)))
+                .extracting(DateRange::start)
+                .containsExactly(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 16),
+                        LocalDate.of(2026, 3, 23), LocalDate.of(2026, 3, 30));
+    }
+
+    @Test
+    void blocksAnyOnlyLooksAtTheWindow() {
+        List<BlockedDateRule> sundays = List.of(rule(RecurringBlocks.weekdayBit(DayOfWeek.SUNDAY), null, null));
+
+        assertThat(RecurringBlocks.blocksAny(sundays, monday, monday.plusDays(5))).isFalse();
+        assertThat(RecurringBlocks.blocksAny(sundays, monday, monday.plusDays(6))).isTrue();
+        assertThat(RecurringBlocks.blocksAny(List.of(), monday, monday.plusDays(30))).isFalse();
+    }
+
+    @Test
+    void monthDaysRoundTripAsMmdd() {
+        assertThat(RecurringBlocks.mmdd(MonthDay.of(2, 29))).isEqualTo(229);
+        assertThat(RecurringBlocks.monthDay(1101)).isEqualTo(MonthDay.of(11, 1));
+    }
+}
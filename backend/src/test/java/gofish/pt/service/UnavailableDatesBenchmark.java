@@ -0,0 +1,66 @@
+package gofish.pt.service;
+
+import gofish.pt.dto.DateRange;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the interval sweep in {@link DateIntervals} with the previous per-day scan
+ * (every day checked against every booking and blocked period).
+ * <p>
+ * Not part of the test suite. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main UnavailableDatesBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnavailableDatesBenchmark {
+
+    @Param({ "100", "500", "2000" })
+    private int intervals;
+
+    @Param({ "31", "365" })
+    private int days;
+
+    private LocalDate from;
+    private LocalDate to;
+    private List<DateRange> ranges;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        from = LocalDate.now();
+        to = from.plusDays(days - 1L);
+
+        ranges = new ArrayList<>(intervals);
+        for (int i = 0; i < intervals; i++) {
+            LocalDate start = from.plusDays(random.nextInt(days));
+            ranges.add(new DateRange(start, start.plusDays(random.nextInt(7))));
+        }
+    }
+
+    @Benchmark
+    public List<LocalDate> perDayScan() {
+        return from.datesUntil(to.plusDays(1))
+                .filter(date -> ranges.stream()
+                        .anyMatch(range -> !date.isBefore(range.start()) && !date.isAfter(range.end())))
+                .sorted()
+                .toList();
+    }
+
+    @Benchmark
+    public List<LocalDate> intervalSweep() {
+        return DateIntervals.days(DateIntervals.merge(ranges), from, to);
+    }
+}
@@ -44,6 +44,9 @@ class UserServiceLoginTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private UserService userService;
 
@@ -5,6 +5,7 @@ import gofish.pt.entity.Booking;
 import gofish.pt.entity.Item;
 import gofish.pt.entity.User;
 import gofish.pt.exception.DuplicateEmailException;
+import gofish.pt.repository.BookingRepository;
 import gofish.pt.repository.UserRepository;
 import gofish.pt.repository.UserRoleRepository;
 import gofish.pt.repository.UserStatusRepository;
@@ -45,6 +46,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private UserService userService;
 
@@ -82,6 +89,7 @@ class UserServiceTest {
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
+        verify(dashboardCounters).userAdded();
 
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(userCaptor.capture());
@@ -183,26 +191,27 @@ class UserServiceTest {
     @Requirement("GF-91")
     void getUserOwnedBookings_returnsOwnedBookings() {
         Long userId = 3L;
-        User user = mock(User.class);
-        Item item1 = mock(Item.class);
-        Item item2 = mock(Item.class);
         Booking b1 = mock(Booking.class);
         Booking b2 = mock(Booking.class);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(user.getItems()).thenReturn(List.of(item1, item2));
-        when(item1.getBookings()).thenReturn(List.of(b1));
-        when(item2.getBookings()).thenReturn(List.of(b2));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerId(userId)).thenReturn(List.of(b1, b2));
 
         List<Booking> result = userService.getUserOwnedBookings(userId);
 
         assertEquals(2, result.size());
         assertTrue(result.contains(b1));
         assertTrue(result.contains(b2));
-        verify(userRepository).findById(userId);
-        verify(user).getItems();
-        verify(item1).getBookings();
-        verify(item2).getBookings();
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    @Requirement("GF-91")
+    void getUserOwnedBookings_unknownUser_throws() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserOwnedBookings(99L));
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -15,19 +15,44 @@ interface AdminUser {
     bookingCount: number;
 }
 
+interface UserPage {
+    content: AdminUser[];
+    number: number;
+    totalPages: number;
+    totalElements: number;
+}
+
+const PAGE_SIZE = 20;
+
 export default function AdminUsersPage() {
     const [users, setUsers] = useState<AdminUser[]>([]);
     const [loading, setLoading] = useState(true);
     const [actionLoading, setActionLoading] = useState<number | null>(null);
+    const [page, setPage] = useState(0);
+    const [totalPages, setTotalPages] = useState(0);
+    const [totalElements, setTotalElements] = useState(0);
+    const [roleFilter, setRoleFilter] = useState<string>('');
+    const [statusFilter, setStatusFilter] = useState<string>('');
 
     const fetchUsers = async () => {
         try {
             const token = localStorage.getItem('token');
-            const response = await fetch(`${process.env.NEXT_PUBLIC_API_URL}/admin/users`, {
+            const params = new URLSearchParams({ page: String(page), size: String(PAGE_SIZE) });
+            if (roleFilter) params.set('role', roleFilter);
+            if (statusFilter) params.set('status', statusFilter);
+            const response = await fetch(`${process.env.NEXT_PUBLIC_API_URL}/admin/users?${params}`, {
                 headers: { 'Authorization': `Bearer ${token}` },
             });
             if (!response.ok) throw new Error('Failed to fetch users');
-            setUsers(await response.json());
+            const data: UserPage = await response.json();
+            // An action can empty the last page; step back instead of showing nothing
+            if (data.content.length === 0 && page > 0 && page >= data.totalPages) {
+                setPage(Math.max(data.totalPages - 1, 0));
+                return;
+            }
+            setUsers(data.content);
+            setTotalPages(data.totalPages);
+            setTotalElements(data.totalElements);
         } catch {
             toast.error('Failed to load users');
         } finally {
@@ -35,7 +60,7 @@ export default function AdminUsersPage() {
         }
     };
 
-    useEffect(() => { fetchUsers(); }, []);
+    useEffect(() => { fetchUsers(); }, [page, roleFilter, statusFilter]);
 
     const handleSuspend = async (userId: number) => {
         const reason = prompt('Enter suspension reason:');
@@ -105,9 +130,26 @@ export default function AdminUsersPage() {
 
     return (
         <div className="p-6 space-y-6">
-            <div>
-                <h1 className="text-3xl font-bold bg-gradient-to-r from-gray-800 to-gray-600 bg-clip-text text-transparent">User Management</h1>
-                <p className="text-gray-500 mt-1">Manage platform users and their access</p>
+            <div className="flex items-center justify-between">
+                <div>
+                    <h1 className="text-3xl font-bold bg-gradient-to-r from-gray-800 to-gray-600 bg-clip-text text-transparent">User Management</h1>
+                    <p className="text-gray-500 mt-1">Manage platform users and their access</p>
+                </div>
+                <div className="flex gap-3">
+                    <select value={roleFilter} onChange={(e) => { setRoleFilter(e.target.value); setPage(0); }}
+                        className="backdrop-blur-xl bg-white/70 text-gray-700 border border-white/50 rounded-xl px-4 py-2.5 shadow-sm focus:outline-none focus:ring-2 focus:ring-blue-400/50">
+                        <option value="">All Roles</option>
+                        <option value="USER">User</option>
+                        <option value="ADMIN">Admin</option>
+                    </select>
+                    <select value={statusFilter} onChange={(e) => { setStatusFilter(e.target.value); setPage(0); }}
+                        className="backdrop-blur-xl bg-white/70 text-gray-700 border border-white/50 rounded-xl px-4 py-2.5 shadow-sm focus:outline-none focus:ring-2 focus:ring-blue-400/50">
+                        <option value="">All Statuses</option>
+                        <option value="ACTIVE">Active</option>
+                        <option value="SUSPENDED">Suspended</option>
+                        <option value="DELETED">Deleted</option>
+                    </select>
+                </div>
             </div>
 
             <div className="backdrop-blur-xl bg-white/70 rounded-2xl border border-white/50 shadow-xl overflow-hidden">
@@ -172,7 +214,27 @@ export default function AdminUsersPage() {
                         ))}
                     </tbody>
                 </table>
+                {users.length === 0 && (
+                    <p className="p-12 text-center text-gray-500 text-lg">No users found</p>
+                )}
             </div>
+
+            {totalPages > 1 && (
+                <div className="flex items-center justify-between">
+                    <p className="text-gray-500 text-sm">{totalElements} users</p>
+                    <div className="flex items-center gap-3">
+                        <button onClick={() => setPage(page - 1)} disabled={page === 0}
+                            className="px-4 py-2 backdrop-blur-xl bg-white/70 text-gray-700 text-sm font-medium rounded-xl border border-white/50 shadow-sm disabled:opacity-50">
+                            Previous
+                        </button>
+                        <span className="text-gray-600 text-sm">Page {page + 1} of {totalPages}</span>
+                        <button onClick={() => setPage(page + 1)} disabled={page + 1 >= totalPages}
+                            className="px-4 py-2 backdrop-blur-xl bg-white/70 text-gray-700 text-sm font-medium rounded-xl border border-white/50 shadow-sm disabled:opacity-50">
+                            Next
+                        </button>
+                    </div>
+                </div>
+            )}
         </div>
     );
 }
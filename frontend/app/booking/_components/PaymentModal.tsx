@@ -84,6 +84,8 @@ export default function PaymentModal({
 
       const data = await response.json();
       setClientSecret(data.clientSecret);
+      // The backend charges the price stored with the booking
+      setAmount(data.amount);
     } catch (err) {
       setError(
         err instanceof Error ? err.message : "Payment initialization failed"